@@ -23,12 +23,13 @@ package doom;
  */
 public enum CommandVariable {
     DISP(String.class), GEOM(String[].class), CONFIG(String[].class), TRANMAP(String.class),
-    PLAYDEMO(String.class), FASTDEMO(String.class), TIMEDEMO(String.class), RECORD(String.class), STATCOPY(String.class),
+    PLAYDEMO(String.class), FASTDEMO(String.class), TIMEDEMO(String.class), BENCHMARK(String[].class), BENCHOUT(String.class), RECORD(String.class), STATCOPY(String.class),
     TURBO(Integer.class), SKILL(Integer.class), EPISODE(Integer.class), TIMER(Integer.class), PORT(Integer.class),
     MULTIPLY(Integer.class), WIDTH(Integer.class), HEIGHT(Integer.class),
     
     PARALLELRENDERER(Integer.class, Integer.class, Integer.class),
     PARALLELRENDERER2(Integer.class, Integer.class, Integer.class),
+    PARALLELRENDERER3(Integer.class),
     
     LOADGAME(Character.class), DUP(Character.class),
     NET(Character.class, String[].class),
@@ -239,4 +240,4 @@ public enum CommandVariable {
             return new WarpFormat(Math.max(parse, 0)).getMetric(commercial);
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
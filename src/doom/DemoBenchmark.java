@@ -0,0 +1,349 @@
+package doom;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import rr.RenderTimings;
+import utils.C2JUtils;
+
+/**
+ * Plays a list of demos back to back as timedemos, recording how long every
+ * tic of playsim and every frame (and stage of the renderer) took, and writes
+ * the lot out when done, instead of dying with a single "timed N gametics"
+ * line after the first one.
+ *
+ * -benchmark takes demo files, or directories to take all .lmp files from.
+ * -benchout picks where the results go: a .csv file gets one summary row per
+ * demo, anything else gets JSON, with the summaries and the raw per-tic and
+ * per-frame times in microseconds. Without it, JSON goes to stdout.
+ * -nodraw and -noblit work as with -timedemo.
+ *
+ * When the scene renderer draws on a pool of workers, how much of the drawn
+ * frames each worker was busy is reported too, to size the pool by.
+ *
+ * A demo that can't be played is reported as failed, and the next one is
+ * played anyway.
+ */
+
+public class DemoBenchmark {
+
+    private static final String[] SERIES = {"tic", "frame", "bsp", "segs", "planes", "masked"};
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    /** Demo files, as given or found */
+    private final List<String> files = new ArrayList<>();
+    private final String output;
+
+    private int current = -1;
+    private final List<Result> results = new ArrayList<>();
+
+    /** Samples of the demo being played, in nanoseconds, one array per series */
+    private final long[][] samples = new long[SERIES.length][];
+    private final int[] counts = new int[SERIES.length];
+    /** Busy time of each pool worker, and render time of the frames they drew, for the demo being played */
+    private long[] workerBusy = new long[0];
+    private long workerFrames;
+    private int startTic;
+    private long startTime;
+
+    public DemoBenchmark(String[] paths, String output) {
+        this.output = output;
+
+        for (String path : paths) {
+            final File f = new File(C2JUtils.unquoteIfQuoted(path, '"'));
+
+            if (f.isDirectory()) {
+                final File[] lumps = f.listFiles((dir, name) -> C2JUtils.checkForExtension(name, "lmp"));
+                if (lumps != null) {
+                    Arrays.sort(lumps);
+                    for (File lump : lumps) {
+                        files.add(lump.getPath());
+                    }
+                }
+            } else {
+                files.add(f.getPath());
+            }
+        }
+
+        for (int i = 0; i < SERIES.length; i++) {
+            samples[i] = new long[4096];
+        }
+    }
+
+    /**
+     * @return demo files to add as resources, so their lumps can be played
+     */
+    public List<String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Moves on to the next demo.
+     *
+     * @param gametic
+     * @return its lump name, or null if all were played
+     */
+    public String next(int gametic) {
+        if (++current >= files.size()) {
+            return null;
+        }
+
+        Arrays.fill(counts, 0);
+        Arrays.fill(workerBusy, 0);
+        workerFrames = 0;
+        startTic = gametic;
+        startTime = System.nanoTime();
+        // Single lumps are named after their file
+        return C2JUtils.removeExtension(files.get(current)).toUpperCase();
+    }
+
+    /** Playsim time of one tic */
+    public void tic(long nanos) {
+        add(0, nanos);
+    }
+
+    /** Display time of one frame, and the renderer breakdown of it if it drew the view */
+    public void frame(long nanos, RenderTimings timings, boolean rendered) {
+        add(1, nanos);
+
+        if (rendered && timings != null) {
+            add(2, timings.get(RenderTimings.BSP));
+            add(3, timings.get(RenderTimings.SEGS));
+            add(4, timings.get(RenderTimings.PLANES));
+            add(5, timings.get(RenderTimings.MASKED));
+
+            if (timings.getWorkers() > 0) {
+                if (workerBusy.length < timings.getWorkers()) {
+                    workerBusy = Arrays.copyOf(workerBusy, timings.getWorkers());
+                }
+
+                for (int i = 0; i < timings.getWorkers(); i++) {
+                    workerBusy[i] += timings.getWorker(i);
+                }
+
+                for (int stage = 0; stage < RenderTimings.NAMES.length; stage++) {
+                    workerFrames += timings.get(stage);
+                }
+            }
+        }
+    }
+
+    private void add(int series, long nanos) {
+        if (counts[series] == samples[series].length) {
+            samples[series] = Arrays.copyOf(samples[series], counts[series] * 2);
+        }
+
+        samples[series][counts[series]++] = nanos;
+    }
+
+    /** The current demo played to its end */
+    public void end(int gametic) {
+        finish(gametic, null);
+    }
+
+    /** The current demo couldn't be played */
+    public void fail(int gametic, String reason) {
+        finish(gametic, reason);
+    }
+
+    private void finish(int gametic, String failure) {
+        if (current < 0 || current >= files.size()) {
+            return;
+        }
+
+        final Result r = new Result(files.get(current), failure, gametic - startTic,
+            (System.nanoTime() - startTime) / 1e9);
+
+        for (int i = 0; i < SERIES.length; i++) {
+            r.samples[i] = Arrays.copyOf(samples[i], counts[i]);
+        }
+
+        r.utilization = new double[workerFrames > 0 ? workerBusy.length : 0];
+        for (int i = 0; i < r.utilization.length; i++) {
+            r.utilization[i] = (double) workerBusy[i] / workerFrames;
+        }
+
+        results.add(r);
+        System.out.printf("%s: %s\n", r.file, failure != null ? "failed, " + failure
+            : String.format(Locale.ROOT, "%d gametics in %.3f s = %.2f fps", r.gametics, r.seconds,
+                r.samples[1].length / r.seconds));
+    }
+
+    /**
+     * One demo's worth of results.
+     */
+    private static final class Result {
+        final String file;
+        final String failure;
+        final int gametics;
+        final double seconds;
+        final long[][] samples = new long[SERIES.length][];
+        /** How much of the render time each pool worker was busy, none without a pool */
+        double[] utilization;
+
+        Result(String file, String failure, int gametics, double seconds) {
+            this.file = file;
+            this.failure = failure;
+            this.gametics = gametics;
+            this.seconds = seconds;
+        }
+
+        /** Nearest rank percentile of a sorted series, in milliseconds */
+        static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+
+            final int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1e6;
+        }
+
+        static double mean(long[] series) {
+            long sum = 0;
+            for (long s : series) {
+                sum += s;
+            }
+
+            return series.length == 0 ? 0 : sum / 1e6 / series.length;
+        }
+    }
+
+    /**
+     * Writes out all results, to the output file or stdout.
+     */
+    public void write() {
+        PrintStream out = System.out;
+
+        if (output != null) {
+            try {
+                out = new PrintStream(output, "UTF-8");
+            } catch (FileNotFoundException | java.io.UnsupportedEncodingException e) {
+                System.err.printf("Couldn't write benchmark results to %s, using stdout\n", output);
+            }
+        }
+
+        if (output != null && C2JUtils.checkForExtension(output, "csv")) {
+            writeCSV(out);
+        } else {
+            writeJSON(out);
+        }
+
+        if (out != System.out) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+
+    private void writeCSV(PrintStream out) {
+        final StringBuilder header = new StringBuilder("demo,status,gametics,seconds,fps");
+        for (String s : SERIES) {
+            header.append(',').append(s).append("_mean_ms");
+            for (double p : PERCENTILES) {
+                header.append(',').append(s).append("_p").append((int) p).append("_ms");
+            }
+            header.append(',').append(s).append("_max_ms");
+        }
+        header.append(",worker_utilization");
+        out.println(header);
+
+        for (Result r : results) {
+            final StringBuilder row = new StringBuilder();
+            row.append('"').append(r.file.replace("\"", "\"\"")).append('"')
+                .append(',').append(r.failure == null ? "ok" : "failed")
+                .append(',').append(r.gametics)
+                .append(',').append(format(r.seconds))
+                .append(',').append(format(r.seconds > 0 ? r.samples[1].length / r.seconds : 0));
+
+            for (long[] series : r.samples) {
+                final long[] sorted = series.clone();
+                Arrays.sort(sorted);
+
+                row.append(',').append(format(Result.mean(sorted)));
+                for (double p : PERCENTILES) {
+                    row.append(',').append(format(Result.percentile(sorted, p)));
+                }
+                row.append(',').append(format(Result.percentile(sorted, 100)));
+            }
+
+            // Space separated, one per worker
+            row.append(',');
+            for (int i = 0; i < r.utilization.length; i++) {
+                row.append(i > 0 ? " " : "").append(format(r.utilization[i]));
+            }
+
+            out.println(row);
+        }
+    }
+
+    private void writeJSON(PrintStream out) {
+        out.println("{\"demos\": [");
+
+        for (int d = 0; d < results.size(); d++) {
+            final Result r = results.get(d);
+
+            out.printf("  {\"demo\": %s, \"status\": %s, \"gametics\": %d, \"seconds\": %s, \"fps\": %s,\n",
+                quote(r.file), quote(r.failure == null ? "ok" : r.failure), r.gametics,
+                format(r.seconds), format(r.seconds > 0 ? r.samples[1].length / r.seconds : 0));
+
+            final StringBuilder workers = new StringBuilder("   \"worker_utilization\": [");
+            for (int i = 0; i < r.utilization.length; i++) {
+                workers.append(i > 0 ? ", " : "").append(format(r.utilization[i]));
+            }
+            out.println(workers.append("],"));
+
+            for (int i = 0; i < SERIES.length; i++) {
+                final long[] sorted = r.samples[i].clone();
+                Arrays.sort(sorted);
+
+                final StringBuilder sb = new StringBuilder();
+                sb.append("   ").append(quote(SERIES[i])).append(": {\"count\": ").append(sorted.length)
+                    .append(", \"mean_ms\": ").append(format(Result.mean(sorted)));
+                for (double p : PERCENTILES) {
+                    sb.append(", \"p").append((int) p).append("_ms\": ").append(format(Result.percentile(sorted, p)));
+                }
+                sb.append(", \"max_ms\": ").append(format(Result.percentile(sorted, 100)));
+
+                // Raw samples, in recording order
+                sb.append(", \"us\": [");
+                for (int k = 0; k < r.samples[i].length; k++) {
+                    if (k > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(r.samples[i][k] / 1000);
+                }
+                sb.append("]}");
+
+                out.println(sb.append(i < SERIES.length - 1 ? "," : ""));
+            }
+
+            out.println(d < results.size() - 1 ? "  }," : "  }");
+        }
+
+        out.println("]}");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static String quote(String s) {
+        final StringBuilder sb = new StringBuilder("\"");
+
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+}
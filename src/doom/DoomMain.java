@@ -53,6 +53,7 @@ import m.Menu;
 import m.MenuMisc;
 import m.Settings;
 import static m.fixed_t.FRACBITS;
+import static m.fixed_t.FRACUNIT;
 import static m.fixed_t.MAPFRACUNIT;
 import mochadoom.Engine;
 import n.DoomSystemNetworking;
@@ -66,6 +67,7 @@ import rr.SceneRenderer;
 import rr.SpriteManager;
 import rr.TextureManager;
 import rr.ViewVars;
+import rr.parallel.RenderPipeline;
 import rr.patch_t;
 import rr.subsector_t;
 import s.IDoomSound;
@@ -196,6 +198,8 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
     private boolean fullscreen = false;
     private gamestate_t oldgamestate = GS_MINUS_ONE;
     private int borderdrawcount;
+    /** Game state of the frame whose view the render pipeline is still drawing, if any */
+    private gamestate_t pendinggamestate;
 
     /**
      * D_Display
@@ -203,11 +207,6 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
      * @throws IOException 
      */
     public void Display() throws IOException {
-        int nowtime;
-        int tics;
-        int wipestart;
-        int y;
-        boolean done;
         boolean wipe;
         boolean redrawsbar;
 
@@ -215,6 +214,13 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
         if (nodrawers) {
             return;
         }
+
+        // finish the last frame, if its view was left drawing while the tics ran
+        if (pendinggamestate != null) {
+            final gamestate_t state = pendinggamestate;
+            pendinggamestate = null;
+            FinishDisplay(state, false);
+        }
         redrawsbar = false;
 
         // change the view size if needed
@@ -276,6 +282,42 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
                         view.getScaledViewWidth(), view.getScaledViewHeight()), gametic % 256);
             }
             sceneRenderer.RenderPlayerView(players[displayplayer]);
+
+            // the pipeline only started drawing the view, the rest of the
+            // frame goes over it once it's done, after the next tics
+            if (renderPipeline != null && renderPipeline.isDrawing() && !wipe) {
+                pendinggamestate = gamestate;
+                return;
+            }
+        }
+
+        FinishDisplay(gamestate, wipe);
+    }
+
+    /**
+     * @return how far the view is drawn from where things were before the last
+     * tic to where they are, in FRACUNIT parts: all the way, unless drawing
+     * frames in between tics
+     */
+    public int getTicFrac() {
+        return uncapped && !singletics ? ticker.GetTimeFrac() : FRACUNIT;
+    }
+
+    /**
+     * The rest of D_Display, drawn over the view. The gamestate is the one
+     * the frame was started in, which the game may have left by the time the
+     * render pipeline is done drawing its view.
+     */
+    private void FinishDisplay(gamestate_t gamestate, boolean wipe) throws IOException {
+        int nowtime;
+        int tics;
+        int wipestart;
+        int y;
+        boolean done;
+
+        // the view must be done before anything goes over it
+        if (renderPipeline != null) {
+            renderPipeline.Finish();
         }
 
         // Automap was active, update only HU.    
@@ -337,7 +379,9 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
         if (!wipe) {
             //System.out.print("Tick "+gametic+"\t");
             //System.out.print(players[0]);
-            Engine.updateFrame(); // page flip or blit buffer
+            if (!noblit) {
+                Engine.updateFrame(); // page flip or blit buffer
+            }
             return;
         }
 
@@ -442,9 +486,13 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
                 M_Ticker: {
                     menu.Ticker();
                 }
+                final long ticStart = System.nanoTime();
                 G_Ticker: {
                     Ticker();
                 }
+                if (benchmark != null) {
+                    benchmark.tic(System.nanoTime() - ticStart);
+                }
                 gametic++;
                 maketic++;
             } else {
@@ -453,9 +501,14 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
             S_UpdateSounds: {
                 doomSound.UpdateSounds(players[consoleplayer].mo); // move positional sounds
             }
+            final boolean rendered = !nodrawers && gamestate == GS_LEVEL && !automapactive && eval(gametic);
+            final long frameStart = System.nanoTime();
             D_Display: { // Update display, next frame, with current state.
                 Display();
             }
+            if (benchmark != null) {
+                benchmark.frame(System.nanoTime() - frameStart, sceneRenderer.getRenderTimings(), rendered);
+            }
             //#ifndef SNDSERV
             // Sound mixing for the buffer is snychronous.
             soundDriver.UpdateSound();
@@ -605,12 +658,16 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
      *
      * Adds file to the end of the wadfiles[] list.
      * Quite crude, we could use a listarray instead.
+     * Grows it if needed, a benchmark run can add lots of demos.
      *
      * @param file
      */
     private void AddFile(String file) {
         int numwadfiles;
-        for (numwadfiles = 0; eval(wadfiles[numwadfiles]); numwadfiles++) {}
+        for (numwadfiles = 0; numwadfiles < wadfiles.length && eval(wadfiles[numwadfiles]); numwadfiles++) {}
+        if (numwadfiles == wadfiles.length) {
+            wadfiles = Arrays.copyOf(wadfiles, wadfiles.length * 2);
+        }
         wadfiles[numwadfiles] = file;
     }
 
@@ -1377,6 +1434,11 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
      */
     @G_Game.C(G_Ticker)
     public void Ticker() { 
+        // remember where things were, to draw frames in between tics
+        if (uncapped) {
+            renderPipeline.BeginTic();
+        }
+
         // do player reborns if needed
         for (int i = 0; i < MAXPLAYERS; i++) {
             if (playeringame[i] && players[i].playerstate == PST_REBORN) {
@@ -1386,6 +1448,11 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
             }
         }
 
+        // a frame still being drawn mustn't see the level go away
+        if (gameaction != ga_nothing && renderPipeline != null) {
+            renderPipeline.Finish();
+        }
+
         // do things to change the game state
         while (gameaction != ga_nothing) { 
             switch (gameaction) { 
@@ -2330,6 +2397,9 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
     }
     
     String defdemoname;
+
+    /** Set when -benchmark is playing through a list of demos */
+    DemoBenchmark benchmark;
     
     /**
      * G_PlayDemo 
@@ -2354,17 +2424,25 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
             try {
                 demobuffer = wadLoader.CacheLumpName(defdemoname.toUpperCase(), PU_STATIC, VanillaDoomDemo.class);
             } catch (Exception e) {
-                fail = true;
+                demobuffer = null;
             }
         }
 
-        fail = (demobuffer.getSkill() == null);
+        fail = (demobuffer == null || demobuffer.getSkill() == null);
 
         final int version;
         if (fail || ((version = demobuffer.getVersion() & 0xFF) & ~JAVARANDOM_MASK) != VERSION) {
-            System.err.println("Demo is from a different game version!\n");
-            System.err.println("Version code read: " + demobuffer.getVersion());
+            if (fail) {
+                System.err.printf("Demo %s could not be read!\n", defdemoname);
+            } else {
+                System.err.println("Demo is from a different game version!\n");
+                System.err.println("Version code read: " + demobuffer.getVersion());
+            }
             gameaction = ga_nothing;
+            if (benchmark != null) {
+                benchmark.fail(gametic, fail ? "unreadable" : "version " + demobuffer.getVersion());
+                NextBenchmarkDemo();
+            }
             return;
         }
         
@@ -2402,6 +2480,30 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
 
     }
 
+    /**
+     * Cleans up after a benchmark demo and defers playing the next one,
+     * or writes out the results and quits if that was the last.
+     */
+    private void NextBenchmarkDemo() {
+        demoplayback = false;
+        netdemo = false;
+        netgame = false;
+        deathmatch = false;
+        playeringame[1] = playeringame[2] = playeringame[3] = false;
+        respawnparm = false;
+        fastparm = false;
+        nomonsters = false;
+        consoleplayer = 0;
+
+        final String next = benchmark.next(gametic);
+        if (next == null) {
+            benchmark.write();
+            doomSystem.Quit();
+        } else {
+            DeferedPlayDemo(next);
+        }
+    }
+
     //
     // G_TimeDemo 
     //
@@ -2427,6 +2529,12 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
     { 
         int endtime; 
         
+        if (benchmark != null && demoplayback) {
+            benchmark.end(gametic);
+            NextBenchmarkDemo();
+            return true;
+        }
+
         if (timingdemo) 
         {
             endtime = RealTime.GetTime ();
@@ -2491,6 +2599,10 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
     public final IDoomMenu menu;
     public final ActionFunctions actions;
     public final SceneRenderer<T, V> sceneRenderer;
+    /** The same as sceneRenderer when frames are drawn from snapshots, or else null */
+    public final RenderPipeline<T, V> renderPipeline;
+    /** Frames are drawn in between tics too, as fast as they can */
+    public final boolean uncapped;
     public final HU headsUp;
     public final IAutoMap<T, V> autoMap;
     public final Finale<T> finale;
@@ -2570,7 +2682,12 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
         this.levelLoader = new BoomLevelLoader(this);
         
         // Renderer, Actions, StatusBar, AutoMap
-        this.sceneRenderer = bppMode.sceneRenderer(this);
+        final SceneRenderer<T, V> renderer = bppMode.sceneRenderer(this);
+        final boolean pipelined = Engine.getConfig().equals(Settings.render_pipeline, Boolean.TRUE);
+        this.uncapped = Engine.getConfig().equals(Settings.render_uncapped, Boolean.TRUE);
+        this.renderPipeline = pipelined || uncapped
+            ? new RenderPipeline<>(this, renderer, pipelined) : null;
+        this.sceneRenderer = renderPipeline != null ? renderPipeline : renderer;
         this.actions = new ActionFunctions(this);
         this.statusBar = new StatusBar(this);
 
@@ -2916,6 +3033,17 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
         
         // Subsequent uses of loaddemo use only the lump name.
         loaddemo = C2JUtils.extractFileBase(loaddemo, 0, true);
+
+        // Timedemo a whole list of demos, the first one takes the place of loaddemo
+        if (loaddemo == null && cVarManager.present(CommandVariable.BENCHMARK)) {
+            benchmark = new DemoBenchmark(cVarManager.get(CommandVariable.BENCHMARK, String[].class, 0).get(),
+                cVarManager.get(CommandVariable.BENCHOUT, String.class, 0).orElse(null));
+            benchmark.getFiles().forEach(this::AddFile);
+            System.out.printf("Benchmarking %d demos.\n", benchmark.getFiles().size());
+            singletics = true;
+            autostart = true;
+            loaddemo = benchmark.next(gametic);
+        }
         // get skill / episode / map from parms
         // FIXME: should get them FROM THE DEMO itself.
         startskill = skill_t.sk_medium;
@@ -3703,6 +3831,12 @@ public class DoomMain<T, V> extends DoomStatus<T, V> implements IDoomGameNetwork
             counts = 1;
         }
 
+        // rather than wait for new tics, draw another frame in between,
+        // before any of the once per tic bookkeeping below
+        if (uncapped && lowtic < gametic / ticdup + counts) {
+            return;
+        }
+
         frameon++;
 
         if (eval(debugfile)) {
@@ -468,7 +468,8 @@ public @interface SourceCode {
     }
     
     public enum Z_Zone {
-        Z_Malloc;
+        Z_Malloc,
+        Z_FreeTags;
         @Documented
         @Retention(SOURCE) public
         @interface C { Z_Zone value(); }
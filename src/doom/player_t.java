@@ -112,6 +112,9 @@ public class player_t /*extends mobj_t */ implements Cloneable, IReadableDoomObj
      */
     public int viewz;
 
+    /** viewz before the tic mo.prevtic, to draw it part of the way between tics */
+    public int prevviewz;
+
     /**
      * (fixed_t) Base height above floor for viewz.
      */
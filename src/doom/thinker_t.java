@@ -36,6 +36,12 @@ public class thinker_t implements CacheableDoomObject, IReadableDoomObject, IPac
      */
     public int id, previd, nextid, functionid;
 
+    /**
+     * Where ThinkerSegments keeps it, in the whole list and among its class,
+     * -1 if nowhere.
+     */
+    public int allslot = -1, classslot = -1;
+
     @Override
     public void read(DataInputStream f)
         throws IOException {
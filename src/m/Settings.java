@@ -117,6 +117,8 @@ public enum Settings {
     fix_medi_need(FILE_MOCHADOOM, false), // In vanilla, message "Picked up a medikit that you REALLY need!" never appears due to bug
     fix_ouch_face(FILE_MOCHADOOM, false), // In vanilla, ouch face displayed only when acuired 25+ health when damaged for 25+ health
     line_of_sight(FILE_MOCHADOOM, LOS.Vanilla), // Deaf monsters when thing pos corellates somehow with map vertex, change desync demos
+    sight_check_cache(FILE_MOCHADOOM, false), // Reuse sight checks repeated within a tic when nothing involved moved. Demo safe
+    reject_builder(FILE_MOCHADOOM, false), // Build a REJECT for maps that ship an empty or zeroed one, faster sight checks, may desync demos
     vestrobe(FILE_MOCHADOOM, false), // Strobe effect on automap cut off from vanilla
     scale_screen_tiles(FILE_MOCHADOOM, true), // If you scale screen tiles, it looks like vanilla
     scale_melt(FILE_MOCHADOOM, true), // If you scale melt and use DoomRandom generator (not truly random), it looks exacly like vanilla
@@ -124,9 +126,22 @@ public enum Settings {
     fuzz_mix(FILE_MOCHADOOM, false), // Maes unique features on Fuzz effect. Vanilla dont have that, so they are switched off by default
     parallelism_realcolor_tint(FILE_MOCHADOOM, Runtime.getRuntime().availableProcessors()), // Used for real color tinting to speed up
     parallelism_patch_columns(FILE_MOCHADOOM, 0), // When drawing screen graphics patches, this speeds up column drawing, <= 0 is serial
+    mobj_pool(FILE_MOCHADOOM, 0), // Reuse up to this many removed mobjs instead of allocating new ones, may desync demos. <= 0 disables
+    mobj_pool_poison(FILE_MOCHADOOM, false), // Wreck pooled mobjs and report anything still pointing at them, for debugging the pool
+    thinker_segments(FILE_MOCHADOOM, false), // Keep thinkers in arrays besides the list, to run them and find one class of them faster. Demo safe
+    parallelism_level_load(FILE_MOCHADOOM, 3), // Map lumps that don't depend on each other are loaded concurrently, <= 1 is serial
     greyscale_filter(FILE_MOCHADOOM, GreyscaleFilter.Luminance), // Used for FUZZ effect or with -greypal comand line argument (for test)
+    visplane_hash(FILE_MOCHADOOM, false), // Look visplanes up in a hash rather than scanning them all, for maps with hundreds of them
     scene_renderer_mode(FILE_MOCHADOOM, SceneRendererMode.Serial), // In vanilla, scene renderer is serial. Parallel can be faster
-    reconstruct_savegame_pointers(FILE_MOCHADOOM, true); // In vanilla, infighting targets are not restored on savegame load
+    parallelism_scene_strips(FILE_MOCHADOOM, Runtime.getRuntime().availableProcessors()), // Vertical strips of the view drawn at once by the Parallel3 scene renderer
+    parallelism_render_pool(FILE_MOCHADOOM, 0), // Work stealing workers shared by all stages of the Parallel and Parallel2 scene renderers, <= 0 uses their fixed threads
+    render_pipeline(FILE_MOCHADOOM, false), // Draw each frame on a thread of its own, from a snapshot, while the next tic runs. Demo safe, a tic more of lag
+    render_uncapped(FILE_MOCHADOOM, false), // Draw frames in between tics too, as fast as they come, with things moved part of the way. Demo safe
+    reconstruct_savegame_pointers(FILE_MOCHADOOM, true), // In vanilla, infighting targets are not restored on savegame load
+    map_wad_files(FILE_MOCHADOOM, true), // Read lumps of plain local WAD files through memory mapping instead of seeking streams
+    lump_cache_mb(FILE_MOCHADOOM, 64), // Memory budget for PU_CACHE lumps (patches, flats, sounds), least recently used are purged. <= 0 is unlimited
+    lump_directory_cache(FILE_MOCHADOOM, ""), // Keep the resolved lump directory of plain local WADs in this file between runs, e.g. mochadoom.lumpdir. Empty to disable
+    reject_builder_cache(FILE_MOCHADOOM, ""); // Keep REJECT tables built for maps in this directory between runs, e.g. mochadoom.rejects. Empty to disable
     
     public final static Map<Files, EnumSet<Settings>> SETTINGS_MAP = new HashMap<>();
     
@@ -97,6 +97,9 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
     /** for thing chains */
     public mobj_t[] blocklinks;
 
+    /** Which blocks have things linked in, kept by Set/UnsetThingPosition */
+    public final BlockOccupancy blockoccupancy = new BlockOccupancy();
+
     /**
      * REJECT For fast sight rejection. Speeds up enemy AI by skipping detailed
      * LineOf Sight calculation. Without special effect, this could be used as a
@@ -105,6 +108,24 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
 
     public byte[] rejectmatrix;
 
+    /**
+     * The same REJECT, packed into longs, so that bit n of the table is
+     * bit (n & 63) of rejectbits[n >> 6]. Kept in step with rejectmatrix.
+     */
+    public long[] rejectbits;
+
+    /** Whether the REJECT that got loaded rejects nothing at all, as if missing */
+    protected boolean emptyreject;
+
+    /**
+     * Sector adjacency through two sided lines, for noise alerts. The
+     * neighbours of sector s are entries soundedges[s] to soundedges[s + 1] - 1
+     * of soundsectors and soundlines, in the order of its line list. Lines
+     * are there as their index shifted left by one, plus one if they block
+     * sound.
+     */
+    public int[] soundedges, soundsectors, soundlines;
+
     // Maintain single and multi player starting spots.
 
     // 1/11/98 killough: Remove limit on deathmatch starts
@@ -181,9 +202,12 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
                 // Iterators only follow "bnext", not "bprev".
                 // If link was null, then thing is the first entry.
                 blocklinks[blocky * bmapwidth + blockx] = thing;
+                thing.blocknum = blocky * bmapwidth + blockx;
+                blockoccupancy.link(thing.blocknum);
             } else {
                 // thing is off the map
                 thing.bnext = thing.bprev = null;
+                thing.blocknum = -1;
             }
         }
 
@@ -698,6 +722,7 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
         // This sets only that one bit, and the reject lookup will be faster
         // next time.
         rejectmatrix[bytenum] |= POKE_REJECT[bitnum];
+        rejectbits[pnum >> 6] |= 1L << pnum;
 
         System.out.println(rejectDensity());
 
@@ -725,11 +750,26 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
         // This sets only that one bit, and the reject lookup will be faster
         // next time.
         rejectmatrix[bytenum] |= POKE_REJECT[bitnum];
+        rejectbits[pnum >> 6] |= 1L << pnum;
 
         System.out.println(rejectDensity());
 
     }
 
+    /**
+     * Packs rejectmatrix into rejectbits. Call whenever the whole
+     * rejectmatrix gets replaced.
+     */
+    protected void PackReject() {
+        final long[] bits = new long[(rejectmatrix.length + 7) >> 3];
+
+        for (int i = 0; i < rejectmatrix.length; i++) {
+            bits[i >> 3] |= (rejectmatrix[i] & 0xFFL) << ((i & 7) << 3);
+        }
+
+        rejectbits = bits;
+    }
+
     // Keeps track of lines that belong to a sector, to exclude e.g.
     // orphaned ones from the blockmap.
     protected boolean[] used_lines;
@@ -830,12 +870,21 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
         // If the reject table is broken/corrupt, too bad. It will all be
         // zeroes.
         // Much better than overflowing.
-        // TODO: build-in a REJECT-matrix rebuilder?
+        // See RejectBuilder for a REJECT-matrix rebuilder.
         rejectmatrix =
             new byte[(int) (Math
                     .ceil((this.numsectors * this.numsectors) / 8.0))];
         System.arraycopy(tmpreject, 0, rejectmatrix, 0,
             Math.min(tmpreject.length, rejectmatrix.length));
+        PackReject();
+
+        emptyreject = true;
+        for (long bits : rejectbits) {
+            if (bits != 0) {
+                emptyreject = false;
+                break;
+            }
+        }
 
         // Do warn on atypical reject map lengths, but use either default
         // all-zeroes one,
@@ -892,7 +941,9 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
     /// Sector tag stuff, lifted off Boom
     
   /** Hash the sector tags across the sectors and linedefs.
-   *  Call in SpawnSpecials.
+   *  Call at level load, once sectors and linedefs are in. Tags
+   *  never change afterwards, so the chains stay valid for the
+   *  whole level.
    */
     
     public void InitTagLists()
@@ -903,7 +954,7 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
         sectors[i].firsttag = -1;
       for (i=numsectors; --i>=0; )        // Proceed from last to first sector
         {                                 // so that lower sectors appear first
-          int j = sectors[i].tag % numsectors; // Hash func
+          int j = Integer.remainderUnsigned(sectors[i].tag, numsectors); // Hash func
           sectors[i].nexttag = sectors[j].firsttag;   // Prepend sector to chain
           sectors[j].firsttag = i;
         }
@@ -914,10 +965,90 @@ public abstract class AbstractLevelLoader implements ILevelLoader {
         lines[i].firsttag = -1;
       for (i=numlines; --i>=0; )        // Proceed from last to first linedef
         {                               // so that lower linedefs appear first
-          int j = lines[i].tag % numlines; // Hash func
+          int j = Integer.remainderUnsigned(lines[i].tag, numlines); // Hash func
           lines[i].nexttag = lines[j].firsttag;   // Prepend linedef to chain
           lines[j].firsttag = i;
         }
     }
+
+  /** P_FindSectorFromLineTag, Boom style: only walks the sectors that hash
+   *  to the same chain. Chains are in ascending order, so sectors come in
+   *  the same order as the vanilla scan of all sectors did.
+   *
+   *  @param tag
+   *  @param start -1 for the first sector, then the previous result
+   *  @return the next sector with that tag, or -1
+   */
+
+    public int FindSectorFromTag(int tag, int start)
+    {
+      if (numsectors == 0)
+        return -1;
+
+      start = start >= 0 ? sectors[start].nexttag :
+        sectors[Integer.remainderUnsigned(tag, numsectors)].firsttag;
+      while (start >= 0 && sectors[start].tag != tag)
+        start = sectors[start].nexttag;
+      return start;
+    }
+
+  /** killough 4/17/98: same thing, only for linedefs */
+
+    public int FindLineFromTag(int tag, int start)
+    {
+      if (numlines == 0)
+        return -1;
+
+      start = start >= 0 ? lines[start].nexttag :
+        lines[Integer.remainderUnsigned(tag, numlines)].firsttag;
+      while (start >= 0 && lines[start].tag != tag)
+        start = lines[start].nexttag;
+      return start;
+    }
+
+    /**
+     * Builds the sector adjacency noise alerts flood through. Call at level
+     * load, once sector line lists are in.
+     */
+    public void InitSoundGraph() {
+        int numedges = 0;
+        for (int i = 0; i < numsectors; i++) {
+            for (int j = 0; j < sectors[i].linecount; j++) {
+                if (isSoundEdge(sectors[i].lines[j])) {
+                    numedges++;
+                }
+            }
+        }
+
+        soundedges = new int[numsectors + 1];
+        soundsectors = new int[numedges];
+        soundlines = new int[numedges];
+
+        int e = 0;
+        for (int i = 0; i < numsectors; i++) {
+            final sector_t sec = sectors[i];
+            soundedges[i] = e;
+
+            for (int j = 0; j < sec.linecount; j++) {
+                final line_t check = sec.lines[j];
+                if (!isSoundEdge(check)) {
+                    continue;
+                }
+
+                // Same choice of the other side as P_RecursiveSound
+                soundsectors[e] = (sides[check.sidenum[0]].sector == sec)
+                    ? sides[check.sidenum[1]].sector.id
+                    : sides[check.sidenum[0]].sector.id;
+                soundlines[e++] = (check.id << 1) | (flags(check.flags, line_t.ML_SOUNDBLOCK) ? 1 : 0);
+            }
+        }
+
+        soundedges[numsectors] = e;
+    }
+
+    /** Lines that never open, as far as LineOpening is concerned, are left out */
+    private static boolean isSoundEdge(line_t check) {
+        return flags(check.flags, line_t.ML_TWOSIDED) && check.sidenum[1] != line_t.NO_INDEX;
+    }
     
 }
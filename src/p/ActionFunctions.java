@@ -26,6 +26,7 @@ import hu.IHeadsUp;
 import i.IDoomSystem;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import m.Settings;
 import p.Actions.ActionsAttacks;
 import p.Actions.ActionsEnemies;
 import p.Actions.ActionsThinkers;
@@ -43,10 +44,45 @@ public class ActionFunctions extends UnifiedGameMap implements
     ActionsThinkers, ActionsEnemies, ActionsAttacks, Ai, Attacks, Thinkers, Weapons
 {
     private final SharedContext traitsSharedContext;
+    /** Removed mobjs to reuse, null if they're left to the garbage collector */
+    private final MobjPool mobjPool;
+    /** Trait contexts, resolved once instead of looked up by every action */
+    private final SlideMove slideMove;
+    private final Spechits spechits;
+    private final Movement movement;
+    private final SlideDoors slideDoors;
+    private final Traverse traverse;
+    private final Sight sight;
+    private final Enemies enemies;
+    private final ActionsAttacks.Attacks attacks;
+    private final Brain brain;
+    private final Ceilings ceilings;
+    private final Plats plats;
+    private final RespawnQueue respawnQueue;
+    private final Spawn spawn;
+    private final Crushes crushes;
+    private final DirType dirType;
     
     public ActionFunctions(final DoomMain<?, ?> DOOM) {
         super(DOOM);
         this.traitsSharedContext = buildContext();
+        this.slideMove = contextRequire(KEY_SLIDEMOVE);
+        this.spechits = contextRequire(KEY_SPECHITS);
+        this.movement = contextRequire(KEY_MOVEMENT);
+        this.slideDoors = contextRequire(KEY_SLIDEDOORS);
+        this.traverse = contextRequire(KEY_TRAVERSE);
+        this.sight = contextRequire(KEY_SIGHT);
+        this.enemies = contextRequire(KEY_ENEMIES);
+        this.attacks = contextRequire(KEY_ATTACKS);
+        this.brain = contextRequire(KEY_BRAIN);
+        this.ceilings = contextRequire(KEY_CEILINGS);
+        this.plats = contextRequire(KEY_PLATS);
+        this.respawnQueue = contextRequire(KEY_RESP_QUEUE);
+        this.spawn = contextRequire(KEY_SPAWN);
+        this.crushes = contextRequire(KEY_CRUSHES);
+        this.dirType = contextRequire(KEY_DIRTYPE);
+        final int pooled = DOOM.CM.getValue(Settings.mobj_pool, Integer.class);
+        this.mobjPool = pooled > 0 ? new MobjPool(pooled, DOOM.CM.equals(Settings.mobj_pool_poison, Boolean.TRUE)) : null;
     }
     
     private SharedContext buildContext() {
@@ -57,6 +93,81 @@ public class ActionFunctions extends UnifiedGameMap implements
             throw new RuntimeException(ex);
         }
     }
+
+    @Override
+    public SlideMove slideMove() {
+        return slideMove;
+    }
+
+    @Override
+    public Spechits spechits() {
+        return spechits;
+    }
+
+    @Override
+    public Movement movement() {
+        return movement;
+    }
+
+    @Override
+    public SlideDoors slideDoors() {
+        return slideDoors;
+    }
+
+    @Override
+    public Traverse traverse() {
+        return traverse;
+    }
+
+    @Override
+    public Sight sight() {
+        return sight;
+    }
+
+    @Override
+    public Enemies enemies() {
+        return enemies;
+    }
+
+    @Override
+    public ActionsAttacks.Attacks attacks() {
+        return attacks;
+    }
+
+    @Override
+    public Brain brain() {
+        return brain;
+    }
+
+    @Override
+    public Ceilings ceilings() {
+        return ceilings;
+    }
+
+    @Override
+    public Plats plats() {
+        return plats;
+    }
+
+    @Override
+    public RespawnQueue respawnQueue() {
+        return respawnQueue;
+    }
+
+    @Override
+    public Spawn spawn() {
+        return spawn;
+    }
+
+    @Override
+    public Crushes crushes() {
+        return crushes;
+    }
+
+    @Override
+    public DirType dirType() {
+        return dirType;
+    }
     
     @Override
     public AbstractLevelLoader levelLoader() {
@@ -125,7 +236,22 @@ public class ActionFunctions extends UnifiedGameMap implements
 
     @Override
     public mobj_t createMobj() {
-        return mobj_t.createOn(DOOM);
+        final mobj_t recycled = (mobjPool != null) ? mobjPool.take() : null;
+        return (recycled != null) ? recycled : mobj_t.createOn(DOOM);
+    }
+
+    @Override
+    public void recycleMobj(mobj_t mobj) {
+        if (mobjPool != null) {
+            mobjPool.give(mobj);
+        }
+    }
+
+    @Override
+    public void auditMobjPool() {
+        if (mobjPool != null && mobjPool.isPoisoning()) {
+            mobjPool.audit(DOOM);
+        }
     }
 
     @Override
@@ -0,0 +1,356 @@
+package p.Actions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import p.ActionFunctions;
+import p.Actions.ActionTrait.Movement;
+import p.Actions.ActionTrait.SlideMove;
+import p.Actions.ActionTrait.Spechits;
+import p.Actions.ActionsSectors.Crushes;
+import utils.TraitFactory;
+import utils.TraitFactory.ContextKey;
+import utils.TraitFactory.SharedContext;
+import utils.TraitFactory.Trait;
+
+/**
+ * Microbenchmark for how the action traits get at their contexts: looked up
+ * with contextRequire in the SharedContext on every access, as they used to,
+ * or returned from fields resolved once, as ActionFunctions does now.
+ *
+ * First it checks that ActionFunctions overrides the accessor of every
+ * context its traits declare a ContextKey for, so that nothing in the
+ * playsim, P_TryMove, P_SlideMove and the PIT_ callbacks included, goes
+ * through the SharedContext anymore. Then it replays the context accesses of
+ * a P_TryMove checking a number of lines, a P_SlideMove traversing them and
+ * a PIT_ChangeSector per thing, on the real contexts, both ways, counting
+ * the lookups each makes and timing them like the kernels of
+ * rr.drawfuns.DrawFunsBenchmark.
+ *
+ * The game only ever has the one trait user, so the JIT sees a single
+ * receiver at every accessor. Timing both ways in the same run gives it two,
+ * which skews whichever comes second: for figures to go by, run each way on
+ * its own, by name.
+ *
+ * Run as: java p.Actions.ActionContextBenchmark [-quick] [looked|resolved]
+ */
+
+public class ActionContextBenchmark {
+
+    /** Lines checked per move, as in open areas and in detailed ones */
+    private static final int[] LINES = {4, 16, 64};
+    /** Things re-checked per move by PIT_ChangeSector */
+    private static final int THINGS = 8;
+    private static final int ROUNDS = 5;
+
+    /** Keeps the JIT from deciding that nobody looks at the contexts */
+    public static volatile long sink;
+
+    private final long warmupNanos;
+    private final long roundNanos;
+
+    public ActionContextBenchmark(boolean quick) {
+        this.warmupNanos = quick ? 50_000_000L : 500_000_000L;
+        this.roundNanos = quick ? 20_000_000L : 200_000_000L;
+    }
+
+    /**
+     * The contexts the workload uses, with the keys and accessors of the
+     * traits, so that TraitFactory builds the very same SharedContext for
+     * them.
+     */
+    public interface Contexts extends Trait {
+        ContextKey<SlideMove> SLIDEMOVE = ActionTrait.KEY_SLIDEMOVE;
+        ContextKey<Spechits> SPECHITS = ActionTrait.KEY_SPECHITS;
+        ContextKey<Movement> MOVEMENT = ActionTrait.KEY_MOVEMENT;
+        ContextKey<Crushes> CRUSHES = ActionsSectors.KEY_CRUSHES;
+
+        default SlideMove slideMove() {
+            return contextRequire(SLIDEMOVE);
+        }
+
+        default Spechits spechits() {
+            return contextRequire(SPECHITS);
+        }
+
+        default Movement movement() {
+            return contextRequire(MOVEMENT);
+        }
+
+        default Crushes crushes() {
+            return contextRequire(CRUSHES);
+        }
+
+        /**
+         * What a move does with the contexts: P_CheckPosition, PIT_CheckLine
+         * for each line, the rest of P_TryMove, P_SlideMove with a
+         * PTR_SlideTraverse for each line, and PIT_ChangeSector for each thing.
+         */
+        default int move(int lines, int things) {
+            final Spechits sp = spechits();
+            final Movement ma = movement();
+            ma.tmbbox[0] = lines;
+            ma.tmfloorz = ma.tmceilingz = 0;
+            sp.numspechit = 0;
+
+            for (int i = 0; i < lines; i++) {
+                final Spechits spechits = spechits();
+                final Movement mov = movement();
+                if (mov.tmbbox[i & 3] <= i) {
+                    mov.tmfloorz += i;
+                    spechits.numspechit = (spechits.numspechit + 1) & 7;
+                }
+            }
+
+            final Movement mov = movement();
+            final Spechits spechits = spechits();
+            mov.floatok = mov.tmceilingz - mov.tmfloorz < 0;
+
+            final SlideMove slideMove = slideMove();
+            slideMove.bestslidefrac = 0;
+            for (int i = 0; i < lines; i++) {
+                final SlideMove sm = slideMove();
+                sm.bestslidefrac += i;
+            }
+
+            for (int i = 0; i < things; i++) {
+                final Crushes cr = crushes();
+                cr.nofit ^= (i & 1) == 0;
+            }
+
+            return mov.tmfloorz + spechits.numspechit + slideMove.bestslidefrac;
+        }
+    }
+
+    /** Accessors looking the contexts up, as the trait defaults do */
+    static class LookedUp implements Contexts {
+        SharedContext context;
+
+        LookedUp(SharedContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public SharedContext getContext() {
+            return context;
+        }
+    }
+
+    /** Accessors returning fields, as ActionFunctions does */
+    static final class Resolved extends LookedUp {
+        private final SlideMove slideMove;
+        private final Spechits spechits;
+        private final Movement movement;
+        private final Crushes crushes;
+
+        Resolved(SharedContext context) {
+            super(context);
+            this.slideMove = contextRequire(SLIDEMOVE);
+            this.spechits = contextRequire(SPECHITS);
+            this.movement = contextRequire(MOVEMENT);
+            this.crushes = contextRequire(CRUSHES);
+        }
+
+        @Override
+        public SlideMove slideMove() {
+            return slideMove;
+        }
+
+        @Override
+        public Spechits spechits() {
+            return spechits;
+        }
+
+        @Override
+        public Movement movement() {
+            return movement;
+        }
+
+        @Override
+        public Crushes crushes() {
+            return crushes;
+        }
+    }
+
+    /** Passes lookups on, counting them */
+    static final class Counting implements SharedContext {
+        final SharedContext context;
+        long lookups;
+
+        Counting(SharedContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public <T> T get(ContextKey<T> key) {
+            lookups++;
+            return context.get(key);
+        }
+    }
+
+    /**
+     * @return contexts of the traits of ActionFunctions that have no accessor,
+     * or one that ActionFunctions doesn't override, so that whatever uses it
+     * still looks it up
+     */
+    public static List<String> unresolved() {
+        final Set<Class<?>> traits = new HashSet<>();
+        collect(ActionFunctions.class.getInterfaces(), traits);
+
+        final List<String> missing = new ArrayList<>();
+        for (Class<?> trait : traits) {
+            for (Field f : trait.getDeclaredFields()) {
+                if (f.getType() != ContextKey.class || !Modifier.isStatic(f.getModifiers())) {
+                    continue;
+                }
+
+                final Class<?> type = (Class<?>) ((ParameterizedType) f.getGenericType()).getActualTypeArguments()[0];
+                final Method accessor = accessor(traits, type);
+
+                if (accessor == null) {
+                    missing.add(String.format("%s.%s has no accessor", trait.getSimpleName(), f.getName()));
+                } else if (!overridden(accessor)) {
+                    missing.add(String.format("%s.%s() is not overridden", trait.getSimpleName(), accessor.getName()));
+                }
+            }
+        }
+
+        return missing;
+    }
+
+    private static void collect(Class<?>[] interfaces, Set<Class<?>> traits) {
+        for (Class<?> cls : interfaces) {
+            if (traits.add(cls)) {
+                collect(cls.getInterfaces(), traits);
+            }
+        }
+    }
+
+    private static Method accessor(Set<Class<?>> traits, Class<?> type) {
+        for (Class<?> trait : traits) {
+            for (Method m : trait.getDeclaredMethods()) {
+                if (m.isDefault() && m.getParameterCount() == 0 && m.getReturnType() == type) {
+                    return m;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean overridden(Method accessor) {
+        try {
+            return ActionFunctions.class.getDeclaredMethod(accessor.getName()).getReturnType() == accessor.getReturnType();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static final class Result {
+        public final String name;
+        public final int lines;
+        /** Context lookups made by one move */
+        public final long lookups;
+        /** Nanoseconds per move, median and best of the rounds */
+        public final double median, best;
+
+        Result(String name, int lines, long lookups, double median, double best) {
+            this.name = name;
+            this.lines = lines;
+            this.lookups = lookups;
+            this.median = median;
+            this.best = best;
+        }
+    }
+
+    public Result run(String name, LookedUp user, int lines) {
+        long sum = 0;
+        for (long start = System.nanoTime(); System.nanoTime() - start < warmupNanos;) {
+            sum += user.move(lines, THINGS);
+        }
+
+        final double[] rounds = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long moves = 0, elapsed;
+            final long start = System.nanoTime();
+
+            do {
+                for (int i = 0; i < 1000; i++) {
+                    sum += user.move(lines, THINGS);
+                }
+                moves += 1000;
+            } while ((elapsed = System.nanoTime() - start) < roundNanos);
+
+            rounds[r] = (double) elapsed / moves;
+        }
+
+        // Count the lookups of a single move, once done timing, not to show the JIT another context
+        final SharedContext context = user.context;
+        final Counting counting = new Counting(context);
+        user.context = counting;
+        sum += user.move(lines, THINGS);
+        user.context = context;
+
+        sink += sum;
+        Arrays.sort(rounds);
+        return new Result(name, lines, counting.lookups, rounds[ROUNDS / 2], rounds[0]);
+    }
+
+    private static SharedContext context(Trait user) {
+        try {
+            return TraitFactory.build(user, ActionTrait.ACTION_KEY_CHAIN);
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static void main(String[] argv) {
+        boolean quick = false;
+        String filter = null;
+
+        for (String arg : argv) {
+            if (arg.equalsIgnoreCase("-quick")) {
+                quick = true;
+            } else {
+                filter = arg;
+            }
+        }
+
+        final List<String> missing = unresolved();
+        if (missing.isEmpty()) {
+            System.out.println("ActionFunctions resolves every trait context into a field");
+        } else {
+            missing.forEach(m -> System.out.println("Still looked up: " + m));
+        }
+
+        final ActionContextBenchmark bench = new ActionContextBenchmark(quick);
+        final LookedUp lookedUp = new LookedUp(null);
+        lookedUp.context = context(lookedUp);
+        final String[] names = {"looked up", "resolved"};
+        final LookedUp[] users = {lookedUp, new Resolved(context(lookedUp))};
+
+        System.out.printf("%-10s %6s %10s %12s %12s\n", "contexts", "lines", "lookups", "ns/move med", "ns/move best");
+
+        for (int i = 0; i < users.length; i++) {
+            if (filter != null && !names[i].startsWith(filter)) {
+                continue;
+            }
+
+            for (int lines : LINES) {
+                final Result r = bench.run(names[i], users[i], lines);
+                System.out.printf(Locale.ROOT, "%-10s %6d %10d %12.2f %12.2f\n", r.name, r.lines, r.lookups, r.median, r.best);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -67,6 +67,22 @@ public interface ActionTrait extends Trait, ThinkerList {
     ContextKey<SlideMove> KEY_SLIDEMOVE = ACTION_KEY_CHAIN.newKey(ActionTrait.class, SlideMove::new);
     ContextKey<Spechits> KEY_SPECHITS = ACTION_KEY_CHAIN.newKey(ActionTrait.class, Spechits::new);
     ContextKey<Movement> KEY_MOVEMENT = ACTION_KEY_CHAIN.newKey(ActionTrait.class, Movement::new);
+
+    /*
+     * Contexts of the traits, one accessor per ContextKey. ActionFunctions
+     * resolves them all once into fields and returns those instead.
+     */
+    default SlideMove slideMove() {
+        return contextRequire(KEY_SLIDEMOVE);
+    }
+
+    default Spechits spechits() {
+        return contextRequire(KEY_SPECHITS);
+    }
+
+    default Movement movement() {
+        return contextRequire(KEY_MOVEMENT);
+    }
     
     AbstractLevelLoader levelLoader();
     IHeadsUp headsUp();
@@ -88,6 +104,8 @@ public interface ActionTrait extends Trait, ThinkerList {
     player_t getPlayer(int number); //DOOM.players[]
     skill_t getGameSkill(); // DOOM.gameskill
     mobj_t createMobj(); // mobj_t.from(DOOM);
+    void recycleMobj(mobj_t mobj); // unlinked for good, createMobj may hand it out again
+    void auditMobjPool(); // report pointers to recycled mobjs, if poisoning them
 
     int LevelTime(); // DOOM.leveltime
     int P_Random();
@@ -175,7 +193,7 @@ public interface ActionTrait extends Trait, ThinkerList {
      */
 
     default void LineOpening(line_t linedef) {
-        final Movement ma = contextRequire(KEY_MOVEMENT);
+        final Movement ma = movement();
         sector_t front;
         sector_t back;
 
@@ -287,7 +305,7 @@ public interface ActionTrait extends Trait, ThinkerList {
     // keep track of the line that lowers the ceiling,
     // so missiles don't explode against sky hack walls
     default void ResizeSpechits() {
-        final Spechits spechits = contextRequire(KEY_SPECHITS);
+        final Spechits spechits = spechits();
         spechits.spechit = C2JUtils.resize(spechits.spechit[0], spechits.spechit, spechits.spechit.length * 2);
     }
     
@@ -296,8 +314,8 @@ public interface ActionTrait extends Trait, ThinkerList {
      *
      */
     @P_Map.C(PIT_CheckLine) default boolean CheckLine(line_t ld) {
-        final Spechits spechits = contextRequire(KEY_SPECHITS);
-        final Movement ma = contextRequire(KEY_MOVEMENT);
+        final Spechits spechits = spechits();
+        final Movement ma = movement();
         
         if (ma.tmbbox[BOXRIGHT] <= ld.bbox[BOXLEFT]
         || ma.tmbbox[BOXLEFT] >= ld.bbox[BOXRIGHT]
@@ -383,8 +401,8 @@ public interface ActionTrait extends Trait, ThinkerList {
     @P_Map.C(P_CheckPosition)
     default boolean CheckPosition(mobj_t thing, @fixed_t int x, @fixed_t int y) {
         final AbstractLevelLoader ll = levelLoader();
-        final Spechits spechits = contextRequire(KEY_SPECHITS);
-        final Movement ma = contextRequire(KEY_MOVEMENT);
+        final Spechits spechits = spechits();
+        final Movement ma = movement();
         int xl;
         int xh;
         int yl;
@@ -490,7 +508,7 @@ public interface ActionTrait extends Trait, ThinkerList {
     // and false will be returned.
     //
     default boolean ThingHeightClip(mobj_t thing) {
-        final Movement ma = contextRequire(KEY_MOVEMENT);
+        final Movement ma = movement();
         boolean onfloor;
 
         onfloor = (thing.z == thing.floorz);
@@ -515,7 +533,7 @@ public interface ActionTrait extends Trait, ThinkerList {
     }
     
     default boolean isblocking(intercept_t in, line_t li) {
-        final SlideMove slideMove = contextRequire(KEY_SLIDEMOVE);
+        final SlideMove slideMove = slideMove();
         // the line does block movement,
         // see if it is closer than best so far
 
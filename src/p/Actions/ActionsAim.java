@@ -46,7 +46,7 @@ public interface ActionsAim extends ActionsMissiles {
      */
     @Override
     default int AimLineAttack(mobj_t t1, long angle, int distance) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Spawn targ = spawn();
         int x2, y2;
         targ.shootthing = t1;
 
@@ -76,7 +76,7 @@ public interface ActionsAim extends ActionsMissiles {
     // the height of the intended target
     //
     default void P_BulletSlope(mobj_t mo) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Spawn targ = spawn();
         long an;
 
         // see which target is to be aimed at
@@ -109,8 +109,8 @@ public interface ActionsAim extends ActionsMissiles {
     // ???: use slope for monsters?
     @P_Map.C(PTR_AimTraverse)
     default boolean AimTraverse(intercept_t in) {
-        final Movement mov = contextRequire(KEY_MOVEMENT);
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Movement mov = movement();
+        final Spawn targ = spawn();
 
         line_t li;
         mobj_t th;
@@ -52,6 +52,10 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
 
     ContextKey<Attacks> KEY_ATTACKS = ACTION_KEY_CHAIN.newKey(ActionsAttacks.class, Attacks::new);
 
+    default Attacks attacks() {
+        return contextRequire(KEY_ATTACKS);
+    }
+
     final class Attacks {
 
         //
@@ -74,7 +78,7 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
     // P_GunShot
     //
     default void P_GunShot(mobj_t mo, boolean accurate) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Spawn targ = spawn();
         long angle;
         int damage;
 
@@ -98,7 +102,7 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
      * @param damage
      */
     default void LineAttack(mobj_t t1, @angle_t long angle, @fixed_t int distance, @fixed_t int slope, int damage) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Spawn targ = spawn();
         int x2, y2;
 
         targ.shootthing = t1;
@@ -120,7 +124,7 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
      */
     default void RadiusAttack(mobj_t spot, mobj_t source, int damage) {
         final AbstractLevelLoader ll = levelLoader();
-        final Attacks att = contextRequire(KEY_ATTACKS);
+        final Attacks att = attacks();
 
         int x;
         int y;
@@ -142,8 +146,9 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
         att.bombsource = source;
         att.bombdamage = damage;
 
+        // only blocks with things in them, in the same order
         for (y = yl; y <= yh; y++) {
-            for (x = xl; x <= xh; x++) {
+            for (x = ll.blockoccupancy.nextInRow(y, xl, xh); x <= xh; x = ll.blockoccupancy.nextInRow(y, x + 1, xh)) {
                 BlockThingsIterator(x, y, this::RadiusAttack);
             }
         }
@@ -155,7 +160,7 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
      */
     @P_Enemy.C(PIT_VileCheck)
     default boolean VileCheck(mobj_t thing) {
-        final Attacks att = contextRequire(KEY_ATTACKS);
+        final Attacks att = attacks();
 
         int maxdist;
         boolean check;
@@ -191,7 +196,7 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
      */
     @P_Map.C(PIT_RadiusAttack)
     default boolean RadiusAttack(mobj_t thing) {
-        final Attacks att = contextRequire(KEY_ATTACKS);
+        final Attacks att = attacks();
         @fixed_t
         int dx, dy, dist;
 
@@ -235,8 +240,8 @@ public interface ActionsAttacks extends ActionsAim, ActionsMobj, ActionsSight, A
      */
     @P_Map.C(PTR_ShootTraverse)
     default boolean ShootTraverse(intercept_t in) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
-        final Movement mov = contextRequire(KEY_MOVEMENT);
+        final Spawn targ = spawn();
+        final Movement mov = movement();
         @fixed_t
         int x, y, z, frac;
         line_t li;
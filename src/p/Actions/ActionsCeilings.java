@@ -38,6 +38,10 @@ public interface ActionsCeilings extends ActionsMoveEvents, ActionsUseEvents {
 
     ContextKey<Ceilings> KEY_CEILINGS = ACTION_KEY_CHAIN.newKey(ActionsCeilings.class, Ceilings::new);
 
+    default Ceilings ceilings() {
+        return contextRequire(KEY_CEILINGS);
+    }
+
     void RemoveThinker(thinker_t activeCeiling);
     result_e MovePlane(sector_t sector, int speed, int bottomheight, boolean crush, int i, int direction);
     int FindSectorFromLineTag(line_t line, int secnum);
@@ -51,7 +55,7 @@ public interface ActionsCeilings extends ActionsMoveEvents, ActionsUseEvents {
      * This needs to be called before loading, otherwise crushers won't be able to be restarted.
      */
     default void ClearCeilingsBeforeLoading() {
-        contextRequire(KEY_CEILINGS).activeceilings = new ceiling_t[MAXCEILINGS];
+        ceilings().activeceilings = new ceiling_t[MAXCEILINGS];
     }
 
     /**
@@ -285,14 +289,14 @@ public interface ActionsCeilings extends ActionsMoveEvents, ActionsUseEvents {
     }
 
     default void setActiveceilings(ceiling_t[] activeceilings) {
-        contextRequire(KEY_CEILINGS).activeceilings = activeceilings;
+        ceilings().activeceilings = activeceilings;
     }
 
     default ceiling_t[] getActiveCeilings() {
-        return contextRequire(KEY_CEILINGS).activeceilings;
+        return ceilings().activeceilings;
     }
 
     default int getMaxCeilings() {
-        return contextRequire(KEY_CEILINGS).activeceilings.length;
+        return ceilings().activeceilings.length;
     }
 }
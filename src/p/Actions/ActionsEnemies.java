@@ -29,26 +29,31 @@ import static doom.items.weaponinfo;
 import doom.player_t;
 import static m.fixed_t.FRACUNIT;
 import static p.MapUtils.AproxDistance;
+import p.AbstractLevelLoader;
 import static p.MobjFlags.MF_JUSTHIT;
 import p.mobj_t;
 import rr.SceneRenderer;
 import rr.line_t;
-import static rr.line_t.ML_SOUNDBLOCK;
-import static rr.line_t.ML_TWOSIDED;
 import rr.sector_t;
-import rr.side_t;
 import utils.TraitFactory.ContextKey;
 
 public interface ActionsEnemies extends ActionsSight, ActionsSpawns {
 
     ContextKey<Enemies> KEY_ENEMIES = ACTION_KEY_CHAIN.newKey(ActionsEnemies.class, Enemies::new);
 
+    default Enemies enemies() {
+        return contextRequire(KEY_ENEMIES);
+    }
+
     class Enemies {
 
         mobj_t soundtarget;
         // Peg to map movement
         line_t[] spechitp = new line_t[MAXSPECIALCROSS];
         int numspechit;
+        // Sectors yet to flood from, past no sound blocking line and past one
+        int[] soundqueue = new int[0];
+        int[] soundblocked = new int[0];
     }
 
     //
@@ -143,65 +148,113 @@ public interface ActionsEnemies extends ActionsSight, ActionsSpawns {
 
     //
     // Called by P_NoiseAlert.
-    // Recursively traverse adjacent sectors,
+    // Traverse adjacent sectors,
     // sound blocking lines cut off traversal.
     //
+    // The vanilla recursion revisits a sector whenever it finds a way there
+    // past fewer sound blocking lines, so each sector ends up with the
+    // fewest it can be reached past. Flooding every sector reachable past
+    // none first, and then the rest past one, gets the same result without
+    // the recursion, or visiting any sector more than twice.
+    //
     default void RecursiveSound(sector_t sec, int soundblocks) {
         final SceneRenderer<?, ?> sr = sceneRenderer();
-        final Enemies en = contextRequire(KEY_ENEMIES);
-        final Movement mov = contextRequire(KEY_MOVEMENT);
-        int i;
-        line_t check;
-        sector_t other;
+        final Enemies en = enemies();
+        final AbstractLevelLoader ll = levelLoader();
+        final int validcount = sr.getValidCount();
 
         // wake up all monsters in this sector
-        if (sec.validcount == sr.getValidCount() && sec.soundtraversed <= soundblocks + 1) {
+        if (sec.validcount == validcount && sec.soundtraversed <= soundblocks + 1) {
             return; // already flooded
         }
 
-        sec.validcount = sr.getValidCount();
-        sec.soundtraversed = soundblocks + 1;
-        sec.soundtarget = en.soundtarget;
+        if (en.soundqueue.length < ll.numsectors) {
+            en.soundqueue = new int[ll.numsectors];
+            en.soundblocked = new int[ll.numsectors];
+        }
 
-        // "peg" to the level loader for syntactic sugar
-        side_t[] sides = levelLoader().sides;
+        final int[] queue = en.soundqueue;
+        final int[] blocked = en.soundblocked;
+        int head = 0, tail = 0, numblocked = 0;
 
-        for (i = 0; i < sec.linecount; i++) {
-            check = sec.lines[i];
+        WakeSector(sec, soundblocks, validcount);
+        if (soundblocks == 0) {
+            queue[tail++] = sec.id;
+        } else {
+            blocked[numblocked++] = sec.id;
+        }
 
-            if ((check.flags & ML_TWOSIDED) == 0) {
-                continue;
-            }
+        // Past no sound blocking lines...
+        while (head < tail) {
+            final int s = queue[head++];
+
+            for (int e = ll.soundedges[s]; e < ll.soundedges[s + 1]; e++) {
+                if (!SoundEdgeOpen(ll, e)) {
+                    continue; // closed door
+                }
 
-            LineOpening(check);
+                final sector_t other = ll.sectors[ll.soundsectors[e]];
 
-            if (mov.openrange <= 0) {
-                continue; // closed door
+                if ((ll.soundlines[e] & 1) != 0) {
+                    if (other.validcount != validcount) {
+                        WakeSector(other, 1, validcount);
+                        blocked[numblocked++] = other.id;
+                    }
+                } else if (other.validcount != validcount || other.soundtraversed > 1) {
+                    WakeSector(other, 0, validcount);
+                    queue[tail++] = other.id;
+                }
             }
+        }
 
-            if (sides[check.sidenum[0]].sector == sec) {
-                other = sides[check.sidenum[1]].sector;
-            } else {
-                other = sides[check.sidenum[0]].sector;
+        // ...then past one, wherever not already reached past none
+        for (head = 0; head < numblocked; head++) {
+            final int s = blocked[head];
+            if (ll.sectors[s].soundtraversed != 2) {
+                continue;
             }
 
-            if ((check.flags & ML_SOUNDBLOCK) != 0) {
-                if (soundblocks == 0) {
-                    RecursiveSound(other, 1);
+            for (int e = ll.soundedges[s]; e < ll.soundedges[s + 1]; e++) {
+                if ((ll.soundlines[e] & 1) != 0 || !SoundEdgeOpen(ll, e)) {
+                    continue;
+                }
+
+                final sector_t other = ll.sectors[ll.soundsectors[e]];
+
+                if (other.validcount != validcount) {
+                    WakeSector(other, 1, validcount);
+                    blocked[numblocked++] = other.id;
                 }
-            } else {
-                RecursiveSound(other, soundblocks);
             }
         }
     }
 
+    default void WakeSector(sector_t sec, int soundblocks, int validcount) {
+        sec.validcount = validcount;
+        sec.soundtraversed = soundblocks + 1;
+        sec.soundtarget = enemies().soundtarget;
+    }
+
+    /**
+     * Whether a sound graph edge is open right now, the same as LineOpening
+     * giving a positive openrange, only without leaving the opening behind.
+     */
+    default boolean SoundEdgeOpen(AbstractLevelLoader ll, int edge) {
+        final line_t check = ll.lines[ll.soundlines[edge] >> 1];
+        final sector_t front = check.frontsector, back = check.backsector;
+        final int opentop = front.ceilingheight < back.ceilingheight ? front.ceilingheight : back.ceilingheight;
+        final int openbottom = front.floorheight > back.floorheight ? front.floorheight : back.floorheight;
+
+        return opentop - openbottom > 0;
+    }
+
     /**
      * P_NoiseAlert
      * If a monster yells at a player,
      * it will alert other monsters to the player.
      */
     default void NoiseAlert(mobj_t target, mobj_t emmiter) {
-        final Enemies en = contextRequire(KEY_ENEMIES);
+        final Enemies en = enemies();
         en.soundtarget = target;
         sceneRenderer().increaseValidCount(1);
         RecursiveSound(emmiter.subsector.sector, 0);
@@ -297,23 +297,20 @@ public interface ActionsLights extends ActionsMoveEvents, ActionsUseEvents {
         sector_t tsec;
         line_t templine;
 
-        for (int j = 0; j < ll.numsectors; j++) {
+        for (int j = -1; (j = FindSectorFromLineTag(line, j)) >= 0;) {
             sector = ll.sectors[j];
-            if (sector.tag == line.tag) {
-
-                min = sector.lightlevel;
-                for (i = 0; i < sector.linecount; i++) {
-                    templine = sector.lines[i];
-                    tsec = templine.getNextSector(sector);
-                    if (tsec == null) {
-                        continue;
-                    }
-                    if (tsec.lightlevel < min) {
-                        min = tsec.lightlevel;
-                    }
+            min = sector.lightlevel;
+            for (i = 0; i < sector.linecount; i++) {
+                templine = sector.lines[i];
+                tsec = templine.getNextSector(sector);
+                if (tsec == null) {
+                    continue;
+                }
+                if (tsec.lightlevel < min) {
+                    min = tsec.lightlevel;
                 }
-                sector.lightlevel = (short) min;
             }
+            sector.lightlevel = (short) min;
         }
     }
 
@@ -328,28 +325,26 @@ public interface ActionsLights extends ActionsMoveEvents, ActionsUseEvents {
         sector_t temp;
         line_t templine;
 
-        for (int i = 0; i < ll.numsectors; i++) {
+        for (int i = -1; (i = FindSectorFromLineTag(line, i)) >= 0;) {
             sector = ll.sectors[i];
-            if (sector.tag == line.tag) {
-                // bright = 0 means to search
-                // for highest light level
-                // surrounding sector
-                if (bright == 0) {
-                    for (int j = 0; j < sector.linecount; j++) {
-                        templine = sector.lines[j];
-                        temp = templine.getNextSector(sector);
-
-                        if (temp == null) {
-                            continue;
-                        }
-
-                        if (temp.lightlevel > bright) {
-                            bright = temp.lightlevel;
-                        }
+            // bright = 0 means to search
+            // for highest light level
+            // surrounding sector
+            if (bright == 0) {
+                for (int j = 0; j < sector.linecount; j++) {
+                    templine = sector.lines[j];
+                    temp = templine.getNextSector(sector);
+
+                    if (temp == null) {
+                        continue;
+                    }
+
+                    if (temp.lightlevel > bright) {
+                        bright = temp.lightlevel;
                     }
                 }
-                sector.lightlevel = (short) bright;
             }
+            sector.lightlevel = (short) bright;
         }
     }
 }
@@ -103,7 +103,7 @@ public interface ActionsMissiles extends ActionsMobj {
      * P_SpawnPlayerMissile Tries to aim at a nearby monster
      */
     default void SpawnPlayerMissile(mobj_t source, mobjtype_t type) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Spawn targ = spawn();
 
         mobj_t th;
         @angle_t
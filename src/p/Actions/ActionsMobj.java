@@ -306,7 +306,7 @@ public interface ActionsMobj extends ActionsThings, ActionsMovement, ActionsTele
             && !eval(mobj.flags & MF_DROPPED)
             && (mobj.type != mobjtype_t.MT_INV)
             && (mobj.type != mobjtype_t.MT_INS)) {
-            final RespawnQueue resp = contextRequire(KEY_RESP_QUEUE);
+            final RespawnQueue resp = respawnQueue();
             resp.itemrespawnque[resp.iquehead] = mobj.spawnpoint;
             resp.itemrespawntime[resp.iquehead] = LevelTime();
             resp.iquehead = (resp.iquehead + 1) & (ITEMQUESIZE - 1);
@@ -381,6 +381,11 @@ public interface ActionsMobj extends ActionsThings, ActionsMovement, ActionsTele
                     ll.blocklinks[blocky * ll.bmapwidth + blockx] = (mobj_t) thing.bnext;
                 }
             }
+
+            if (thing.blocknum >= 0) {
+                ll.blockoccupancy.unlink(thing.blocknum);
+                thing.blocknum = -1;
+            }
         }
     }
 }
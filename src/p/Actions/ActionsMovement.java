@@ -63,6 +63,10 @@ public interface ActionsMovement extends ActionsPathTraverse {
 
     ContextKey<DirType> KEY_DIRTYPE = ACTION_KEY_CHAIN.newKey(ActionsMovement.class, DirType::new);
 
+    default DirType dirType() {
+        return contextRequire(KEY_DIRTYPE);
+    }
+
     //
     // P_XYMovement
     //
@@ -90,8 +94,8 @@ public interface ActionsMovement extends ActionsPathTraverse {
     // returns false if the move is blocked.
     //
     default boolean Move(mobj_t actor) {
-        final Movement mov = contextRequire(KEY_MOVEMENT);
-        final Spechits sp = contextRequire(KEY_SPECHITS);
+        final Movement mov = movement();
+        final Spechits sp = spechits();
 
         @fixed_t
         int tryx, tryy;
@@ -163,8 +167,8 @@ public interface ActionsMovement extends ActionsPathTraverse {
      *
      */
     default boolean TryMove(mobj_t thing, @fixed_t int x, @fixed_t int y) {
-        final Movement mov = contextRequire(KEY_MOVEMENT);
-        final Spechits sp = contextRequire(KEY_SPECHITS);
+        final Movement mov = movement();
+        final Spechits sp = spechits();
 
         @fixed_t
         int oldx, oldy;
@@ -224,7 +228,7 @@ public interface ActionsMovement extends ActionsPathTraverse {
     }
 
     default void NewChaseDir(mobj_t actor) {
-        final DirType dirtype = contextRequire(KEY_DIRTYPE);
+        final DirType dirtype = dirType();
 
         @fixed_t
         int deltax, deltay;
@@ -363,7 +367,7 @@ public interface ActionsMovement extends ActionsPathTraverse {
     //
     default void HitSlideLine(line_t ld) {
         final SceneRenderer<?, ?> sr = sceneRenderer();
-        final SlideMove slideMove = contextRequire(KEY_SLIDEMOVE);
+        final SlideMove slideMove = slideMove();
         boolean side;
 
         // all angles
@@ -418,7 +422,7 @@ public interface ActionsMovement extends ActionsPathTraverse {
     // This is a kludgy mess.
     //
     default void SlideMove(mobj_t mo) {
-        final SlideMove slideMove = contextRequire(KEY_SLIDEMOVE);
+        final SlideMove slideMove = slideMove();
         @fixed_t
         int leadx, leady, trailx, traily, newx, newy;
         int hitcount;
@@ -515,7 +519,7 @@ public interface ActionsMovement extends ActionsPathTraverse {
     // P_XYMovement  
     //
     default void XYMovement(mobj_t mo) {
-        final Movement mv = contextRequire(KEY_MOVEMENT);
+        final Movement mv = movement();
 
         @fixed_t
         int ptryx, ptryy; // pointers to fixed_t ???
@@ -637,8 +641,8 @@ public interface ActionsMovement extends ActionsPathTraverse {
     //   
     @SourceCode.P_Map.C(PTR_SlideTraverse)
     default boolean SlideTraverse(intercept_t in) {
-        final SlideMove slideMove = contextRequire(KEY_SLIDEMOVE);
-        final Movement ma = contextRequire(KEY_MOVEMENT);
+        final SlideMove slideMove = slideMove();
+        final Movement ma = movement();
         line_t li;
 
         if (!in.isaline) {
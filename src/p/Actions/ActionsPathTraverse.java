@@ -28,6 +28,7 @@ import static data.Limits.MAXINTERCEPTS;
 import doom.SourceCode.P_MapUtl;
 import static doom.SourceCode.P_MapUtl.P_PathTraverse;
 import doom.SourceCode.fixed_t;
+import java.util.Arrays;
 import java.util.function.Predicate;
 import static m.fixed_t.FRACBITS;
 import static m.fixed_t.FRACUNIT;
@@ -39,15 +40,17 @@ import p.divline_t;
 import p.intercept_t;
 import p.mobj_t;
 import rr.line_t;
-import utils.C2JUtils;
 import static utils.C2JUtils.eval;
-import static utils.GenericCopy.malloc;
 import utils.TraitFactory.ContextKey;
 
 public interface ActionsPathTraverse extends ActionsSectors {
 
     ContextKey<Traverse> KEY_TRAVERSE = ACTION_KEY_CHAIN.newKey(ActionsPathTraverse.class, Traverse::new);
 
+    default Traverse traverse() {
+        return contextRequire(KEY_TRAVERSE);
+    }
+
     final class Traverse {
         //////////////// PIT FUNCTION OBJECTS ///////////////////
 
@@ -76,10 +79,80 @@ public interface ActionsPathTraverse extends ActionsSectors {
         //
         // INTERCEPT ROUTINES
         //
-        intercept_t[] intercepts = malloc(intercept_t::new, intercept_t[]::new, MAXINTERCEPTS);
+        // Intercepts are kept as parallel arrays, and only turned into the
+        // one intercept_t handed to the traverser when their turn comes.
+        // A null line means it's a thing.
+        int[] interceptFracs = new int[MAXINTERCEPTS];
+        line_t[] interceptLines = new line_t[MAXINTERCEPTS];
+        mobj_t[] interceptThings = new mobj_t[MAXINTERCEPTS];
+
+        /**
+         * Binary min-heap of frac << 32 | index. Fracs are never negative, so
+         * this orders by frac first and then by order of insertion, which is
+         * the order the vanilla scan for the closest intercept picked them.
+         */
+        long[] interceptOrder = new long[MAXINTERCEPTS];
+
+        final intercept_t intercept = new intercept_t();
+
+        void AddIntercept(int frac, line_t line, mobj_t thing) {
+            if (intercept_p == interceptFracs.length) {
+                final int length = interceptFracs.length * 2;
+                interceptFracs = Arrays.copyOf(interceptFracs, length);
+                interceptLines = Arrays.copyOf(interceptLines, length);
+                interceptThings = Arrays.copyOf(interceptThings, length);
+                interceptOrder = new long[length];
+            }
+
+            interceptFracs[intercept_p] = frac;
+            interceptLines[intercept_p] = line;
+            interceptThings[intercept_p] = thing;
+            intercept_p++;
+        }
 
-        void ResizeIntercepts() {
-            intercepts = C2JUtils.resize(intercepts[0], intercepts, intercepts.length * 2);
+        /** Don't keep the level's lines and things alive through the pool */
+        void ClearIntercepts() {
+            Arrays.fill(interceptLines, 0, intercept_p, null);
+            Arrays.fill(interceptThings, 0, intercept_p, null);
+            intercept_p = 0;
+        }
+
+        void HeapifyIntercepts() {
+            final long[] heap = interceptOrder;
+
+            for (int i = 0; i < intercept_p; i++) {
+                heap[i] = (long) interceptFracs[i] << 32 | i;
+            }
+
+            for (int i = (intercept_p >> 1) - 1; i >= 0; i--) {
+                SiftDown(heap, i, intercept_p);
+            }
+        }
+
+        /** Removes the closest intercept from a heap of the given size */
+        long PopIntercept(int size) {
+            final long[] heap = interceptOrder;
+            final long top = heap[0];
+
+            heap[0] = heap[size - 1];
+            SiftDown(heap, 0, size - 1);
+            return top;
+        }
+
+        private static void SiftDown(long[] heap, int i, int size) {
+            final long key = heap[i];
+
+            for (int child; (child = (i << 1) + 1) < size; i = child) {
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (key <= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+            }
+
+            heap[i] = key;
         }
     }
 
@@ -91,8 +164,8 @@ public interface ActionsPathTraverse extends ActionsSectors {
     @P_MapUtl.C(P_PathTraverse)
     default boolean PathTraverse(int x1, int y1, int x2, int y2, int flags, Predicate<intercept_t> trav) {
         final AbstractLevelLoader ll = levelLoader();
-        final Spawn sp = contextRequire(KEY_SPAWN);
-        final Traverse tr = contextRequire(KEY_TRAVERSE);
+        final Spawn sp = spawn();
+        final Traverse tr = traverse();
 
         // System.out.println("Pathtraverse "+x1+" , " +y1+" to "+x2 +" , "
         // +y2);
@@ -117,7 +190,7 @@ public interface ActionsPathTraverse extends ActionsSectors {
         tr.earlyout = eval(flags & PT_EARLYOUT);
 
         sceneRenderer().increaseValidCount(1);
-        tr.intercept_p = 0;
+        tr.ClearIntercepts();
 
         if (((x1 - ll.bmaporgx) & (MAPBLOCKSIZE - 1)) == 0) {
             x1 += FRACUNIT; // don't side exactly on a line
@@ -223,8 +296,8 @@ public interface ActionsPathTraverse extends ActionsSectors {
     } // end method
 
     default boolean AddLineIntercepts(line_t ld) {
-        final Spawn sp = contextRequire(KEY_SPAWN);
-        final Traverse tr = contextRequire(KEY_TRAVERSE);
+        final Spawn sp = spawn();
+        final Traverse tr = traverse();
 
         boolean s1;
         boolean s2;
@@ -261,14 +334,7 @@ public interface ActionsPathTraverse extends ActionsSectors {
         }
 
         // "create" a new intercept in the static intercept pool.
-        if (tr.intercept_p >= tr.intercepts.length) {
-            tr.ResizeIntercepts();
-        }
-
-        tr.intercepts[tr.intercept_p].frac = frac;
-        tr.intercepts[tr.intercept_p].isaline = true;
-        tr.intercepts[tr.intercept_p].line = ld;
-        tr.intercept_p++;
+        tr.AddIntercept(frac, ld, null);
 
         return true; // continue
     }
@@ -276,8 +342,8 @@ public interface ActionsPathTraverse extends ActionsSectors {
     ;
 
     default boolean AddThingIntercepts(mobj_t thing) {
-        final Spawn sp = contextRequire(KEY_SPAWN);
-        final Traverse tr = contextRequire(KEY_TRAVERSE);
+        final Spawn sp = spawn();
+        final Traverse tr = traverse();
 
         @fixed_t
         int x1, y1, x2, y2;
@@ -322,14 +388,7 @@ public interface ActionsPathTraverse extends ActionsSectors {
         }
 
         // "create" a new intercept in the static intercept pool.
-        if (tr.intercept_p >= tr.intercepts.length) {
-            tr.ResizeIntercepts();
-        }
-
-        tr.intercepts[tr.intercept_p].frac = frac;
-        tr.intercepts[tr.intercept_p].isaline = false;
-        tr.intercepts[tr.intercept_p].thing = thing;
-        tr.intercept_p++;
+        tr.AddIntercept(frac, null, thing);
 
         return true; // keep going
     }
@@ -341,24 +400,25 @@ public interface ActionsPathTraverse extends ActionsSectors {
     //Returns true if the traverser function returns true
     //for all lines.
     //
+    // Intercepts come off a heap rather than by rescanning all of them for
+    // the closest one each time, in the same order. A traverse that stops
+    // early doesn't even pay for sorting the rest.
+    //
     default boolean TraverseIntercept(Predicate<intercept_t> func, int maxfrac) {
-        final Traverse tr = contextRequire(KEY_TRAVERSE);
+        final Traverse tr = traverse();
+        final intercept_t in = tr.intercept;
 
         int count;
         @fixed_t
         int dist;
-        intercept_t in = null;  // shut up compiler warning
 
         count = tr.intercept_p;
+        tr.HeapifyIntercepts();
 
-        while (count-- > 0) {
-            dist = MAXINT;
-            for (int scan = 0; scan < tr.intercept_p; scan++) {
-                if (tr.intercepts[scan].frac < dist) {
-                    dist = tr.intercepts[scan].frac;
-                    in = tr.intercepts[scan];
-                }
-            }
+        while (count > 0) {
+            final long closest = tr.PopIntercept(count--);
+            final int scan = (int) closest;
+            dist = (int) (closest >>> 32);
 
             if (dist > maxfrac) {
                 return true;    // checked everything in range      
@@ -375,10 +435,14 @@ public interface ActionsPathTraverse extends ActionsSectors {
             }
              */
 
+            in.frac = dist;
+            in.line = tr.interceptLines[scan];
+            in.thing = tr.interceptThings[scan];
+            in.isaline = in.line != null;
+
             if (!func.test(in)) {
                 return false;   // don't bother going farther
             }
-            in.frac = MAXINT;
         }
 
         return true;        // everything was traversed
@@ -42,6 +42,10 @@ public interface ActionsPlats extends ActionsMoveEvents, ActionsUseEvents {
 
     ContextKey<Plats> KEY_PLATS = ACTION_KEY_CHAIN.newKey(ActionsPlats.class, Plats::new);
 
+    default Plats plats() {
+        return contextRequire(KEY_PLATS);
+    }
+
     int FindSectorFromLineTag(line_t line, int secnum);
     void RemoveThinker(thinker_t activeplat);
 
@@ -175,7 +179,7 @@ public interface ActionsPlats extends ActionsMoveEvents, ActionsUseEvents {
     }
 
     default void ActivateInStasis(int tag) {
-        final Plats plats = contextRequire(KEY_PLATS);
+        final Plats plats = plats();
 
         for (final plat_t activeplat : plats.activeplats) {
             if (activeplat != null && activeplat.tag == tag && activeplat.status == plat_e.in_stasis) {
@@ -187,7 +191,7 @@ public interface ActionsPlats extends ActionsMoveEvents, ActionsUseEvents {
 
     @Override
     default void StopPlat(line_t line) {
-        final Plats plats = contextRequire(KEY_PLATS);
+        final Plats plats = plats();
 
         for (final plat_t activeplat : plats.activeplats) {
             if (activeplat != null && activeplat.status != plat_e.in_stasis && activeplat.tag == line.tag) {
@@ -199,7 +203,7 @@ public interface ActionsPlats extends ActionsMoveEvents, ActionsUseEvents {
     }
 
     default void AddActivePlat(plat_t plat) {
-        final Plats plats = contextRequire(KEY_PLATS);
+        final Plats plats = plats();
 
         for (int i = 0; i < plats.activeplats.length; i++) {
             if (plats.activeplats[i] == null) {
@@ -224,7 +228,7 @@ public interface ActionsPlats extends ActionsMoveEvents, ActionsUseEvents {
     }
 
     default void RemoveActivePlat(plat_t plat) {
-        final Plats plats = contextRequire(KEY_PLATS);
+        final Plats plats = plats();
 
         for (int i = 0; i < plats.activeplats.length; i++) {
             if (plat == plats.activeplats[i]) {
@@ -241,7 +245,7 @@ public interface ActionsPlats extends ActionsMoveEvents, ActionsUseEvents {
     }
 
     default void ClearPlatsBeforeLoading() {
-        final Plats plats = contextRequire(KEY_PLATS);
+        final Plats plats = plats();
 
         for (int i = 0; i < plats.activeplats.length; i++) {
             plats.activeplats[i] = null;
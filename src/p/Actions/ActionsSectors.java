@@ -32,6 +32,7 @@ import static m.BBox.BOXRIGHT;
 import static m.BBox.BOXTOP;
 import mochadoom.Loggers;
 import p.AbstractLevelLoader;
+import p.BlockOccupancy;
 import p.ActiveStates;
 import p.divline_t;
 import p.floor_e;
@@ -54,9 +55,23 @@ public interface ActionsSectors extends ActionsLights, ActionsFloors, ActionsDoo
     ContextKey<Spawn> KEY_SPAWN = ACTION_KEY_CHAIN.newKey(ActionsSectors.class, Spawn::new);
     ContextKey<Crushes> KEY_CRUSHES = ACTION_KEY_CHAIN.newKey(ActionsSectors.class, Crushes::new);
 
+    default RespawnQueue respawnQueue() {
+        return contextRequire(KEY_RESP_QUEUE);
+    }
+
+    default Spawn spawn() {
+        return contextRequire(KEY_SPAWN);
+    }
+
+    default Crushes crushes() {
+        return contextRequire(KEY_CRUSHES);
+    }
+
     void RemoveMobj(mobj_t thing);
     void DamageMobj(mobj_t thing, mobj_t tmthing, mobj_t tmthing0, int damage);
     mobj_t SpawnMobj(@fixed_t int x, @fixed_t int y, @fixed_t int z, mobjtype_t type);
+    void InvalidateSightCache();
+    void ResetSightCache();
 
     final class Crushes {
 
@@ -131,16 +146,19 @@ public interface ActionsSectors extends ActionsLights, ActionsFloors, ActionsDoo
     //  to undo the changes.
     //
     default boolean ChangeSector(sector_t sector, boolean crunch) {
-        final Crushes cr = contextRequire(KEY_CRUSHES);
+        final Crushes cr = crushes();
         int x;
         int y;
 
         cr.nofit = false;
         cr.crushchange = crunch;
 
-        // re-check heights for all things near the moving sector
+        // re-check heights for all things near the moving sector,
+        // skipping empty blocks but keeping the same order
+        final BlockOccupancy occupancy = levelLoader().blockoccupancy;
+        final int yl = sector.blockbox[BOXBOTTOM], yh = sector.blockbox[BOXTOP];
         for (x = sector.blockbox[BOXLEFT]; x <= sector.blockbox[BOXRIGHT]; x++) {
-            for (y = sector.blockbox[BOXBOTTOM]; y <= sector.blockbox[BOXTOP]; y++) {
+            for (y = occupancy.nextInColumn(x, yl, yh); y <= yh; y = occupancy.nextInColumn(x, y + 1, yh)) {
                 this.BlockThingsIterator(x, y, this::ChangeSector);
             }
         }
@@ -153,7 +171,7 @@ public interface ActionsSectors extends ActionsLights, ActionsFloors, ActionsDoo
      */
     @P_Map.C(PIT_ChangeSector)
     default boolean ChangeSector(mobj_t thing) {
-        final Crushes cr = contextRequire(KEY_CRUSHES);
+        final Crushes cr = crushes();
         mobj_t mo;
 
         if (ThingHeightClip(thing)) {
@@ -220,6 +238,9 @@ public interface ActionsSectors extends ActionsLights, ActionsFloors, ActionsDoo
         @fixed_t
         int lastpos;
 
+        // Sight checks through this sector may come out differently now
+        InvalidateSightCache();
+
         switch (floorOrCeiling) {
             case 0:
                 // FLOOR
@@ -417,15 +438,8 @@ public interface ActionsSectors extends ActionsLights, ActionsFloors, ActionsDoo
      */
     @Override
     default int FindSectorFromLineTag(line_t line, int start) {
-        final AbstractLevelLoader ll = levelLoader();
-
-        for (int i = start + 1; i < ll.numsectors; i++) {
-            if (ll.sectors[i].tag == line.tag) {
-                return i;
-            }
-        }
-
-        return -1;
+        // killough 4/16/98: follow the tag chains, in vanilla order
+        return levelLoader().FindSectorFromTag(line.tag, start);
     }
 
     //
@@ -467,7 +481,7 @@ public interface ActionsSectors extends ActionsLights, ActionsFloors, ActionsDoo
     
     default void ClearRespawnQueue() {
         // clear special respawning que
-        final RespawnQueue rq = contextRequire(KEY_RESP_QUEUE);
+        final RespawnQueue rq = respawnQueue();
         rq.iquehead = rq.iquetail = 0;
     }
 }
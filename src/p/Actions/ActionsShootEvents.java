@@ -74,7 +74,7 @@ public interface ActionsShootEvents extends ActionsSpawns {
 
     //_D_: NOTE: this function was added, because replacing a goto by a boolean flag caused a bug if shooting a single sided line
     default boolean gotoHitLine(intercept_t in, line_t li) {
-        final Spawn targ = contextRequire(KEY_SPAWN);
+        final Spawn targ = spawn();
         int x, y, z, frac;
 
         // position a bit closer
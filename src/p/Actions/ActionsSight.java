@@ -21,6 +21,11 @@ import static data.Defines.NF_SUBSECTOR;
 import static data.Defines.RANGECHECK;
 import doom.SourceCode.fixed_t;
 import static m.fixed_t.FixedDiv;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import m.Settings;
+import mochadoom.Engine;
+import mochadoom.Loggers;
 import p.AbstractLevelLoader;
 import p.MapUtils;
 import p.divline_t;
@@ -39,6 +44,11 @@ public interface ActionsSight extends ActionsSectors {
 
     ContextKey<Sight> KEY_SIGHT = ACTION_KEY_CHAIN.newKey(ActionsSight.class, Sight::new);
 
+    default Sight sight() {
+        return contextRequire(KEY_SIGHT);
+    }
+    Logger LOGGER = Loggers.getLogger(ActionsSight.class.getName());
+
     class Sight {
 
         int sightzstart; // eye z of looker
@@ -46,6 +56,62 @@ public interface ActionsSight extends ActionsSectors {
         ; // from t1 to t2
         int t2x, t2y;
         int[] sightcounts = new int[2];
+        divline_t divl = new divline_t();
+
+        //
+        // SIGHT CACHE
+        //
+        // Remembers the outcome of the last few full checks, keyed on
+        // everything that goes into one: the eye and target positions, the
+        // tic, and how many times any sector moved since. A hit can only be
+        // an exact repeat of a check done earlier in the same tic, with
+        // the same answer, so it's demo safe.
+        //
+        static final int CACHE_SIZE = 1024; // power of 2
+        static final int KEY_INTS = 9;
+
+        final boolean cacheEnabled = Engine.getConfig().equals(Settings.sight_check_cache, Boolean.TRUE);
+        final int[] cacheKeys = cacheEnabled ? new int[CACHE_SIZE * KEY_INTS] : null;
+        final boolean[] cacheSeen = cacheEnabled ? new boolean[CACHE_SIZE] : null;
+        /** Starts at 1, so empty slots never match */
+        int epoch = 1;
+        long cacheHits, cacheMisses;
+
+        /** @return the slot for the key, filled with it if it didn't hold it yet */
+        int CacheSlot(int gametic, int t1x, int t1y, int t2x, int t2y, int t2z, int t2top) {
+            int h = t1x * 31 + t1y;
+            h = h * 31 + t2x;
+            h = h * 31 + t2y;
+            h ^= h >>> 16;
+
+            final int slot = h & (CACHE_SIZE - 1);
+            final int[] k = cacheKeys;
+            final int o = slot * KEY_INTS;
+
+            if (k[o] == gametic && k[o + 1] == epoch && k[o + 2] == t1x && k[o + 3] == t1y
+                && k[o + 4] == sightzstart && k[o + 5] == t2x && k[o + 6] == t2y
+                && k[o + 7] == t2z && k[o + 8] == t2top) {
+                cacheHits++;
+                return slot;
+            }
+
+            k[o] = gametic;
+            k[o + 1] = 0; // not valid until the outcome is stored
+            k[o + 2] = t1x;
+            k[o + 3] = t1y;
+            k[o + 4] = sightzstart;
+            k[o + 5] = t2x;
+            k[o + 6] = t2y;
+            k[o + 7] = t2z;
+            k[o + 8] = t2top;
+            cacheMisses++;
+            return ~slot;
+        }
+
+        void CacheStore(int slot, boolean seen) {
+            cacheKeys[slot * KEY_INTS + 1] = epoch;
+            cacheSeen[slot] = seen;
+        }
     }
 
     /**
@@ -54,25 +120,21 @@ public interface ActionsSight extends ActionsSectors {
      */
     default boolean CheckSight(mobj_t t1, mobj_t t2) {
         final AbstractLevelLoader ll = levelLoader();
-        final Sight sight = contextRequire(KEY_SIGHT);
-        final Spawn spawn = contextRequire(KEY_SPAWN);
+        final Sight sight = sight();
+        final Spawn spawn = spawn();
 
         int s1;
         int s2;
         int pnum;
-        int bytenum;
-        int bitnum;
 
         // First check for trivial rejection.
         // Determine subsector entries in REJECT table.
         s1 = t1.subsector.sector.id; // (t1.subsector.sector - sectors);
         s2 = t2.subsector.sector.id;// - sectors);
         pnum = s1 * ll.numsectors + s2;
-        bytenum = pnum >> 3;
-        bitnum = 1 << (pnum & 7);
 
         // Check in REJECT table.
-        if (eval(ll.rejectmatrix[bytenum] & bitnum)) {
+        if (((ll.rejectbits[pnum >> 6] >>> pnum) & 1) != 0) {
             sight.sightcounts[0]++;
 
             // can't possibly be connected
@@ -83,9 +145,18 @@ public interface ActionsSight extends ActionsSectors {
         // Now look from eyes of t1 to any part of t2.
         sight.sightcounts[1]++;
 
+        sight.sightzstart = t1.z + t1.height - (t1.height >> 2);
+
+        int slot = 0;
+        if (sight.cacheEnabled) {
+            slot = sight.CacheSlot(DOOM().gametic, t1.x, t1.y, t2.x, t2.y, t2.z, t2.z + t2.height);
+            if (slot >= 0) {
+                return sight.cacheSeen[slot];
+            }
+        }
+
         sceneRenderer().increaseValidCount(1);
 
-        sight.sightzstart = t1.z + t1.height - (t1.height >> 2);
         spawn.topslope = (t2.z + t2.height) - sight.sightzstart;
         spawn.bottomslope = (t2.z) - sight.sightzstart;
 
@@ -97,7 +168,39 @@ public interface ActionsSight extends ActionsSectors {
         sight.strace.dy = t2.y - t1.y;
 
         // the head node is the last node output
-        return CrossBSPNode(ll.numnodes - 1);
+        final boolean seen = CrossBSPNode(ll.numnodes - 1);
+
+        if (sight.cacheEnabled) {
+            sight.CacheStore(~slot, seen);
+        }
+
+        return seen;
+    }
+
+    /**
+     * Some sector moved, so no sight check done so far can be trusted.
+     */
+    @Override
+    default void InvalidateSightCache() {
+        sight().epoch++;
+    }
+
+    /**
+     * Forgets all sight checks, and reports how many of them the cache
+     * saved, if it's on.
+     */
+    @Override
+    default void ResetSightCache() {
+        final Sight sight = sight();
+
+        if (sight.cacheEnabled && sight.cacheHits + sight.cacheMisses > 0) {
+            LOGGER.log(Level.INFO, String.format("P_CheckSight: %d of %d full checks cached (%.1f%%)",
+                sight.cacheHits, sight.cacheHits + sight.cacheMisses,
+                100.0 * sight.cacheHits / (sight.cacheHits + sight.cacheMisses)));
+        }
+
+        sight.cacheHits = sight.cacheMisses = 0;
+        sight.epoch++;
     }
 
     /**
@@ -107,8 +210,8 @@ public interface ActionsSight extends ActionsSectors {
     default boolean CrossSubsector(int num) {
         final SceneRenderer<?, ?> sr = sceneRenderer();
         final AbstractLevelLoader ll = levelLoader();
-        final Spawn spawn = contextRequire(KEY_SPAWN);
-        final Sight sight = contextRequire(KEY_SIGHT);
+        final Spawn spawn = spawn();
+        final Sight sight = sight();
 
         int seg; // pointer inside segs
         line_t line;
@@ -121,7 +224,7 @@ public interface ActionsSight extends ActionsSectors {
         @fixed_t
         int opentop;
         int openbottom;
-        divline_t divl = new divline_t();
+        final divline_t divl = sight.divl;
         //vertex_t v1;
         //vertex_t v2;
         @fixed_t
@@ -238,7 +341,7 @@ public interface ActionsSight extends ActionsSectors {
      */
     default boolean CrossBSPNode(int bspnum) {
         final AbstractLevelLoader ll = levelLoader();
-        final Sight sight = contextRequire(KEY_SIGHT);
+        final Sight sight = sight();
 
         node_t bsp;
         int side;
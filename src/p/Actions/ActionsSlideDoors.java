@@ -22,6 +22,10 @@ public interface ActionsSlideDoors extends ActionTrait {
 
     ContextKey<SlideDoors> KEY_SLIDEDOORS = ACTION_KEY_CHAIN.newKey(ActionsSlideDoors.class, SlideDoors::new);
 
+    default SlideDoors slideDoors() {
+        return contextRequire(KEY_SLIDEDOORS);
+    }
+
     void RemoveThinker(thinker_t t);
 
     // UNUSED
@@ -52,7 +56,7 @@ public interface ActionsSlideDoors extends ActionTrait {
 
     default void SlidingDoor(slidedoor_t door) {
         final AbstractLevelLoader ll = levelLoader();
-        final SlideDoors sd = contextRequire(KEY_SLIDEDOORS);
+        final SlideDoors sd = slideDoors();
         switch (door.status) {
             case sd_opening:
                 if (door.timer-- == 0) {
@@ -118,7 +122,7 @@ public interface ActionsSlideDoors extends ActionTrait {
 
     default void P_InitSlidingDoorFrames() {
         final TextureManager<?> tm = DOOM().textureManager;
-        final SlideDoors sd = contextRequire(KEY_SLIDEDOORS);
+        final SlideDoors sd = slideDoors();
 
         int i;
         int f1;
@@ -164,7 +168,7 @@ public interface ActionsSlideDoors extends ActionTrait {
     //
     default int P_FindSlidingDoorType(line_t line) {
         final AbstractLevelLoader ll = levelLoader();
-        final SlideDoors sd = contextRequire(KEY_SLIDEDOORS);
+        final SlideDoors sd = slideDoors();
 
         for (int i = 0; i < MAXSLIDEDOORS; i++) {
             int val = ll.sides[line.sidenum[0]].midtexture;
@@ -437,7 +437,7 @@ public interface ActionsSpawns extends ActionsSectors {
         }
 
         // don't make punches spark on the wall
-        if (contextTest(KEY_SPAWN, Spawn::isMeleeRange)) {
+        if (spawn().isMeleeRange()) {
             th.SetMobjState(statenum_t.S_PUFF3);
         }
     }
@@ -24,7 +24,6 @@ import static data.Tables.finesine;
 import data.mobjtype_t;
 import data.sounds;
 import doom.SourceCode.fixed_t;
-import doom.thinker_t;
 import static m.BBox.BOXBOTTOM;
 import static m.BBox.BOXLEFT;
 import static m.BBox.BOXRIGHT;
@@ -47,11 +46,8 @@ public interface ActionsTeleportation extends ActionsSectors {
     @Override
     default int Teleport(line_t line, int side, mobj_t thing) {
         int i;
-        int tag;
-        mobj_t m;
         mobj_t fog;
         int an;
-        thinker_t thinker;
         sector_t sector;
         @fixed_t
         int oldx, oldy, oldz;
@@ -67,61 +63,56 @@ public interface ActionsTeleportation extends ActionsSectors {
             return 0;
         }
 
-        tag = line.tag;
-        for (i = 0; i < levelLoader().numsectors; i++) {
-            if (levelLoader().sectors[i].tag == tag) {
-                //thinker = thinkercap.next;
-                for (thinker = getThinkerCap().next; thinker != getThinkerCap(); thinker = thinker.next) {
-                    // not a mobj
-                    if (thinker.thinkerFunction != ActiveStates.P_MobjThinker) {
-                        continue;
-                    }
-
-                    m = (mobj_t) thinker;
-
-                    // not a teleportman
-                    if (m.type != mobjtype_t.MT_TELEPORTMAN) {
-                        continue;
-                    }
-
-                    sector = m.subsector.sector;
-                    // wrong sector
-                    if (sector.id != i) {
-                        continue;
-                    }
-
-                    oldx = thing.x;
-                    oldy = thing.y;
-                    oldz = thing.z;
-
-                    if (!TeleportMove(thing, m.x, m.y)) {
-                        return 0;
-                    }
-
-                    thing.z = thing.floorz;  //fixme: not needed?
-                    if (thing.player != null) {
-                        thing.player.viewz = thing.z + thing.player.viewheight;
-                        thing.player.lookdir = 0; // Reset lookdir
-                    }
-
-                    // spawn teleport fog at source and destination
-                    fog = SpawnMobj(oldx, oldy, oldz, mobjtype_t.MT_TFOG);
-                    StartSound(fog, sounds.sfxenum_t.sfx_telept);
-                    an = Tables.toBAMIndex(m.angle);
-                    fog = SpawnMobj(m.x + 20 * finecosine[an], m.y + 20 * finesine[an], thing.z, mobjtype_t.MT_TFOG);
-
-                    // emit sound, where?
-                    StartSound(fog, sounds.sfxenum_t.sfx_telept);
-
-                    // don't move for a bit
-                    if (thing.player != null) {
-                        thing.reactiontime = 18;
-                    }
-
-                    thing.angle = m.angle;
-                    thing.momx = thing.momy = thing.momz = 0;
-                    return 1;
+        for (i = -1; (i = FindSectorFromLineTag(line, i)) >= 0;) {
+            //thinker = thinkercap.next;
+            for (mobj_t m : getThinkers(mobj_t.class)) {
+                // not a mobj
+                if (m.thinkerFunction != ActiveStates.P_MobjThinker) {
+                    continue;
                 }
+
+                // not a teleportman
+                if (m.type != mobjtype_t.MT_TELEPORTMAN) {
+                    continue;
+                }
+
+                sector = m.subsector.sector;
+                // wrong sector
+                if (sector.id != i) {
+                    continue;
+                }
+
+                oldx = thing.x;
+                oldy = thing.y;
+                oldz = thing.z;
+
+                if (!TeleportMove(thing, m.x, m.y)) {
+                    return 0;
+                }
+
+                thing.z = thing.floorz;  //fixme: not needed?
+                if (thing.player != null) {
+                    thing.player.viewz = thing.z + thing.player.viewheight;
+                    thing.player.lookdir = 0; // Reset lookdir
+                }
+
+                // spawn teleport fog at source and destination
+                fog = SpawnMobj(oldx, oldy, oldz, mobjtype_t.MT_TFOG);
+                StartSound(fog, sounds.sfxenum_t.sfx_telept);
+                an = Tables.toBAMIndex(m.angle);
+                fog = SpawnMobj(m.x + 20 * finecosine[an], m.y + 20 * finesine[an], thing.z, mobjtype_t.MT_TFOG);
+
+                // emit sound, where?
+                StartSound(fog, sounds.sfxenum_t.sfx_telept);
+
+                // don't move for a bit
+                if (thing.player != null) {
+                    thing.reactiontime = 18;
+                }
+
+                thing.angle = m.angle;
+                thing.momx = thing.momy = thing.momz = 0;
+                return 1;
             }
         }
         return 0;
@@ -134,9 +125,9 @@ public interface ActionsTeleportation extends ActionsSectors {
     // P_TeleportMove
     //
     default boolean TeleportMove(mobj_t thing, int x, /*fixed*/ int y) {
-        final Spechits spechits = contextRequire(KEY_SPECHITS);
+        final Spechits spechits = spechits();
         final AbstractLevelLoader ll = levelLoader();
-        final Movement ma = contextRequire(KEY_MOVEMENT);
+        final Movement ma = movement();
         int xl;
         int xh;
         int yl;
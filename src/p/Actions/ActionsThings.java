@@ -47,7 +47,7 @@ public interface ActionsThings extends ActionTrait {
     @Override
     @P_Map.C(PIT_CheckThing)
     default boolean CheckThing(mobj_t thing) {
-        final Movement movm = contextRequire(KEY_MOVEMENT);
+        final Movement movm = movement();
         @fixed_t
         int blockdist;
         boolean solid;
@@ -521,7 +521,7 @@ public interface ActionsThings extends ActionTrait {
     @Override
     @P_Map.C(PIT_StompThing)
     default boolean StompThing(mobj_t thing) {
-        final Movement mov = contextRequire(KEY_MOVEMENT);
+        final Movement mov = movement();
         @fixed_t
         int blockdist;
 
@@ -36,13 +36,13 @@ import static doom.SourceCode.P_Tick.P_RemoveThinker;
 import doom.thinker_t;
 import static m.fixed_t.FRACBITS;
 import p.AbstractLevelLoader;
+import p.ActionFunctions;
 import p.ActiveStates;
-import p.ActiveStates.MobjConsumer;
 import static p.ActiveStates.NOP;
-import p.ActiveStates.ThinkerConsumer;
 import static p.DoorDefines.FASTDARK;
 import static p.DoorDefines.SLOWDARK;
 import p.ThinkerList;
+import p.ThinkerSegments;
 import p.UnifiedGameMap;
 import p.mobj_t;
 import static p.mobj_t.MF_SPAWNCEILING;
@@ -88,6 +88,9 @@ public interface ActionsThinkers extends ActionsSectors, ThinkerList {
         if (W.CheckNumForName("texture2") >= 0)
         episode = 2;
          */
+        // New level, nothing seen yet
+        ResetSightCache();
+
         // See if -TIMER needs to be used.
         sp.levelTimer = false;
 
@@ -222,7 +225,7 @@ public interface ActionsThinkers extends ActionsSectors, ThinkerList {
      * P_RespawnSpecials
      */
     default void RespawnSpecials() {
-        final RespawnQueue resp = contextRequire(KEY_RESP_QUEUE);
+        final RespawnQueue resp = respawnQueue();
         int x, y, z; // fixed
 
         subsector_t ss;
@@ -288,24 +291,45 @@ public interface ActionsThinkers extends ActionsSectors, ThinkerList {
     // P_RunThinkers
     //
     default void RunThinkers() {
-        thinker_t thinker = getThinkerCap().next;
-        while (thinker != getThinkerCap()) {
-            if (thinker.thinkerFunction == ActiveStates.NOP) {
-                // time to remove it
-                thinker.next.prev = thinker.prev;
-                thinker.prev.next = thinker.next;
-                // Z_Free (currentthinker);
-            } else {
-                if (thinker.thinkerFunction.isParamType(MobjConsumer.class)) {
-                    thinker.thinkerFunction.fun(MobjConsumer.class).accept(DOOM().actions, (mobj_t) thinker);
-                } else if (thinker.thinkerFunction.isParamType(ThinkerConsumer.class)) {
-                    thinker.thinkerFunction.fun(ThinkerConsumer.class).accept(DOOM().actions, thinker);
+        final ActionFunctions actions = DOOM().actions;
+        final ThinkerSegments segments = getThinkerSegments();
+
+        if (segments != null) {
+            // Same thinkers in the same order as the list, including those
+            // added on the way.
+            segments.compact();
+            for (int i = 0; i < segments.size(); i++) {
+                final thinker_t thinker = segments.get(i);
+                if (thinker != null) {
+                    RunThinker(actions, thinker);
                 }
             }
+            return;
+        }
+
+        final thinker_t cap = getThinkerCap();
+        thinker_t thinker = cap.next;
+        while (thinker != cap) {
+            RunThinker(actions, thinker);
             thinker = thinker.next;
         }
     }
 
+    default void RunThinker(ActionFunctions actions, thinker_t thinker) {
+        final ActiveStates function = thinker.thinkerFunction;
+        if (function == ActiveStates.NOP) {
+            // time to remove it
+            UnlinkThinker(thinker);
+            // Z_Free (currentthinker);
+            if (thinker instanceof mobj_t) {
+                recycleMobj((mobj_t) thinker);
+            }
+        } else if (function != null) {
+            // null is a thinker in stasis, as with a NULL acp1
+            function.think(actions, thinker);
+        }
+    }
+
     //
     //P_Ticker
     //
@@ -327,6 +351,7 @@ public interface ActionsThinkers extends ActionsSectors, ThinkerList {
         }
 
         RunThinkers();
+        auditMobjPool();
         getSpecials().UpdateSpecials(); // In specials. Merge?
         RespawnSpecials();
 
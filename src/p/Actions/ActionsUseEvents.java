@@ -474,7 +474,7 @@ public interface ActionsUseEvents extends ActionTrait {
      * P_UseLines Looks for special lines in front of the player to activate.
      */
     default void UseLines(player_t player) {
-        final Spechits sp = contextRequire(KEY_SPECHITS);
+        final Spechits sp = spechits();
         int angle;
         int x1, y1, x2, y2;
         //System.out.println("Uselines");
@@ -496,8 +496,8 @@ public interface ActionsUseEvents extends ActionTrait {
     //
     @P_Map.C(PTR_UseTraverse)
     default boolean UseTraverse(intercept_t in) {
-        final Movement mov = contextRequire(KEY_MOVEMENT);
-        final Spechits sp = contextRequire(KEY_SPECHITS);
+        final Movement mov = movement();
+        final Spechits sp = spechits();
 
         boolean side;
         // FIXME: some sanity check here?
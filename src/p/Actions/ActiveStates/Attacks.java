@@ -31,7 +31,6 @@ import static doom.items.weaponinfo;
 import doom.player_t;
 import static doom.player_t.ps_flash;
 import static m.fixed_t.FRACUNIT;
-import static p.Actions.ActionsSectors.KEY_SPAWN;
 import p.Actions.ActionsSectors.Spawn;
 import p.mobj_t;
 import static p.mobj_t.MF_JUSTATTACKED;
@@ -87,7 +86,7 @@ public interface Attacks extends Monsters {
      * A_FireShotgun2
      */
     default void A_FireShotgun2(player_t player, pspdef_t psp) {
-        final Spawn sp = getEnemies().contextRequire(KEY_SPAWN);
+        final Spawn sp = getEnemies().spawn();
         long angle;
         int damage;
 
@@ -114,7 +113,7 @@ public interface Attacks extends Monsters {
     // A_Punch
     //
     default void A_Punch(player_t player, pspdef_t psp) {
-        final Spawn sp = contextRequire(KEY_SPAWN);
+        final Spawn sp = getEnemies().spawn();
         @angle_t long angle;
         int damage;
         int slope;
@@ -149,7 +148,7 @@ public interface Attacks extends Monsters {
     // A_Saw
     //
     default void A_Saw(player_t player, pspdef_t psp) {
-        final Spawn sp = contextRequire(KEY_SPAWN);
+        final Spawn sp = getEnemies().spawn();
         @angle_t long angle;
         int damage;
         int slope;
@@ -281,7 +280,7 @@ public interface Attacks extends Monsters {
     // Spawn a BFG explosion on every monster in view
     //
     default void A_BFGSpray(mobj_t mo) {
-        final Spawn sp = contextRequire(KEY_SPAWN);
+        final Spawn sp = getEnemies().spawn();
 
         int damage;
         long an; // angle_t
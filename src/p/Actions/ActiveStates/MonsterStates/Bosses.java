@@ -20,7 +20,6 @@ package p.Actions.ActiveStates.MonsterStates;
 import static data.Limits.MAXPLAYERS;
 import data.mobjtype_t;
 import doom.DoomMain;
-import doom.thinker_t;
 import p.Actions.ActionTrait;
 import p.ActiveStates;
 import p.floor_e;
@@ -42,8 +41,6 @@ public interface Bosses extends ActionTrait {
      */
     default void A_BossDeath(mobj_t mo) {
         final DoomMain<?, ?> D = DOOM();
-        thinker_t th;
-        mobj_t mo2;
         line_t junk = new line_t();
         int i;
 
@@ -129,12 +126,11 @@ public interface Bosses extends ActionTrait {
         }
         // scan the remaining thinkers to see
         // if all bosses are dead
-        for (th = getThinkerCap().next; th != getThinkerCap(); th = th.next) {
-            if (th.thinkerFunction != ActiveStates.P_MobjThinker) {
+        for (mobj_t mo2 : getThinkers(mobj_t.class)) {
+            if (mo2.thinkerFunction != ActiveStates.P_MobjThinker) {
                 continue;
             }
 
-            mo2 = (mobj_t) th;
             if (mo2 != mo
                 && mo2.type == mo.type
                 && mo2.health > 0) {
@@ -184,20 +180,17 @@ public interface Bosses extends ActionTrait {
     }
     
     default void A_KeenDie(mobj_t mo) {
-        thinker_t th;
-        mobj_t mo2;
         line_t junk = new line_t(); // MAES: fixed null 21/5/2011
 
         A_Fall(mo);
 
         // scan the remaining thinkers
         // to see if all Keens are dead
-        for (th = getThinkerCap().next; th != getThinkerCap(); th = th.next) {
-            if (th.thinkerFunction != ActiveStates.P_MobjThinker) {
+        for (mobj_t mo2 : getThinkers(mobj_t.class)) {
+            if (mo2.thinkerFunction != ActiveStates.P_MobjThinker) {
                 continue;
             }
 
-            mo2 = (mobj_t) th;
             if (mo2 != mo
                 && mo2.type == mo.type
                 && mo2.health > 0) {
@@ -22,7 +22,6 @@ import data.mobjtype_t;
 import data.sounds;
 import defines.skill_t;
 import defines.statenum_t;
-import doom.thinker_t;
 import static m.fixed_t.FRACUNIT;
 import p.Actions.ActiveStates.Sounds;
 import p.ActiveStates;
@@ -32,6 +31,10 @@ import utils.TraitFactory.ContextKey;
 public interface HorrendousVisages extends Sounds {
     ContextKey<Brain> KEY_BRAIN = ACTION_KEY_CHAIN.newKey(HorrendousVisages.class, Brain::new);
 
+    default Brain brain() {
+        return contextRequire(KEY_BRAIN);
+    }
+
     final class Brain {
         // Brain status
         mobj_t[] braintargets = new mobj_t[Limits.NUMBRAINTARGETS];
@@ -41,20 +44,17 @@ public interface HorrendousVisages extends Sounds {
     }
     
     default void A_BrainAwake(mobj_t mo) {
-        final Brain brain = contextRequire(KEY_BRAIN);
-        thinker_t thinker;
-        mobj_t m;
+        final Brain brain = brain();
 
         // find all the target spots
         brain.numbraintargets = 0;
         brain.braintargeton = 0;
 
         //thinker = obs.thinkercap.next;
-        for (thinker = getThinkerCap().next; thinker != getThinkerCap(); thinker = thinker.next) {
-            if (thinker.thinkerFunction != ActiveStates.P_MobjThinker) {
+        for (mobj_t m : getThinkers(mobj_t.class)) {
+            if (m.thinkerFunction != ActiveStates.P_MobjThinker) {
                 continue;   // not a mobj
             }
-            m = (mobj_t) thinker;
 
             if (m.type == mobjtype_t.MT_BOSSTARGET) {
                 brain.braintargets[brain.numbraintargets] = m;
@@ -113,7 +113,7 @@ public interface HorrendousVisages extends Sounds {
     }
 
     default void A_BrainSpit(mobj_t mo) {
-        final Brain brain = contextRequire(KEY_BRAIN);
+        final Brain brain = brain();
         mobj_t targ;
         mobj_t newmobj;
 
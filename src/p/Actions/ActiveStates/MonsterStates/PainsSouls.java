@@ -28,7 +28,6 @@ import static data.info.mobjinfo;
 import data.mobjtype_t;
 import doom.SourceCode.angle_t;
 import doom.SourceCode.fixed_t;
-import doom.thinker_t;
 import static m.fixed_t.FRACUNIT;
 import static m.fixed_t.FixedMul;
 import p.Actions.ActionTrait;
@@ -88,18 +87,15 @@ public interface PainsSouls extends ActionTrait {
         @angle_t int an;
         int prestep;
         int count;
-        thinker_t currentthinker;
 
         // count total number of skull currently on the level
         count = 0;
 
-        currentthinker = getThinkerCap().next;
-        while (currentthinker != getThinkerCap()) {
-            if ((currentthinker.thinkerFunction == ActiveStates.P_MobjThinker)
-                && ((mobj_t) currentthinker).type == mobjtype_t.MT_SKULL) {
+        for (mobj_t mo : getThinkers(mobj_t.class)) {
+            if ((mo.thinkerFunction == ActiveStates.P_MobjThinker)
+                && mo.type == mobjtype_t.MT_SKULL) {
                 count++;
             }
-            currentthinker = currentthinker.next;
         }
 
         // if there are allready 20 skulls on the level,
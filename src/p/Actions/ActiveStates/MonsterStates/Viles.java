@@ -31,7 +31,6 @@ import p.AbstractLevelLoader;
 import p.Actions.ActionTrait;
 import p.Actions.ActionsAttacks;
 import p.Actions.ActionsAttacks.Attacks;
-import static p.Actions.ActionsAttacks.KEY_ATTACKS;
 import static p.ChaseDirections.DI_NODIR;
 import static p.ChaseDirections.xspeed;
 import static p.ChaseDirections.yspeed;
@@ -48,7 +47,7 @@ public interface Viles extends ActionTrait {
     default void A_VileChase(mobj_t actor) {
         final AbstractLevelLoader ll = levelLoader();
         final ActionsAttacks actionsAttacks = getAttacks();
-        final Attacks att = actionsAttacks.contextRequire(KEY_ATTACKS);
+        final Attacks att = actionsAttacks.attacks();
         
         int xl;
         int xh;
@@ -176,10 +176,21 @@ public enum ActiveStates {
     
     private final ParamClass<?> actionFunction;
     private final Class<? extends ParamClass<?>> paramType;
+    /**
+     * What RunThinkers calls, resolved once: the function as a mobj or as a
+     * thinker function, whichever it is, else null. They're called directly
+     * rather than through a lambda binding the cast, which would only add
+     * another call through an interface to every thinker.
+     */
+    private final MobjConsumer mobjFunction;
+    private final ThinkerConsumer thinkerFunction;
 
     private <T extends ParamClass<?>> ActiveStates(final T actionFunction, final Class<T> paramType) {
         this.actionFunction = actionFunction;
         this.paramType = paramType;
+
+        this.mobjFunction = paramType == MobjConsumer.class ? (MobjConsumer) actionFunction : null;
+        this.thinkerFunction = paramType == ThinkerConsumer.class ? (ThinkerConsumer) actionFunction : null;
     }
     
     private static void nop(Object... o) {}
@@ -207,6 +218,19 @@ public enum ActiveStates {
     public boolean isParamType(final Class<?> paramType) {
         return this.paramType == paramType;
     }
+
+    /**
+     * Runs a thinker that has this as its function, whichever kind of
+     * function it is, without going through fun every time. Player sprite
+     * functions do nothing here, as they never did.
+     */
+    public void think(final ActionFunctions a, final thinker_t t) {
+        if (mobjFunction != null) {
+            mobjFunction.accept(a, (mobj_t) t);
+        } else if (thinkerFunction != null) {
+            thinkerFunction.accept(a, t);
+        }
+    }
     
     @SuppressWarnings("unchecked")
     public <T extends ParamClass<T>> T fun(final Class<T> paramType) {
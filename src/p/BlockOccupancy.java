@@ -0,0 +1,124 @@
+package p;
+
+import java.util.Arrays;
+
+/**
+ * How many things are linked into each block of the blockmap, kept alongside
+ * the blocklinks, with a bitmap of the occupied blocks both by rows and by
+ * columns. Loops over a box of blocks can then jump from one occupied block
+ * to the next, in either order, instead of looking at every block in the box.
+ *
+ * The bitmaps are read live, so a loop still gets to blocks that something
+ * it called spawned a thing into further on, same as walking every block.
+ * They may only claim too much, never too little: a block with a thing in it
+ * is always marked, and an unmarked block always has an empty chain.
+ */
+
+public final class BlockOccupancy {
+
+    private int width, height;
+    /** Linked things per block */
+    private int[] counts = new int[0];
+    /** Occupied blocks, a bit per block: rowwords longs per row, colwords longs per column */
+    private long[] rows = new long[0], cols = new long[0];
+    private int rowwords, colwords;
+
+    /** Forgets about all things, and sizes up for a blockmap that big */
+    public void reset(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rowwords = (width + 63) >> 6;
+        this.colwords = (height + 63) >> 6;
+
+        if (counts.length == width * height && rows.length == height * rowwords && cols.length == width * colwords) {
+            Arrays.fill(counts, 0);
+            Arrays.fill(rows, 0);
+            Arrays.fill(cols, 0);
+        } else {
+            counts = new int[width * height];
+            rows = new long[height * rowwords];
+            cols = new long[width * colwords];
+        }
+    }
+
+    /** A thing got linked into the block at that index */
+    public void link(int block) {
+        if (counts[block]++ == 0) {
+            final int x = block % width, y = block / width;
+            rows[y * rowwords + (x >> 6)] |= 1L << x;
+            cols[x * colwords + (y >> 6)] |= 1L << y;
+        }
+    }
+
+    /** A thing got unlinked from the block at that index */
+    public void unlink(int block) {
+        if (block >= counts.length || counts[block] == 0) {
+            return;
+        }
+
+        if (--counts[block] == 0) {
+            final int x = block % width, y = block / width;
+            rows[y * rowwords + (x >> 6)] &= ~(1L << x);
+            cols[x * colwords + (y >> 6)] &= ~(1L << y);
+        }
+    }
+
+    /** @return how many things are linked into that block */
+    public int count(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return 0;
+        }
+
+        return counts[y * width + x];
+    }
+
+    /**
+     * @return the first occupied block of row y, from x up to xh included,
+     * or xh + 1 if there is none. Blocks off the map count as empty.
+     */
+    public int nextInRow(int y, int x, int xh) {
+        if (y < 0 || y >= height) {
+            return xh + 1;
+        }
+
+        return next(rows, y * rowwords, x, Math.min(xh, width - 1), xh);
+    }
+
+    /**
+     * @return the first occupied block of column x, from y up to yh
+     * included, or yh + 1 if there is none. Blocks off the map count as empty.
+     */
+    public int nextInColumn(int x, int y, int yh) {
+        if (x < 0 || x >= width) {
+            return yh + 1;
+        }
+
+        return next(cols, x * colwords, y, Math.min(yh, height - 1), yh);
+    }
+
+    private static int next(long[] bits, int base, int from, int to, int end) {
+        if (from < 0) {
+            from = 0;
+        }
+
+        if (from > to) {
+            return end + 1;
+        }
+
+        int word = from >> 6;
+        long w = bits[base + word] & (-1L << from);
+
+        while (true) {
+            if (w != 0) {
+                final int found = (word << 6) + Long.numberOfTrailingZeros(w);
+                return found <= to ? found : end + 1;
+            }
+
+            if (++word > to >> 6) {
+                return end + 1;
+            }
+
+            w = bits[base + word];
+        }
+    }
+}
@@ -30,16 +30,25 @@ import doom.SourceCode.CauseOfDesyncProbability;
 import doom.SourceCode.P_Setup;
 import static doom.SourceCode.P_Setup.P_LoadThings;
 import static doom.SourceCode.P_Setup.P_SetupLevel;
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
 import m.BBox;
+import m.Settings;
 import static m.BBox.*;
 import m.fixed_t;
 import static m.fixed_t.FRACBITS;
 import static m.fixed_t.FRACUNIT;
+import mochadoom.Loggers;
 import rr.RendererState;
 import rr.line_t;
 import static rr.line_t.ML_TWOSIDED;
@@ -89,9 +98,86 @@ import w.wadfile_info_t;
 
 public class BoomLevelLoader extends AbstractLevelLoader {
 
+    private static final Logger LOGGER = Loggers.getLogger(BoomLevelLoader.class.getName());
+
     public BoomLevelLoader(DoomMain<?,?> DM) {
         super(DM);
-        // TODO Auto-generated constructor stub
+        final int threads = DM.CM.getValue(Settings.parallelism_level_load, Integer.class);
+        this.loadPool = threads > 1 ? new ForkJoinPool(threads) : null;
+        this.rejectBuilder = DM.CM.equals(Settings.reject_builder, Boolean.TRUE);
+        this.rejectCache = DM.CM.getValue(Settings.reject_builder_cache, String.class).trim();
+    }
+
+    /** Runs the map lump stages that don't depend on each other, null if serial */
+    private final ForkJoinPool loadPool;
+
+    /** Whether to build a REJECT for maps without one, and where to keep them, if anywhere */
+    private final boolean rejectBuilder;
+    private final String rejectCache;
+
+    /** How long each stage of the last SetupLevel took */
+    private final LevelLoadTimings loadTimings = new LevelLoadTimings();
+
+    public LevelLoadTimings getLoadTimings() {
+        return loadTimings;
+    }
+
+    /** A stage of SetupLevel */
+    private interface LoadStage {
+        void load() throws IOException;
+    }
+
+    private void timed(int stage, LoadStage work) throws IOException {
+        final long start = System.nanoTime();
+        work.load();
+        loadTimings.add(stage, System.nanoTime() - start);
+    }
+
+    /**
+     * Starts a stage on the loader pool, or runs it right away when loading
+     * serially. Stages started together must not touch each other's data.
+     *
+     * @return what to pass to joinStages
+     */
+    private Future<?> forkStage(int stage, LoadStage work) throws IOException {
+        if (loadPool == null) {
+            timed(stage, work);
+            return null;
+        }
+
+        return loadPool.submit(() -> {
+            timed(stage, work);
+            return null;
+        });
+    }
+
+    /**
+     * Waits for forked stages, in the order given, so that if more than one
+     * fails, it's always the same failure that gets reported.
+     */
+    private void joinStages(Future<?>... stages) throws IOException {
+        for (Future<?> stage : stages) {
+            if (stage == null) {
+                continue;
+            }
+
+            try {
+                stage.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("P_SetupLevel: interrupted while loading");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
     }
 
     // OpenGL related.
@@ -1067,8 +1153,7 @@ public class BoomLevelLoader extends AbstractLevelLoader {
         int numNodes;
         vertex_t[] newvertarray = null;
 
-        data = DOOM.wadLoader.CacheLumpNumAsDoomBuffer(lump).getBuffer();
-        data.order(ByteOrder.LITTLE_ENDIAN);
+        data = DOOM.wadLoader.ReadLumpBuffer(lump);
         len = DOOM.wadLoader.LumpLength(lump);
 
         // skip header
@@ -1585,13 +1670,11 @@ public class BoomLevelLoader extends AbstractLevelLoader {
             // cph - final*, wad lump handling updated
             final char[] wadblockmaplump;
 
-            DoomBuffer data = DOOM.wadLoader.CacheLumpNum(lump, PU_LEVEL, DoomBuffer.class);
+            final ByteBuffer data = DOOM.wadLoader.ReadLumpBuffer(lump);
             count = DOOM.wadLoader.LumpLength(lump) / 2;
             wadblockmaplump = new char[count];
 
-            data.setOrder(ByteOrder.LITTLE_ENDIAN);
-            data.rewind();
-            data.readCharArray(wadblockmaplump, count);
+            DoomBuffer.readCharArray(data, wadblockmaplump, count);
 
             if (!samelevel) // Reallocate if required.
                 blockmaplump = new int[count];
@@ -1649,6 +1732,7 @@ public class BoomLevelLoader extends AbstractLevelLoader {
         } else {
             blocklinks = new mobj_t[bmapwidth * bmapheight];
         }
+        blockoccupancy.reset(bmapwidth, bmapheight);
 
         // IMPORTANT MODIFICATION: no need to have both blockmaplump AND
         // blockmap.
@@ -1697,12 +1781,39 @@ public class BoomLevelLoader extends AbstractLevelLoader {
         }
         rejectlump = lumpnum + ML_REJECT;
         rejectmatrix = DOOM.wadLoader.CacheLumpNumAsRawBytes(rejectlump, 0);
+        PackReject();
 
         // e6y: check for overflow
         // TODO: g.Overflow.RejectOverrun(rejectlump, rejectmatrix,
         // totallines,numsectors);
     }
 
+    /**
+     * Replaces an empty REJECT with one built from the map geometry, or with
+     * the one saved the last time the very same map was built.
+     */
+    private void P_BuildReject(int lumpnum) {
+        final CRC32 crc = new CRC32();
+        for (int lump : new int[] {ML_VERTEXES, ML_LINEDEFS, ML_SIDEDEFS, ML_SECTORS, ML_SEGS, ML_SSECTORS}) {
+            crc.update(DOOM.wadLoader.ReadLumpBuffer(lumpnum + lump));
+        }
+
+        final long key = crc.getValue();
+        final File saved = rejectCache.isEmpty() ? null
+            : new File(rejectCache, String.format("%08x-%d.rej", key, numsectors));
+
+        byte[] reject = (saved != null) ? RejectBuilder.load(saved, numsectors, key) : null;
+        if (reject == null) {
+            reject = new RejectBuilder(this).build(loadPool != null);
+            if (saved != null) {
+                RejectBuilder.save(saved, numsectors, key, reject);
+            }
+        }
+
+        rejectmatrix = reject;
+        PackReject();
+    }
+
     //
     // P_GroupLines
     // Builds sector line lists and subsector sector numbers.
@@ -2003,6 +2114,9 @@ public class BoomLevelLoader extends AbstractLevelLoader {
         String gl_lumpname;
         int gl_lumpnum;
 
+        final long setupStart = System.nanoTime();
+        loadTimings.clear();
+
         // e6y
         DOOM.totallive = 0;
         // TODO: transparentpresent = false;
@@ -2026,7 +2140,9 @@ public class BoomLevelLoader extends AbstractLevelLoader {
             DOOM.doomSound.Start();
         }
 
-        Z_FreeTags:; // Z_FreeTags(PU_LEVEL, PU_PURGELEVEL-1);
+        Z_FreeTags: {
+            DOOM.wadLoader.FreeTags(PU_LEVEL, PU_PURGELEVEL - 1);
+        }
         
         if (rejectlump != -1) { // cph - unlock the reject table
             DOOM.wadLoader.UnlockLumpNum(rejectlump);
@@ -2110,63 +2226,100 @@ public class BoomLevelLoader extends AbstractLevelLoader {
             // free(vertexes);
         }
 
-        if (nodesVersion > 0) {
-            this.P_LoadVertexes2(lumpnum + ML_VERTEXES, gl_lumpnum + ML_GL_VERTS);
-        } else {
-            P_LoadVertexes(lumpnum + ML_VERTEXES);
-        }
-        
-        P_LoadSectors(lumpnum + ML_SECTORS);
-        P_LoadSideDefs(lumpnum + ML_SIDEDEFS);
-        P_LoadLineDefs(lumpnum + ML_LINEDEFS);
-        P_LoadSideDefs2(lumpnum + ML_SIDEDEFS);
-        P_LoadLineDefs2(lumpnum + ML_LINEDEFS);
+        // Vertexes, sectors and the sidedef count only need their own lumps.
+        final int maplump = lumpnum, gllump = gl_lumpnum;
+        final Future<?> vertexesStage = forkStage(LevelLoadTimings.VERTEXES, () -> {
+            if (nodesVersion > 0) {
+                this.P_LoadVertexes2(maplump + ML_VERTEXES, gllump + ML_GL_VERTS);
+            } else {
+                P_LoadVertexes(maplump + ML_VERTEXES);
+            }
+        });
+        final Future<?> sectorsStage = forkStage(LevelLoadTimings.SECTORS, () -> P_LoadSectors(maplump + ML_SECTORS));
+        timed(LevelLoadTimings.SIDEDEFS, () -> P_LoadSideDefs(maplump + ML_SIDEDEFS));
+        joinStages(vertexesStage, sectorsStage);
+
+        // The REJECT only needs the sector count.
+        final Future<?> rejectStage = forkStage(LevelLoadTimings.REJECT, () -> super.LoadReject(maplump + ML_REJECT));
+
+        // Linedefs and sidedefs refer to each other, in this order.
+        timed(LevelLoadTimings.LINEDEFS, () -> {
+            P_LoadLineDefs(maplump + ML_LINEDEFS);
+            P_LoadSideDefs2(maplump + ML_SIDEDEFS);
+            P_LoadLineDefs2(maplump + ML_LINEDEFS);
+        });
 
         // e6y: speedup of level reloading
         // Do not reload BlockMap for same level,
         // because in case of big level P_CreateBlockMap eats much time
-        if (!samelevel) {
-            P_LoadBlockMap(lumpnum + ML_BLOCKMAP);
-        } else {
-            // clear out mobj chains
-            if (blocklinks != null && blocklinks.length == bmapwidth * bmapheight) {
-                for (int i = 0; i < bmapwidth * bmapheight; i++) {
-                    blocklinks[i] = null;
-                }
+        final Future<?> blockmapStage = forkStage(LevelLoadTimings.BLOCKMAP, () -> {
+            if (!samelevel) {
+                P_LoadBlockMap(maplump + ML_BLOCKMAP);
             } else {
-                blocklinks = new mobj_t[bmapwidth * bmapheight];
-                Arrays.setAll(blocklinks, i -> mobj_t.createOn(DOOM));
+                // clear out mobj chains
+                if (blocklinks != null && blocklinks.length == bmapwidth * bmapheight) {
+                    for (int i = 0; i < bmapwidth * bmapheight; i++) {
+                        blocklinks[i] = null;
+                    }
+                } else {
+                    blocklinks = new mobj_t[bmapwidth * bmapheight];
+                    Arrays.setAll(blocklinks, i -> mobj_t.createOn(DOOM));
+                }
+                blockoccupancy.reset(bmapwidth, bmapheight);
             }
+        });
+
+        // ZDoom nodes may add vertexes and re-point the linedefs to them,
+        // which the blockmap builder must not see halfway. Besides, it used
+        // to run before the nodes were loaded, so it never saw them at all.
+        final boolean znodes = nodesVersion <= 0 && P_CheckForZDoomUncompressedNodes(lumpnum, gl_lumpnum);
+        if (znodes) {
+            joinStages(blockmapStage);
         }
 
-        if (nodesVersion > 0) {
-            P_LoadSubsectors(gl_lumpnum + ML_GL_SSECT);
-            P_LoadNodes(gl_lumpnum + ML_GL_NODES);
-            // TODO: P_LoadGLSegs(gl_lumpnum + ML_GL_SEGS);
-        } else {
-            if (P_CheckForZDoomUncompressedNodes(lumpnum, gl_lumpnum)) {
-                P_LoadZNodes(lumpnum + ML_NODES, 0);
-            } else if (P_CheckForDeePBSPv4Nodes(lumpnum, gl_lumpnum)) {
-                P_LoadSubsectors_V4(lumpnum + ML_SSECTORS);
-                P_LoadNodes_V4(lumpnum + ML_NODES);
-                P_LoadSegs_V4(lumpnum + ML_SEGS);
+        timed(LevelLoadTimings.NODES, () -> {
+            if (nodesVersion > 0) {
+                P_LoadSubsectors(gllump + ML_GL_SSECT);
+                P_LoadNodes(gllump + ML_GL_NODES);
+                // TODO: P_LoadGLSegs(gl_lumpnum + ML_GL_SEGS);
             } else {
-                P_LoadSubsectors(lumpnum + ML_SSECTORS);
-                P_LoadNodes(lumpnum + ML_NODES);
-                P_LoadSegs(lumpnum + ML_SEGS);
+                if (znodes) {
+                    P_LoadZNodes(maplump + ML_NODES, 0);
+                } else if (P_CheckForDeePBSPv4Nodes(maplump, gllump)) {
+                    P_LoadSubsectors_V4(maplump + ML_SSECTORS);
+                    P_LoadNodes_V4(maplump + ML_NODES);
+                    P_LoadSegs_V4(maplump + ML_SEGS);
+                } else {
+                    P_LoadSubsectors(maplump + ML_SSECTORS);
+                    P_LoadNodes(maplump + ML_NODES);
+                    P_LoadSegs(maplump + ML_SEGS);
+                }
             }
-        }
+        });
 
         /*
          * if (GL_DOOM){ map_subsectors = calloc_IfSameLevel(map_subsectors,
          * numsubsectors); }
          */
 
+        // Everything from here on needs the whole map.
+        joinStages(blockmapStage, rejectStage);
+
         // reject loading and underflow padding separated out into new function
         // P_GroupLines modified to return a number the underflow padding needs
         // P_LoadReject(lumpnum, P_GroupLines());
-        P_GroupLines();
-        super.LoadReject(lumpnum+ML_REJECT);
+        timed(LevelLoadTimings.GROUPLINES, () -> {
+            P_GroupLines();
+            // killough 1/30/98: sector and linedef tag chains, for the specials
+            InitTagLists();
+            InitSoundGraph();
+        });
+
+        // A map without a REJECT gets one built while its things are spawned,
+        // none of which looks at it.
+        final Future<?> rejectBuild = (rejectBuilder && emptyreject && numsectors <= RejectBuilder.MAXSECTORS)
+            ? forkStage(LevelLoadTimings.REJECT, () -> P_BuildReject(maplump))
+            : null;
 
         /**
          * TODO: try to fix, since it seems it doesn't work
@@ -2200,9 +2353,11 @@ public class BoomLevelLoader extends AbstractLevelLoader {
 
         // Hmm? P_MapStart();
 
+        final long thingsStart = System.nanoTime();
         P_LoadThings: {
             P_LoadThings(lumpnum + ML_THINGS);
         }
+        loadTimings.add(LevelLoadTimings.THINGS, System.nanoTime() - thingsStart);
 
         // if deathmatch, randomly spawn the active players
         if (DOOM.deathmatch) {
@@ -2234,14 +2389,17 @@ public class BoomLevelLoader extends AbstractLevelLoader {
         DOOM.actions.ClearRespawnQueue();
 
         // set up world state
+        final long specialsStart = System.nanoTime();
         P_SpawnSpecials: {
             DOOM.actions.SpawnSpecials();
         }
+        loadTimings.add(LevelLoadTimings.SPECIALS, System.nanoTime() - specialsStart);
 
         // TODO: P.MapEnd();
 
         // preload graphics
         if (DOOM.precache) {
+            final long precacheStart = System.nanoTime();
             /* @SourceCode.Compatible if together */
             R_PrecacheLevel: {
                 DOOM.textureManager.PrecacheLevel();
@@ -2250,8 +2408,14 @@ public class BoomLevelLoader extends AbstractLevelLoader {
                 // sprite management as well?
                 DOOM.sceneRenderer.PreCacheThinkers();
             }
+            loadTimings.add(LevelLoadTimings.PRECACHE, System.nanoTime() - precacheStart);
         }
 
+        joinStages(rejectBuild);
+
+        loadTimings.add(LevelLoadTimings.TOTAL, System.nanoTime() - setupStart);
+        LOGGER.log(Level.INFO, String.format("P_SetupLevel %s: %s", lumpname, loadTimings));
+
         /*
          * if (GL_DOOM){ if (V_GetMode() == VID_MODEGL) { // e6y // Do not
          * preprocess GL data during skipping, // because it potentially will
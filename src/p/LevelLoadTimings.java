@@ -0,0 +1,50 @@
+package p;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How long each stage of the last SetupLevel took, in nanoseconds.
+ *
+ * Stages that run concurrently are each timed on their own thread, so the
+ * stages may well add up to more than the TOTAL, which is the wall time of
+ * the whole level setup.
+ */
+
+public final class LevelLoadTimings {
+
+    public static final int VERTEXES = 0, SECTORS = 1, SIDEDEFS = 2, LINEDEFS = 3, BLOCKMAP = 4, NODES = 5,
+        REJECT = 6, GROUPLINES = 7, THINGS = 8, SPECIALS = 9, PRECACHE = 10, TOTAL = 11;
+    public static final String[] NAMES = {"vertexes", "sectors", "sidedefs", "linedefs", "blockmap", "nodes",
+        "reject", "grouplines", "things", "specials", "precache", "total"};
+
+    private final long[] stages = new long[NAMES.length];
+
+    /** Forgets about the previous level */
+    public void clear() {
+        Arrays.fill(stages, 0);
+    }
+
+    /** Charges time to a stage. Each stage must only be charged by one thread at a time. */
+    public void add(int stage, long nanos) {
+        stages[stage] += nanos;
+    }
+
+    public long get(int stage) {
+        return stages[stage];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(NAMES[i]).append(' ').append(String.format(Locale.ROOT, "%.2f", stages[i] / 1e6)).append(" ms");
+        }
+
+        return sb.toString();
+    }
+}
@@ -341,6 +341,7 @@ public class LevelLoader extends AbstractLevelLoader {
             mld = data[i];
             ld = lines[i];
 
+            ld.id = i;
             ld.flags = mld.flags;
             ld.special = mld.special;
             ld.tag = mld.tag;
@@ -538,6 +539,7 @@ public class LevelLoader extends AbstractLevelLoader {
         } else {
             blocklinks = new mobj_t[count];
         }
+        blockoccupancy.reset(bmapwidth, bmapheight);
 
         // Bye bye. Not needed.
         blockmap = blockmaplump;
@@ -688,7 +690,7 @@ public class LevelLoader extends AbstractLevelLoader {
       else
   #endif
              */
-            //  Z_FreeTags (PU_LEVEL, PU_PURGELEVEL-1);
+            DOOM.wadLoader.FreeTags(PU_LEVEL, PU_PURGELEVEL - 1);
             // UNUSED W_Profile ();
             DOOM.actions.InitThinkers();
 
@@ -734,6 +736,8 @@ public class LevelLoader extends AbstractLevelLoader {
             this.LoadReject(lumpnum + ML_REJECT);
 
             this.GroupLines();
+            this.InitTagLists();
+            this.InitSoundGraph();
 
             DOOM.bodyqueslot = 0;
             // Reset to "deathmatch starts"
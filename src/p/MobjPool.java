@@ -0,0 +1,123 @@
+package p;
+
+import doom.DoomMain;
+import doom.player_t;
+import doom.thinker_t;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import mochadoom.Loggers;
+import rr.sector_t;
+
+/**
+ * Mobjs removed for good, kept around to be handed out again by createMobj
+ * instead of allocating new ones, up to a fixed number of them. Puffs,
+ * blood and missiles come and go by the hundreds in a firefight, and
+ * otherwise all end up as garbage within a second.
+ *
+ * A recycled mobj is only as good as nothing pointing at it anymore: vanilla
+ * leaves dangling pointers around to freed mobjs, and whatever still points
+ * at one here will see it come back as something else. In poison mode, mobjs
+ * are wrecked as soon as they are given back, so that touching one blows up
+ * rather than quietly reading a stale one, and every tic all live mobjs,
+ * players and sectors get checked for pointers to pooled mobjs, which are
+ * reported.
+ *
+ * Mobjs are handed out first in, first out, so they stay pooled as long as
+ * they can.
+ */
+
+public final class MobjPool {
+
+    private static final Logger LOGGER = Loggers.getLogger(MobjPool.class.getName());
+    /** Dangling pointers reported before shutting up about them */
+    private static final int MAX_REPORTS = 32;
+
+    private final mobj_t[] free;
+    private final boolean poison;
+    private int head, count;
+    private int reports;
+
+    public MobjPool(int capacity, boolean poison) {
+        this.free = new mobj_t[capacity];
+        this.poison = poison;
+    }
+
+    /**
+     * @return a pooled mobj, as good as new, or null if there's none
+     */
+    public mobj_t take() {
+        if (count == 0) {
+            return null;
+        }
+
+        final mobj_t mobj = free[head];
+        free[head] = null;
+        head = (head + 1) % free.length;
+        count--;
+
+        mobj.reset();
+        return mobj;
+    }
+
+    /**
+     * Takes a mobj that was just unlinked from the thinkers for good. Its
+     * thinker links are left alone, since whoever unlinked it may still be
+     * about to follow them.
+     */
+    public void give(mobj_t mobj) {
+        if (count == free.length || mobj.pooled) {
+            return;
+        }
+
+        if (poison) {
+            mobj.poison();
+        }
+
+        mobj.pooled = true;
+        free[(head + count++) % free.length] = mobj;
+    }
+
+    public boolean isPoisoning() {
+        return poison;
+    }
+
+    /**
+     * Looks for pointers to pooled mobjs, from live mobjs, players and
+     * sectors, and reports them.
+     */
+    public void audit(DoomMain<?, ?> DOOM) {
+        if (reports >= MAX_REPORTS) {
+            return;
+        }
+
+        final thinker_t cap = DOOM.actions.getThinkerCap();
+        for (thinker_t th = cap.next; th != cap; th = th.next) {
+            if (th instanceof mobj_t) {
+                final mobj_t mo = (mobj_t) th;
+                check(mo.target, mo, "target");
+                check(mo.tracer, mo, "tracer");
+            }
+        }
+
+        for (player_t player : DOOM.players) {
+            check(player.mo, player, "mo");
+            check(player.attacker, player, "attacker");
+        }
+
+        if (DOOM.levelLoader.sectors != null) {
+            for (int i = 0; i < DOOM.levelLoader.numsectors; i++) {
+                final sector_t sec = DOOM.levelLoader.sectors[i];
+                check(sec.soundtarget, sec, "soundtarget");
+            }
+        }
+    }
+
+    private void check(mobj_t pointer, Object holder, String field) {
+        if (pointer == null || !pointer.pooled || reports >= MAX_REPORTS) {
+            return;
+        }
+
+        LOGGER.log(Level.WARNING, String.format("%s.%s points at recycled mobj %s%s", holder, field,
+            System.identityHashCode(pointer), ++reports == MAX_REPORTS ? ", not reporting any more" : ""));
+    }
+}
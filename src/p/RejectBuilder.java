@@ -0,0 +1,373 @@
+package p;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.stream.IntStream;
+import mochadoom.Loggers;
+import rr.line_t;
+import rr.seg_t;
+import rr.subsector_t;
+import w.CacheFile;
+
+/**
+ * Builds a REJECT table out of the map geometry, for maps that ship an empty
+ * or zeroed one, and would otherwise have every single sight check go all
+ * the way down the BSP.
+ *
+ * It's a conservative, 2D potentially visible set. Sectors are the cells, and
+ * two sided linedefs between different sectors are the portals. A sector only
+ * gets rejected from another if no straight line can get from one to the
+ * other through a chain of portals, which is worked out by clipping each
+ * portal in the chain to what can be seen through the ones before it.
+ *
+ * Anything that could only let more through is ignored: heights, since doors
+ * and lifts move, and whatever blocks sight inside a sector, as if every
+ * sector were convex. Sectors whose borders can't be trusted, that is, with
+ * self referencing or zero length linedefs, or segs disagreeing with their
+ * subsector about the sector, see and are seen by everything. So does a
+ * sector whose flood takes too long.
+ *
+ * Built tables can be saved to and loaded back from a small file, through
+ * CacheFile. Anything unexpected in it is simply treated as a miss.
+ */
+
+final class RejectBuilder {
+
+    /** "MDRJ" */
+    private static final int MAGIC = 0x4D44524A;
+    private static final int VERSION = 1;
+    /** Biggest map worth building a table for, the table grows with the square of it */
+    static final int MAXSECTORS = 8192;
+    /** Portals a single sector may flood through before it just sees everything */
+    private static final int BUDGET = 1 << 16;
+    /** Longest chain of portals followed, ditto */
+    private static final int MAXDEPTH = 256;
+    /** In map units. Points this close to a clipping line count as on it, and are kept. */
+    private static final double EPSILON = 1.0 / 16;
+
+    private final int numsectors;
+    /** Portal endpoints, in map units, as {x1, y1, x2, y2}, same direction as the linedef */
+    private final double[][] portals;
+    /** Front and back sector of each portal */
+    private final int[] front, back;
+    /** Per sector, the portals out of it */
+    private final int[][] sectorportals;
+    /** Sectors that see and are seen by everything */
+    private final boolean[] unsafe;
+
+    RejectBuilder(AbstractLevelLoader ll) {
+        this.numsectors = ll.numsectors;
+        this.unsafe = new boolean[numsectors];
+
+        final boolean[] lined = new boolean[numsectors];
+        final int[] counts = new int[numsectors];
+        final int[] portallines = new int[ll.numlines];
+        int numportals = 0;
+
+        for (int i = 0; i < ll.numlines; i++) {
+            final line_t l = ll.lines[i];
+
+            if (l.frontsector != null) {
+                lined[l.frontsector.id] = true;
+            }
+
+            if (l.backsector != null) {
+                lined[l.backsector.id] = true;
+            }
+
+            if (l.frontsector == null || l.backsector == null) {
+                continue;
+            }
+
+            if (l.frontsector == l.backsector || (l.v1x == l.v2x && l.v1y == l.v2y)) {
+                unsafe[l.frontsector.id] = unsafe[l.backsector.id] = true;
+                continue;
+            }
+
+            counts[l.frontsector.id]++;
+            counts[l.backsector.id]++;
+            portallines[numportals++] = i;
+        }
+
+        for (int i = 0; i < ll.numsubsectors; i++) {
+            final subsector_t ss = ll.subsectors[i];
+
+            for (int j = 0; j < ss.numlines; j++) {
+                final seg_t seg = ll.segs[ss.firstline + j];
+
+                if (seg.frontsector != ss.sector) {
+                    unsafe[ss.sector.id] = true;
+                    if (seg.frontsector != null) {
+                        unsafe[seg.frontsector.id] = true;
+                    }
+                }
+            }
+        }
+
+        this.portals = new double[numportals][];
+        this.front = new int[numportals];
+        this.back = new int[numportals];
+        this.sectorportals = new int[numsectors][];
+
+        for (int i = 0; i < numsectors; i++) {
+            unsafe[i] |= !lined[i];
+            sectorportals[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+
+        for (int p = 0; p < numportals; p++) {
+            final line_t l = ll.lines[portallines[p]];
+
+            portals[p] = new double[] {l.v1x / 65536.0, l.v1y / 65536.0, l.v2x / 65536.0, l.v2y / 65536.0};
+            front[p] = l.frontsector.id;
+            back[p] = l.backsector.id;
+            sectorportals[front[p]][counts[front[p]]++] = p;
+            sectorportals[back[p]][counts[back[p]]++] = p;
+        }
+    }
+
+    /**
+     * Builds the table, in the same layout as the REJECT lump.
+     *
+     * @param parallel flood sectors on the pool this is running on, or the common one
+     */
+    byte[] build(boolean parallel) {
+        final long[][] rows = new long[numsectors][];
+        final IntStream sources = IntStream.range(0, numsectors);
+        (parallel ? sources.parallel() : sources).forEach(s -> rows[s] = flood(s));
+
+        // Whatever either end might see, both may
+        final byte[] reject = new byte[(int) Math.ceil((numsectors * numsectors) / 8.0)];
+        int rejected = 0;
+
+        for (int i = 0; i < numsectors; i++) {
+            for (int j = 0; j < numsectors; j++) {
+                if (!isSet(rows[i], j) && !isSet(rows[j], i)) {
+                    final int pnum = i * numsectors + j;
+                    reject[pnum >> 3] |= 1 << (pnum & 7);
+                    rejected++;
+                }
+            }
+        }
+
+        Loggers.getLogger(RejectBuilder.class.getName()).log(Level.INFO, String.format(
+            "Built REJECT for %d sectors, %d portals: %d of %d pairs rejected",
+            numsectors, portals.length, rejected, numsectors * numsectors));
+
+        return reject;
+    }
+
+    /**
+     * Scratch state of a single source sector's flood.
+     */
+    private final class Flood {
+        final long[] seen = new long[(numsectors + 63) >> 6];
+        final boolean[] onstack = new boolean[numsectors];
+        int steps;
+    }
+
+    /**
+     * @return bit set of the sectors that the given one might see
+     */
+    private long[] flood(int source) {
+        final Flood f = new Flood();
+        set(f.seen, source);
+
+        boolean complete = !unsafe[source];
+        f.onstack[source] = true;
+
+        for (int i = 0; complete && i < sectorportals[source].length; i++) {
+            final int p = sectorportals[source][i];
+            final int next = (front[p] == source) ? back[p] : front[p];
+            set(f.seen, next);
+
+            // Any line through the first portal at all is fine
+            f.onstack[next] = true;
+            complete = flow(f, next, p, portals[p], portals[p], 1);
+            f.onstack[next] = false;
+        }
+
+        if (!complete) {
+            Arrays.fill(f.seen, -1L);
+        }
+
+        for (int i = 0; i < numsectors; i++) {
+            if (unsafe[i]) {
+                set(f.seen, i);
+            }
+        }
+
+        return f.seen;
+    }
+
+    /**
+     * Follows sight into the portals out of a sector.
+     *
+     * @param sector the sector sight just got into
+     * @param pass the portal it got in through
+     * @param source what's left of the first portal of the chain
+     * @param window what's left of the pass portal
+     * @return false if the flood ran out of budget
+     */
+    private boolean flow(Flood f, int sector, int pass, double[] source, double[] window, int depth) {
+        if (++f.steps > BUDGET || depth > MAXDEPTH) {
+            return false;
+        }
+
+        for (int p : sectorportals[sector]) {
+            final int next = (front[p] == sector) ? back[p] : front[p];
+            if (p == pass || f.onstack[next]) {
+                continue;
+            }
+
+            // Having crossed the pass portal, sight stays on this side of it...
+            final double[] pp = portals[pass];
+            double[] target = clip(portals[p], pp[0], pp[1], pp[2], pp[3], (back[pass] == sector) ? 1 : -1);
+
+            // ...and between the lines that separate the source from the pass portal.
+            target = clipToSeparators(source, window, target);
+            if (target == null) {
+                continue;
+            }
+
+            set(f.seen, next);
+
+            // Only the part of the source that sees the target through the pass portal goes on
+            final double[] narrowed = clipToSeparators(target, window, source);
+            if (narrowed == null) {
+                continue;
+            }
+
+            f.onstack[next] = true;
+            final boolean complete = flow(f, next, p, narrowed, target, depth + 1);
+            f.onstack[next] = false;
+
+            if (!complete) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Clips the target to where lines through both the source and the pass
+     * segments may get to. Each line through an end of the source and an end
+     * of the pass, with the source wholly on one side and the pass on the
+     * other, leaves all such lines on the pass side once past it.
+     *
+     * @return what's left of the target, or null if nothing
+     */
+    private static double[] clipToSeparators(double[] source, double[] pass, double[] target) {
+        for (int i = 0; i < 4 && target != null; i += 2) {
+            for (int j = 0; j < 4 && target != null; j += 2) {
+                final double ax = source[i], ay = source[i + 1], bx = pass[j], by = pass[j + 1];
+                if (Math.hypot(bx - ax, by - ay) < EPSILON) {
+                    continue;
+                }
+
+                final double ds = side(ax, ay, bx, by, source[2 - i], source[3 - i]);
+                final double dp = side(ax, ay, bx, by, pass[2 - j], pass[3 - j]);
+
+                if (ds > EPSILON && dp < -EPSILON) {
+                    target = clip(target, ax, ay, bx, by, -1);
+                } else if (ds < -EPSILON && dp > EPSILON) {
+                    target = clip(target, ax, ay, bx, by, 1);
+                }
+            }
+        }
+
+        return target;
+    }
+
+    /**
+     * Clips a segment to one side of the line through a and b.
+     *
+     * @param sign 1 to keep the left side, -1 for the right one
+     * @return what's left of it, or null if nothing
+     */
+    private static double[] clip(double[] seg, double ax, double ay, double bx, double by, int sign) {
+        final double d1 = sign * side(ax, ay, bx, by, seg[0], seg[1]);
+        final double d2 = sign * side(ax, ay, bx, by, seg[2], seg[3]);
+
+        if (d1 >= -EPSILON && d2 >= -EPSILON) {
+            return seg;
+        } else if (d1 < -EPSILON && d2 < -EPSILON) {
+            return null;
+        }
+
+        // Cut where it's EPSILON out, keeping a bit more rather than less
+        final double t = (d1 + EPSILON) / (d1 - d2);
+        final double x = seg[0] + t * (seg[2] - seg[0]), y = seg[1] + t * (seg[3] - seg[1]);
+
+        return (d1 >= -EPSILON) ? new double[] {seg[0], seg[1], x, y} : new double[] {x, y, seg[2], seg[3]};
+    }
+
+    /**
+     * Distance of (x, y) from the line through a and b, positive on its left,
+     * that is, the back side of a linedef going from a to b.
+     */
+    private static double side(double ax, double ay, double bx, double by, double x, double y) {
+        final double dx = bx - ax, dy = by - ay;
+        return (dx * (y - ay) - dy * (x - ax)) / Math.hypot(dx, dy);
+    }
+
+    private static void set(long[] bits, int n) {
+        bits[n >> 6] |= 1L << n;
+    }
+
+    private static boolean isSet(long[] bits, int n) {
+        return (bits[n >> 6] & (1L << n)) != 0;
+    }
+
+    /**
+     * @param file where a table was saved
+     * @param numsectors of the map it should be for
+     * @param key of the map it should be for
+     * @return the saved table, or null on a miss
+     */
+    static byte[] load(File file, int numsectors, long key) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            final ByteBuffer buf = CacheFile.read(file);
+            final byte[] reject = new byte[(int) Math.ceil((numsectors * numsectors) / 8.0)];
+
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION || buf.getInt() != numsectors
+                || buf.getLong() != key || buf.getInt() != reject.length) {
+                return null;
+            }
+
+            buf.get(reject);
+            return reject;
+        } catch (IOException | RuntimeException e) {
+            Loggers.getLogger(RejectBuilder.class.getName()).log(Level.WARNING, String.format(
+                "Ignoring unreadable saved REJECT %s", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a built table. Failing to do so is not fatal.
+     */
+    static void save(File file, int numsectors, long key, byte[] reject) {
+        try {
+            CacheFile.write(file, dos -> {
+                dos.writeInt(MAGIC);
+                dos.writeInt(VERSION);
+                dos.writeInt(numsectors);
+                dos.writeLong(key);
+                dos.writeInt(reject.length);
+                dos.write(reject);
+            });
+        } catch (IOException e) {
+            Loggers.getLogger(RejectBuilder.class.getName()).log(Level.WARNING, String.format(
+                "Could not save built REJECT %s", file), e);
+        }
+    }
+}
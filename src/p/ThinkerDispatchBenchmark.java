@@ -0,0 +1,336 @@
+package p;
+
+import doom.thinker_t;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Locale;
+import p.ActiveStates.MobjConsumer;
+import p.ActiveStates.PlayerSpriteConsumer;
+import p.ActiveStates.ThinkerConsumer;
+
+/**
+ * Microbenchmark of how RunThinkers gets from a thinker to its function: the
+ * isParamType and fun cascade it went through for every thinker on every
+ * tic, against calling the functions each ActiveStates entry resolves once
+ * (bound), and against a ThinkerConsumer lambda binding the cast in instead
+ * (wrapped), which is one more call through an interface per thinker.
+ *
+ * Real action functions need a whole game to run, so the functions here are
+ * stand-ins that only touch their thinker, held by entries made the same way
+ * as those of ActiveStates: a parameter type, the function, and the bound
+ * consumers. A synthetic thinker list, linked like the real one, has mostly
+ * mobjs with a handful of different functions, then some sector thinkers, as
+ * in a busy map. All ways walk the same list, and must leave every thinker
+ * the same as the cascade does, or the benchmark fails.
+ *
+ * Each case is warmed up, then timed over several rounds like the kernels of
+ * rr.drawfuns.DrawFunsBenchmark, reporting the median and best time per
+ * thinker.
+ *
+ * Like with p.Actions.ActionContextBenchmark, each way is best run on its
+ * own, so that the JIT doesn't see the others' receivers.
+ *
+ * Run as: java p.ThinkerDispatchBenchmark [-quick] [cascade|bound|wrapped]
+ */
+
+public class ThinkerDispatchBenchmark {
+
+    /** Thinkers per list, from a plain map to a nuts.wad kind of one */
+    private static final int[] THINKERS = {1_000, 10_000, 100_000};
+    /** Sector thinkers, one in that many */
+    private static final int SECTORS = 5;
+    private static final int ROUNDS = 5;
+    private static final String[] NAMES = {"cascade", "bound", "wrapped"};
+
+    /** Keeps the JIT from deciding that nobody looks at the thinkers */
+    public static volatile long sink;
+
+    private final long warmupNanos;
+    private final long roundNanos;
+
+    public ThinkerDispatchBenchmark(boolean quick) {
+        this.warmupNanos = quick ? 50_000_000L : 500_000_000L;
+        this.roundNanos = quick ? 20_000_000L : 200_000_000L;
+    }
+
+    /**
+     * Stands for an ActiveStates entry, and is made and dispatched the same
+     * way.
+     */
+    static final class Function {
+        private final Object actionFunction;
+        private final Class<?> paramType;
+        private final MobjConsumer mobjFunction;
+        private final ThinkerConsumer thinkerFunction;
+        private final ThinkerConsumer wrapped;
+
+        Function(MobjConsumer function) {
+            this.actionFunction = function;
+            this.paramType = MobjConsumer.class;
+            this.mobjFunction = function;
+            this.thinkerFunction = null;
+            this.wrapped = (a, t) -> function.accept(a, (mobj_t) t);
+        }
+
+        Function(ThinkerConsumer function) {
+            this.actionFunction = function;
+            this.paramType = ThinkerConsumer.class;
+            this.mobjFunction = null;
+            this.thinkerFunction = function;
+            this.wrapped = function;
+        }
+
+        Function(PlayerSpriteConsumer function) {
+            this.actionFunction = function;
+            this.paramType = PlayerSpriteConsumer.class;
+            this.mobjFunction = null;
+            this.thinkerFunction = null;
+            this.wrapped = (a, t) -> {};
+        }
+
+        boolean isParamType(final Class<?> paramType) {
+            return this.paramType == paramType;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T fun(final Class<T> paramType) {
+            if (this.paramType != paramType) {
+                return null;
+            }
+
+            return (T) this.actionFunction;
+        }
+
+        void think(final ActionFunctions a, final thinker_t t) {
+            if (mobjFunction != null) {
+                mobjFunction.accept(a, (mobj_t) t);
+            } else if (thinkerFunction != null) {
+                thinkerFunction.accept(a, t);
+            }
+        }
+
+        void thinkWrapped(final ActionFunctions a, final thinker_t t) {
+            wrapped.accept(a, t);
+        }
+    }
+
+    /** Mobj functions, like A_Chase or P_MobjThinker would, only much cheaper */
+    private static final Function[] MOBJ = {
+        new Function((MobjConsumer) (a, m) -> m.x += m.momx),
+        new Function((MobjConsumer) (a, m) -> m.y += m.momy),
+        new Function((MobjConsumer) (a, m) -> m.z += m.momz),
+        new Function((MobjConsumer) (a, m) -> m.mobj_tics--),
+        new Function((MobjConsumer) (a, m) -> m.movecount++),
+        new Function((MobjConsumer) (a, m) -> m.reactiontime--)
+    };
+
+    /** Sector functions, like T_MoveFloor or T_LightFlash */
+    private static final Function[] SECTOR = {
+        new Function((ThinkerConsumer) (a, t) -> t.functionid++),
+        new Function((ThinkerConsumer) (a, t) -> t.functionid--)
+    };
+
+    /** The thinker list, with its functions, which live on the side here */
+    static final class Thinkers {
+        final thinker_t cap = new thinker_t();
+        final thinker_t[] all;
+        final Function[] functions;
+
+        Thinkers(int count) {
+            all = new thinker_t[count];
+            functions = new Function[count];
+            cap.next = cap.prev = cap;
+
+            int seed = 0x1234567 + count;
+            for (int i = 0; i < count; i++) {
+                seed = seed * 1103515245 + 12345;
+                final int r = seed >>> 8;
+                final thinker_t t;
+
+                if (r % SECTORS == 0) {
+                    t = new thinker_t();
+                    functions[i] = SECTOR[(r / SECTORS) % SECTOR.length];
+                } else {
+                    final mobj_t mo = mobj();
+                    mo.momx = mo.momy = mo.momz = r & 0xFFFF;
+                    t = mo;
+                    functions[i] = MOBJ[(r / SECTORS) % MOBJ.length];
+                }
+
+                t.id = i;
+                t.prev = cap.prev;
+                t.next = cap;
+                cap.prev.next = t;
+                cap.prev = t;
+                all[i] = t;
+            }
+        }
+
+        /** Everything the functions change, to check both ways against each other */
+        long state() {
+            long state = 0;
+            for (thinker_t t : all) {
+                state = state * 31 + t.functionid;
+                if (t instanceof mobj_t) {
+                    final mobj_t mo = (mobj_t) t;
+                    state = state * 31 + mo.x + mo.y + mo.z + mo.mobj_tics + mo.movecount + mo.reactiontime;
+                }
+            }
+
+            return state;
+        }
+    }
+
+    /** Outside a game, a mobj can only be had like that */
+    private static mobj_t mobj() {
+        try {
+            final Constructor<mobj_t> constructor = mobj_t.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** A tic of RunThinkers, as it used to be */
+    static void cascade(Thinkers thinkers) {
+        final Function[] functions = thinkers.functions;
+        final thinker_t cap = thinkers.cap;
+
+        for (thinker_t thinker = cap.next; thinker != cap; thinker = thinker.next) {
+            final Function function = functions[thinker.id];
+            if (function.isParamType(MobjConsumer.class)) {
+                function.fun(MobjConsumer.class).accept(null, (mobj_t) thinker);
+            } else if (function.isParamType(ThinkerConsumer.class)) {
+                function.fun(ThinkerConsumer.class).accept(null, thinker);
+            }
+        }
+    }
+
+    /** A tic of RunThinkers, as it is now */
+    static void bound(Thinkers thinkers) {
+        final Function[] functions = thinkers.functions;
+        final thinker_t cap = thinkers.cap;
+
+        for (thinker_t thinker = cap.next; thinker != cap; thinker = thinker.next) {
+            functions[thinker.id].think(null, thinker);
+        }
+    }
+
+    /** A tic of RunThinkers, with the cast bound into a lambda */
+    static void wrapped(Thinkers thinkers) {
+        final Function[] functions = thinkers.functions;
+        final thinker_t cap = thinkers.cap;
+
+        for (thinker_t thinker = cap.next; thinker != cap; thinker = thinker.next) {
+            functions[thinker.id].thinkWrapped(null, thinker);
+        }
+    }
+
+    public static final class Result {
+        public final String name;
+        public final int thinkers;
+        /** Nanoseconds per thinker, median and best of the rounds */
+        public final double median, best;
+
+        Result(String name, int thinkers, double median, double best) {
+            this.name = name;
+            this.thinkers = thinkers;
+            this.median = median;
+            this.best = best;
+        }
+    }
+
+    public Result run(String name, int way, int count) {
+        final Thinkers thinkers = new Thinkers(count);
+
+        for (long start = System.nanoTime(); System.nanoTime() - start < warmupNanos;) {
+            tic(thinkers, way);
+        }
+
+        final double[] rounds = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long tics = 0, elapsed;
+            final long start = System.nanoTime();
+
+            do {
+                tic(thinkers, way);
+                tics++;
+            } while ((elapsed = System.nanoTime() - start) < roundNanos);
+
+            rounds[r] = (double) elapsed / (tics * count);
+        }
+
+        sink += thinkers.state();
+        Arrays.sort(rounds);
+        return new Result(name, count, rounds[ROUNDS / 2], rounds[0]);
+    }
+
+    /** @param way index in NAMES */
+    private static void tic(Thinkers thinkers, int way) {
+        switch (way) {
+            case 0:
+                cascade(thinkers);
+                break;
+            case 1:
+                bound(thinkers);
+                break;
+            default:
+                wrapped(thinkers);
+                break;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if a way doesn't leave the thinkers the same as the cascade
+     */
+    static void check(int count) {
+        final Thinkers cascaded = new Thinkers(count);
+        for (int i = 0; i < 3; i++) {
+            cascade(cascaded);
+        }
+
+        for (int way = 1; way < NAMES.length; way++) {
+            final Thinkers thinkers = new Thinkers(count);
+            for (int i = 0; i < 3; i++) {
+                tic(thinkers, way);
+            }
+
+            if (thinkers.state() != cascaded.state()) {
+                throw new IllegalStateException(String.format("%d thinkers: %s functions did something else", count, NAMES[way]));
+            }
+        }
+    }
+
+    public static void main(String[] argv) {
+        boolean quick = false;
+        String filter = null;
+
+        for (String arg : argv) {
+            if (arg.equalsIgnoreCase("-quick")) {
+                quick = true;
+            } else {
+                filter = arg;
+            }
+        }
+
+        for (int count : THINKERS) {
+            check(count);
+        }
+
+        final ThinkerDispatchBenchmark bench = new ThinkerDispatchBenchmark(quick);
+
+        System.out.printf("%-8s %9s %14s %14s\n", "dispatch", "thinkers", "ns/thinker med", "ns/thinker best");
+
+        for (int i = 0; i < NAMES.length; i++) {
+            if (filter != null && !NAMES[i].startsWith(filter)) {
+                continue;
+            }
+
+            for (int count : THINKERS) {
+                final Result r = bench.run(NAMES[i], i, count);
+                System.out.printf(Locale.ROOT, "%-8s %9d %14.3f %14.3f\n", r.name, r.thinkers, r.median, r.best);
+            }
+        }
+    }
+}
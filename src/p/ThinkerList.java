@@ -15,4 +15,21 @@ public interface ThinkerList {
     
     thinker_t getRandomThinker();
     thinker_t getThinkerCap();
+
+    /**
+     * Thinkers of exactly that class, in list order, as walking the list
+     * from the cap would find them: including those removed, but not yet
+     * unlinked by RunThinkers.
+     */
+    <T extends thinker_t> Iterable<T> getThinkers(Class<T> type);
+
+    /**
+     * Unlinks a thinker from the list, for good.
+     */
+    void UnlinkThinker(thinker_t thinker);
+
+    /**
+     * @return the array backed copy of the list, or null if there's none
+     */
+    ThinkerSegments getThinkerSegments();
 }
@@ -0,0 +1,193 @@
+package p;
+
+import doom.thinker_t;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The thinkers list again, in chunked arrays instead of links: once whole,
+ * and once per class of thinker, all in list order, so that running them or
+ * looking for one kind of thinker goes through arrays rather than chasing
+ * next pointers all over the heap.
+ *
+ * It must be told about every thinker that gets linked in or unlinked from
+ * the list, and then holds exactly the same thinkers in the same order.
+ * Unlinked thinkers leave a null behind, so that anyone walking a run can
+ * keep going, and the nulls are squeezed out by compact, when no one is.
+ */
+
+public final class ThinkerSegments {
+
+    private static final int CHUNK_SHIFT = 10, CHUNK_SIZE = 1 << CHUNK_SHIFT, CHUNK_MASK = CHUNK_SIZE - 1;
+    /** Don't bother compacting a run for fewer dead slots than that */
+    private static final int MIN_DEAD = 256;
+
+    /**
+     * Thinkers in list order, with null for the unlinked ones. Chunks never
+     * move, so growing doesn't copy any thinkers around.
+     */
+    private static final class Run {
+
+        thinker_t[][] chunks = new thinker_t[1][];
+        int size;
+        int dead;
+
+        int add(thinker_t thinker) {
+            final int chunk = size >> CHUNK_SHIFT;
+
+            if (chunk == chunks.length) {
+                final thinker_t[][] grown = new thinker_t[chunks.length * 2][];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                chunks = grown;
+            }
+
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new thinker_t[CHUNK_SIZE];
+            }
+
+            chunks[chunk][size & CHUNK_MASK] = thinker;
+            return size++;
+        }
+
+        thinker_t get(int slot) {
+            return chunks[slot >> CHUNK_SHIFT][slot & CHUNK_MASK];
+        }
+
+        void kill(int slot) {
+            chunks[slot >> CHUNK_SHIFT][slot & CHUNK_MASK] = null;
+            dead++;
+        }
+
+        boolean wantsCompacting() {
+            return dead >= MIN_DEAD && dead * 2 >= size;
+        }
+
+        void clear() {
+            for (thinker_t[] chunk : chunks) {
+                if (chunk != null) {
+                    Arrays.fill(chunk, null);
+                }
+            }
+
+            size = dead = 0;
+        }
+    }
+
+    private final Run all = new Run();
+    private final Map<Class<?>, Run> byClass = new IdentityHashMap<>();
+
+    /** A thinker got linked in at the end of the list */
+    public void add(thinker_t thinker) {
+        thinker.allslot = all.add(thinker);
+        thinker.classslot = byClass.computeIfAbsent(thinker.getClass(), c -> new Run()).add(thinker);
+    }
+
+    /** A thinker got unlinked from the list */
+    public void remove(thinker_t thinker) {
+        if (thinker.allslot < 0 || thinker.allslot >= all.size || all.get(thinker.allslot) != thinker) {
+            return;
+        }
+
+        all.kill(thinker.allslot);
+        byClass.get(thinker.getClass()).kill(thinker.classslot);
+        thinker.allslot = thinker.classslot = -1;
+    }
+
+    /** The whole list got emptied */
+    public void clear() {
+        all.clear();
+        byClass.values().forEach(Run::clear);
+    }
+
+    /**
+     * Slots of the whole list, to be walked up to size, which grows as
+     * thinkers are added while walking.
+     */
+    public int size() {
+        return all.size;
+    }
+
+    /** @return the thinker in that slot, or null if it was unlinked */
+    public thinker_t get(int slot) {
+        return all.get(slot);
+    }
+
+    /**
+     * Squeezes the unlinked thinkers out of any run where they make up more
+     * than half of it. Slots change, so no one may be walking any run.
+     */
+    public void compact() {
+        if (all.wantsCompacting()) {
+            int to = 0;
+            for (int from = 0; from < all.size; from++) {
+                final thinker_t thinker = all.get(from);
+                if (thinker != null) {
+                    all.chunks[to >> CHUNK_SHIFT][to & CHUNK_MASK] = thinker;
+                    thinker.allslot = to++;
+                }
+            }
+
+            truncate(all, to);
+        }
+
+        for (Run run : byClass.values()) {
+            if (!run.wantsCompacting()) {
+                continue;
+            }
+
+            int to = 0;
+            for (int from = 0; from < run.size; from++) {
+                final thinker_t thinker = run.get(from);
+                if (thinker != null) {
+                    run.chunks[to >> CHUNK_SHIFT][to & CHUNK_MASK] = thinker;
+                    thinker.classslot = to++;
+                }
+            }
+
+            truncate(run, to);
+        }
+    }
+
+    private static void truncate(Run run, int size) {
+        for (int i = size; i < run.size; i++) {
+            run.chunks[i >> CHUNK_SHIFT][i & CHUNK_MASK] = null;
+        }
+
+        run.size = size;
+        run.dead = 0;
+    }
+
+    /**
+     * Thinkers of exactly that class, in list order. Thinkers added while
+     * walking it are walked too, unlinked ones are skipped.
+     */
+    public <T extends thinker_t> Iterable<T> of(Class<T> type) {
+        final Run run = byClass.computeIfAbsent(type, c -> new Run());
+
+        return () -> new Iterator<T>() {
+            private int slot;
+
+            @Override
+            public boolean hasNext() {
+                while (slot < run.size && run.get(slot) == null) {
+                    slot++;
+                }
+
+                return slot < run.size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return (T) run.get(slot++);
+            }
+        };
+    }
+}
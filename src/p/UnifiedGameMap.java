@@ -13,6 +13,8 @@ import doom.SourceCode.P_Tick;
 import static doom.SourceCode.P_Tick.*;
 import doom.thinker_t;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import m.Settings;
@@ -40,6 +42,9 @@ public abstract class UnifiedGameMap implements ThinkerList {
         this.SW = new Switches();
         this.SPECS = new Specials();
         this.thinkercap = new thinker_t();
+        this.thinkerSegments = Engine.getConfig().equals(Settings.thinker_segments, Boolean.TRUE)
+            ? new ThinkerSegments()
+            : null;
         /*for (int i=0; i<th_class.NUMTHCLASS; i++) { // killough 8/29/98: initialize threaded lists
             thinkerclasscap[i]=new thinker_t();
         }*/
@@ -563,6 +568,9 @@ public abstract class UnifiedGameMap implements ThinkerList {
     /** Both the head and the tail of the thinkers list */
     public thinker_t thinkercap;
 
+    /** The same list, in arrays, if so configured */
+    private final ThinkerSegments thinkerSegments;
+
     /**
      * killough's code for thinkers seems to be totally broken in M.D,
      * so commented it out and will not probably restore, but may invent
@@ -597,6 +605,10 @@ public abstract class UnifiedGameMap implements ThinkerList {
 
         thinkercap.next = thinkercap;
         thinkercap.prev = thinkercap;
+
+        if (thinkerSegments != null) {
+            thinkerSegments.clear();
+        }
     }
 
     /**
@@ -634,6 +646,10 @@ public abstract class UnifiedGameMap implements ThinkerList {
         thinker.next = thinkercap;
         thinker.prev = thinkercap.prev;
         thinkercap.prev = thinker;
+
+        if (thinkerSegments != null) {
+            thinkerSegments.add(thinker);
+        }
         
         // killough 8/29/98: set sentinel pointers, and then add to appropriate list
         /*thinker.cnext = thinker.cprev = null;
@@ -674,6 +690,59 @@ public abstract class UnifiedGameMap implements ThinkerList {
     public thinker_t getThinkerCap() {
         return thinkercap;
     }
+
+    @Override
+    public void UnlinkThinker(thinker_t thinker) {
+        thinker.next.prev = thinker.prev;
+        thinker.prev.next = thinker.next;
+
+        if (thinkerSegments != null) {
+            thinkerSegments.remove(thinker);
+        }
+    }
+
+    @Override
+    public ThinkerSegments getThinkerSegments() {
+        return thinkerSegments;
+    }
+
+    @Override
+    public <T extends thinker_t> Iterable<T> getThinkers(Class<T> type) {
+        if (thinkerSegments != null) {
+            return thinkerSegments.of(type);
+        }
+
+        // Walk the list, skipping other classes. Only look past the last
+        // thinker returned when asked, as it may add thinkers after itself.
+        return () -> new Iterator<T>() {
+            private thinker_t last = thinkercap;
+            private thinker_t ahead;
+
+            @Override
+            public boolean hasNext() {
+                if (ahead == null) {
+                    ahead = last.next;
+                    while (ahead != thinkercap && ahead.getClass() != type) {
+                        ahead = ahead.next;
+                    }
+                }
+
+                return ahead != thinkercap;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                last = ahead;
+                ahead = null;
+                return (T) last;
+            }
+        };
+    }
     
     /**
      * killough 11/98:
@@ -132,9 +132,17 @@ public class mobj_t extends thinker_t implements ISoundOrigin, Interceptable,
 	/** might be ORed with FF_FULLBRIGHT */
 	public int mobj_frame;
 
+	/** Where it was before the tic prevtic, to draw it part of the way between tics */
+	@fixed_t public int prevx, prevy, prevz;
+	public long prevangle;
+	public int prevtic = -1;
+
 	/** Interaction info, by BLOCKMAP. Links in blocks (if needed). */
 	public thinker_t bnext, bprev;
 
+	/** Index of the block it's linked into, -1 if it isn't, for the BlockOccupancy */
+	public int blocknum = -1;
+
 	/** MAES: was actually a pointer to a struct subsector_s */
 	public subsector_t subsector;
 
@@ -422,6 +430,71 @@ public class mobj_t extends thinker_t implements ISoundOrigin, Interceptable,
 	/** Unique thing id, used during sync debugging */
     public int thingnum;
 
+	/** Given back to the MobjPool, and not to be touched until handed out again */
+	public boolean pooled;
+
+	/**
+	 * Back to how a new one is, fields and all, for MobjPool to hand it out
+	 * again.
+	 */
+	public void reset() {
+		prev = next = null;
+		thinkerFunction = null;
+		id = previd = nextid = functionid = 0;
+		allslot = classslot = -1;
+
+		x = y = z = 0;
+		snext = sprev = null;
+		angle = 0;
+		mobj_sprite = null;
+		mobj_frame = 0;
+		prevx = prevy = prevz = 0;
+		prevangle = 0;
+		prevtic = -1;
+		bnext = bprev = null;
+		blocknum = -1;
+		subsector = null;
+		floorz = ceilingz = 0;
+		radius = height = 0;
+		momx = momy = momz = 0;
+		validcount = 0;
+		type = null;
+		info = null;
+		mobj_tics = 0;
+		mobj_state = null;
+		flags = 0;
+		health = 0;
+		movedir = movecount = 0;
+		target = null;
+		p_target = 0;
+		reactiontime = 0;
+		threshold = 0;
+		player = null;
+		lastlook = 0;
+		spawnpoint.x = spawnpoint.y = spawnpoint.angle = spawnpoint.type = spawnpoint.options = 0;
+		tracer = null;
+		eflags = 0;
+		stateid = playerid = p_tracer = 0;
+		thingnum = 0;
+		pooled = false;
+	}
+
+	/**
+	 * Wrecks a pooled mobj, so that anything still using it fails loudly.
+	 * Thinker links are left alone for RunThinkers to follow.
+	 */
+	public void poison() {
+		x = y = z = Integer.MIN_VALUE;
+		snext = sprev = bnext = bprev = null;
+		subsector = null;
+		type = null;
+		info = null;
+		mobj_state = null;
+		health = Integer.MIN_VALUE;
+		target = tracer = null;
+		player = null;
+	}
+
 	public void clear() {
 		fastclear.rewind();
 		try {
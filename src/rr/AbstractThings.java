@@ -321,7 +321,7 @@ public abstract class AbstractThings<T,V> implements IMaskedDrawer<T,V> {
         x1 = (view.centerxfrac + FixedMul(tx, pspritescale)) >> FRACBITS;
 
         // off the right side
-        if (x1 > view.width)
+        if (x1 > view.stripx2 + 1)
             return;
 
         tx += spritewidth[lump];
@@ -329,7 +329,7 @@ public abstract class AbstractThings<T,V> implements IMaskedDrawer<T,V> {
             ((view.centerxfrac + FixedMul(tx, pspritescale)) >> FRACBITS) - 1;
 
         // off the left side
-        if (x2 < 0)
+        if (x2 < view.stripx1)
             return;
 
         // store information in a vissprite ?
@@ -338,8 +338,8 @@ public abstract class AbstractThings<T,V> implements IMaskedDrawer<T,V> {
         vis.texturemid =
             ((BASEYCENTER + view.lookdir) << FRACBITS) + FRACUNIT / 2
                     - (psp.sy - spritetopoffset[lump]);
-        vis.x1 = x1 < 0 ? 0 : x1;
-        vis.x2 = x2 >= view.width ? view.width - 1 : x2;
+        vis.x1 = x1 < view.stripx1 ? view.stripx1 : x1;
+        vis.x2 = x2 > view.stripx2 ? view.stripx2 : x2;
         vis.scale = (pspritescale) << view.detailshift;
 
         if (flip) {
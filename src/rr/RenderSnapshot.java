@@ -0,0 +1,264 @@
+package rr;
+
+import doom.DoomMain;
+import doom.player_t;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import static data.Tables.BITS32;
+import static m.fixed_t.FRACUNIT;
+import static m.fixed_t.FixedMul;
+import p.AbstractLevelLoader;
+import p.mobj_t;
+
+/**
+ * What a frame shows of the game, copied out of it once the tics are run, so
+ * that the frame may be drawn while the game runs the next tic: the sectors
+ * with their heights, lights, flats and things, the sidedefs with their
+ * textures and offsets, and the player looking at it all.
+ *
+ * The renderer walks segs and subsectors of the snapshot instead of those of
+ * the level. They're copies made once per level, pointing at the copies of
+ * the sectors and sidedefs rather than at the real ones, so all it reaches
+ * from them is the snapshot. Things are copies too, linked into the sectors
+ * they were in, with only what sprites are drawn from. Lines, vertexes and
+ * nodes don't change during a level, and are the level's own.
+ *
+ * Texture and flat animations are left to the texture manager, which keeps
+ * what the renderer sees apart from what the game animates.
+ *
+ * Frames may also be drawn in between tics, with the view, things and planes
+ * part of the way from where they were before the last tic to where they are
+ * now, for which beginTic has to be told of each tic before it runs.
+ */
+
+public final class RenderSnapshot {
+
+    private final DoomMain<?, ?> DOOM;
+
+    /** The level's segs, with sectors and sidedefs of the snapshot */
+    public seg_t[] segs = new seg_t[0];
+    /** The level's subsectors, with sectors of the snapshot */
+    public subsector_t[] subsectors = new subsector_t[0];
+    /** The view, as the player was */
+    public final player_t player;
+
+    private sector_t[] sectors = new sector_t[0];
+    private side_t[] sides = new side_t[0];
+    /** Things, in no order, handed out again each capture */
+    private mobj_t[] things = new mobj_t[0];
+    /** The subsector the player is in, with the snapshot's copy of its sector */
+    private final subsector_t viewsubsector = new subsector_t();
+    /** Segs of the level the copies were made of */
+    private seg_t[] levelsegs;
+
+    /** Anything moving further than that in one tic went there at once, like teleporting, and isn't drawn in between */
+    private static final int MAXMOVE = 128 * FRACUNIT;
+
+    public RenderSnapshot(DoomMain<?, ?> DOOM) {
+        this.DOOM = DOOM;
+        this.player = new player_t(DOOM);
+        this.player.mo.subsector = viewsubsector;
+    }
+
+    /** The level changed, or got loaded again: copy it all anew at the next capture */
+    public void invalidate() {
+        levelsegs = null;
+    }
+
+    /**
+     * Remembers where things and planes are before the tic about to run, for
+     * frames to be drawn part of the way from there.
+     */
+    public void beginTic() {
+        final int tic = DOOM.gametic;
+
+        for (mobj_t mo : DOOM.actions.getThinkers(mobj_t.class)) {
+            mo.prevx = mo.x;
+            mo.prevy = mo.y;
+            mo.prevz = mo.z;
+            mo.prevangle = mo.angle;
+            mo.prevtic = tic;
+        }
+
+        final AbstractLevelLoader level = DOOM.levelLoader;
+        for (int i = 0; i < level.numsectors; i++) {
+            final sector_t sec = level.sectors[i];
+            sec.prevfloorheight = sec.floorheight;
+            sec.prevceilingheight = sec.ceilingheight;
+            sec.prevtic = tic;
+        }
+
+        for (player_t player : DOOM.players) {
+            player.prevviewz = player.viewz;
+        }
+    }
+
+    /**
+     * Copies what the view of that player shows, frac of the way from before
+     * the last tic to now, in FRACUNIT parts. Whatever wasn't there before
+     * the last tic is drawn as it is now, and so is everything at FRACUNIT.
+     * Nothing may be drawing from the snapshot meanwhile.
+     */
+    public void capture(player_t viewer, int frac) {
+        final AbstractLevelLoader level = DOOM.levelLoader;
+        // Things are drawn in between from where they were before the last tic
+        final int tic = DOOM.gametic - 1;
+
+        if (levelsegs != level.segs || segs.length != level.numsegs || sectors.length != level.numsectors) {
+            copyLevel(level);
+        }
+
+        int numthings = 0;
+        for (int i = 0; i < level.numsectors; i++) {
+            final sector_t sec = level.sectors[i], copy = sectors[i];
+            if (frac < FRACUNIT && sec.prevtic == tic) {
+                copy.floorheight = sec.prevfloorheight + FixedMul(sec.floorheight - sec.prevfloorheight, frac);
+                copy.ceilingheight = sec.prevceilingheight + FixedMul(sec.ceilingheight - sec.prevceilingheight, frac);
+            } else {
+                copy.floorheight = sec.floorheight;
+                copy.ceilingheight = sec.ceilingheight;
+            }
+            copy.floorpic = sec.floorpic;
+            copy.ceilingpic = sec.ceilingpic;
+            copy.lightlevel = sec.lightlevel;
+            copy.special = sec.special;
+            copy.tag = sec.tag;
+
+            mobj_t last = null;
+            copy.thinglist = null;
+            for (mobj_t mo = sec.thinglist; mo != null; mo = (mobj_t) mo.snext) {
+                if (numthings == things.length) {
+                    things = Arrays.copyOf(things, Math.max(64, things.length * 2));
+                }
+
+                if (things[numthings] == null) {
+                    things[numthings] = mobj_t.createOn(DOOM);
+                }
+
+                final mobj_t thing = things[numthings++];
+                move(thing, mo, tic, frac);
+                thing.mobj_sprite = mo.mobj_sprite;
+                thing.mobj_frame = mo.mobj_frame;
+                thing.flags = mo.flags;
+                thing.snext = null;
+
+                if (last == null) {
+                    copy.thinglist = thing;
+                } else {
+                    last.snext = thing;
+                }
+
+                last = thing;
+            }
+        }
+
+        for (int i = 0; i < level.numsides; i++) {
+            final side_t side = level.sides[i], copy = sides[i];
+            copy.textureoffset = side.textureoffset;
+            copy.rowoffset = side.rowoffset;
+            copy.toptexture = side.toptexture;
+            copy.bottomtexture = side.bottomtexture;
+            copy.midtexture = side.midtexture;
+        }
+
+        final mobj_t mo = viewer.mo;
+        viewsubsector.sector = mo.subsector != null ? sectors[mo.subsector.sector.id] : null;
+        player.viewz = move(player.mo, mo, tic, frac)
+            ? viewer.prevviewz + FixedMul(viewer.viewz - viewer.prevviewz, frac)
+            : viewer.viewz;
+        player.lookdir = viewer.lookdir;
+        player.extralight = viewer.extralight;
+        player.fixedcolormap = viewer.fixedcolormap;
+        System.arraycopy(viewer.powers, 0, player.powers, 0, player.powers.length);
+
+        for (int i = 0; i < player.psprites.length; i++) {
+            player.psprites[i].state = viewer.psprites[i].state;
+            player.psprites[i].tics = viewer.psprites[i].tics;
+            player.psprites[i].sx = viewer.psprites[i].sx;
+            player.psprites[i].sy = viewer.psprites[i].sy;
+        }
+
+        DOOM.textureManager.SnapshotTranslations();
+    }
+
+    /**
+     * Puts a copy of the thing frac of the way from where it was before the
+     * tic to where it is.
+     *
+     * @return whether it was drawn in between at all
+     */
+    private static boolean move(mobj_t copy, mobj_t mo, int tic, int frac) {
+        if (frac >= FRACUNIT
+            || mo.prevtic != tic
+            || Math.abs(mo.x - mo.prevx) > MAXMOVE
+            || Math.abs(mo.y - mo.prevy) > MAXMOVE
+            || Math.abs(mo.z - mo.prevz) > MAXMOVE)
+        {
+            copy.x = mo.x;
+            copy.y = mo.y;
+            copy.z = mo.z;
+            copy.angle = mo.angle;
+            return false;
+        }
+
+        copy.x = mo.prevx + FixedMul(mo.x - mo.prevx, frac);
+        copy.y = mo.prevy + FixedMul(mo.y - mo.prevy, frac);
+        copy.z = mo.prevz + FixedMul(mo.z - mo.prevz, frac);
+        copy.angle = (mo.prevangle + FixedMul((int) (mo.angle - mo.prevangle), frac)) & BITS32;
+        return true;
+    }
+
+    /** Copies sectors, sidedefs, segs and subsectors of a new level, to point at each other */
+    private void copyLevel(AbstractLevelLoader level) {
+        sectors = new sector_t[level.numsectors];
+        for (int i = 0; i < sectors.length; i++) {
+            sectors[i] = new sector_t();
+            sectors[i].id = level.sectors[i].id;
+        }
+
+        final Map<side_t, side_t> sidemap = new IdentityHashMap<>(level.numsides);
+        sides = new side_t[level.numsides];
+        for (int i = 0; i < sides.length; i++) {
+            final side_t side = level.sides[i];
+            sides[i] = new side_t();
+            sides[i].sector = sector(side.sector);
+            sides[i].sectorid = side.sectorid;
+            sides[i].special = side.special;
+            sidemap.put(side, sides[i]);
+        }
+
+        segs = new seg_t[level.numsegs];
+        for (int i = 0; i < segs.length; i++) {
+            final seg_t seg = level.segs[i], copy = new seg_t();
+            copy.v1 = seg.v1;
+            copy.v2 = seg.v2;
+            copy.v1x = seg.v1x;
+            copy.v1y = seg.v1y;
+            copy.v2x = seg.v2x;
+            copy.v2y = seg.v2y;
+            copy.offset = seg.offset;
+            copy.angle = seg.angle;
+            copy.sidedef = seg.sidedef != null ? sidemap.get(seg.sidedef) : null;
+            copy.linedef = seg.linedef;
+            copy.frontsector = sector(seg.frontsector);
+            copy.backsector = sector(seg.backsector);
+            copy.miniseg = seg.miniseg;
+            copy.length = seg.length;
+            copy.iSegID = seg.iSegID;
+            segs[i] = copy;
+        }
+
+        subsectors = new subsector_t[level.numsubsectors];
+        for (int i = 0; i < subsectors.length; i++) {
+            final subsector_t sub = level.subsectors[i];
+            subsectors[i] = new subsector_t(sector(sub.sector), sub.numlines, sub.firstline);
+        }
+
+        levelsegs = level.segs;
+    }
+
+    private sector_t sector(sector_t sec) {
+        return sec != null ? sectors[sec.id] : null;
+    }
+}
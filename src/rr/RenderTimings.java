@@ -0,0 +1,81 @@
+package rr;
+
+import java.util.Arrays;
+
+/**
+ * How long each stage of the last RenderPlayerView took, in nanoseconds.
+ * 
+ * Serial renderers draw walls while walking the BSP, so their wall time is
+ * part of BSP, and SEGS stays 0. Parallel renderers report the time spent
+ * completing the deferred wall drawing as SEGS.
+ * 
+ * Stages are accounted as the time since the previous mark, so a frame costs
+ * one System.nanoTime() per stage, and the sum of all stages is the whole
+ * frame.
+ * 
+ * Renderers that draw on a pool of workers also tell how long each of them
+ * was busy during the frame, which against the whole frame is how well the
+ * pool was used.
+ */
+
+public final class RenderTimings {
+
+    public static final int BSP = 0, SEGS = 1, PLANES = 2, MASKED = 3;
+    public static final String[] NAMES = {"bsp", "segs", "planes", "masked"};
+
+    private final long[] stages = new long[NAMES.length];
+    private long[] workers = new long[0];
+    private long last;
+
+    /** Starts a new frame, forgetting about the previous one */
+    public void begin() {
+        Arrays.fill(stages, 0);
+        Arrays.fill(workers, 0);
+        last = System.nanoTime();
+    }
+
+    /** Charges the time since the last mark to a stage */
+    public void mark(int stage) {
+        final long now = System.nanoTime();
+        stages[stage] += now - last;
+        last = now;
+    }
+
+    public long get(int stage) {
+        return stages[stage];
+    }
+
+    /** Takes over the timings of a frame done by someone else */
+    public void set(RenderTimings other) {
+        System.arraycopy(other.stages, 0, stages, 0, stages.length);
+        setWorkers(other.workers);
+    }
+
+    /** Sets how long each worker was busy this frame */
+    public void setWorkers(long[] busy) {
+        if (workers.length != busy.length) {
+            workers = new long[busy.length];
+        }
+
+        System.arraycopy(busy, 0, workers, 0, busy.length);
+    }
+
+    /** @return how many workers drew this frame, none if it wasn't drawn on a pool */
+    public int getWorkers() {
+        return workers.length;
+    }
+
+    public long getWorker(int worker) {
+        return workers[worker];
+    }
+
+    /** @return how much of the frame that worker was busy, from 0 to 1 */
+    public double getUtilization(int worker) {
+        long total = 0;
+        for (long stage : stages) {
+            total += stage;
+        }
+
+        return total > 0 ? (double) workers[worker] / total : 0;
+    }
+}
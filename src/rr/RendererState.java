@@ -130,6 +130,30 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
     protected int setblocks;
     protected int setdetail;
 
+    /**
+     * Which of how many vertical strips of the view this renderer draws, when
+     * ParallelRenderer3 splits it. Strips share the map and the texture
+     * manager with each other, but not the clipping, visplanes, drawsegs or
+     * vissprites.
+     */
+    protected int strip, strips = 1;
+
+    public void setStrip(int strip, int strips) {
+        this.strip = strip;
+        this.strips = strips;
+    }
+
+    /**
+     * What RenderPipeline has this renderer draw, on a thread of its own,
+     * instead of the level and the player as they are, or null.
+     */
+    protected RenderSnapshot snapshot;
+
+    @Override
+    public void setSnapshot(RenderSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
     // private BSPVars bspvars;
     /**
      * R_SetViewSize Do not really change anything here, because it might be in
@@ -243,6 +267,14 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
     }
 
     public RendererState(DoomMain<T, V> DOOM) {
+        this(DOOM, null);
+    }
+
+    /**
+     * @param shared texture manager to share with other renderers drawing
+     * strips of the same view, or null to make one of its own
+     */
+    public RendererState(DoomMain<T, V> DOOM, TextureManager<T> shared) {
         this.DOOM = DOOM;
 
         // These don't change between implementations, yet.
@@ -261,7 +293,7 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
         this.colormaps = new LightsAndColors<>(DOOM);
         // It's better to construct this here
         @SuppressWarnings("unchecked")
-        final TextureManager<T> tm = (TextureManager<T>) new SimpleTextureManager(DOOM);
+        final TextureManager<T> tm = shared != null ? shared : (TextureManager<T>) new SimpleTextureManager(DOOM);
         this.TexMan = tm;
 
         // Visplane variables
@@ -494,8 +526,8 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
          */
         public void ClearClipSegs() {
             solidsegs[0].first = -0x7fffffff;
-            solidsegs[0].last = -1;
-            solidsegs[1].first = view.width;
+            solidsegs[0].last = view.stripx1 - 1;
+            solidsegs[1].first = view.stripx2 + 1;
             solidsegs[1].last = 0x7fffffff;
             newend = 2; // point so solidsegs[2];
         }
@@ -805,7 +837,7 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
             }
 
             sscount++;
-            sub = DOOM.levelLoader.subsectors[num];
+            sub = snapshot != null ? snapshot.subsectors[num] : DOOM.levelLoader.subsectors[num];
 
             frontsector = sub.sector;
             if (DEBUG) {
@@ -847,7 +879,7 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
                 System.out.println("Enter Addline for SubSector " + num + " count " + count);
             }
             while (count-- > 0) {
-                AddLine(DOOM.levelLoader.segs[line]);
+                AddLine(snapshot != null ? snapshot.segs[line] : DOOM.levelLoader.segs[line]);
                 line++;
             }
             if (DEBUG) {
@@ -2152,6 +2184,14 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
         return this.maskedcvars;
     }
 
+    /** Stage timings of the last frame, for benchmarking */
+    protected final RenderTimings timings = new RenderTimings();
+
+    @Override
+    public RenderTimings getRenderTimings() {
+        return timings;
+    }
+
     // These column functions are "fixed" for a given renderer, and are
     // not used directly, but only after passing them to colfuncs
     protected DoomColumnFunction<T, V> DrawTranslatedColumn;
@@ -2232,6 +2272,8 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
 
         view.detailshift = setdetail;
         view.width = view.scaledwidth >> view.detailshift;
+        view.stripx1 = view.width * strip / strips;
+        view.stripx2 = view.width * (strip + 1) / strips - 1;
 
         view.centery = view.height / 2;
         view.centerx = view.width / 2;
@@ -2805,12 +2847,15 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
         try {
             System.out.print("\nInit Texture and Flat Manager");
             TexMan = this.DOOM.textureManager;
-            System.out.print("\nInitTextures");
-            TexMan.InitTextures();
-            System.out.print("\nInitFlats");
-            TexMan.InitFlats();
-            System.out.print("\nInitSprites");
-            DOOM.spriteManager.InitSpriteLumps();
+            // other strips use what the first one set up
+            if (strip == 0) {
+                System.out.print("\nInitTextures");
+                TexMan.InitTextures();
+                System.out.print("\nInitFlats");
+                TexMan.InitFlats();
+                System.out.print("\nInitSprites");
+                DOOM.spriteManager.InitSpriteLumps();
+            }
             MyThings.cacheSpriteManager(DOOM.spriteManager);
             VIS.cacheSpriteManager(DOOM.spriteManager);
             System.out.print("\nInitColormaps\t\t");
@@ -2837,7 +2882,6 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
     public void PreCacheThinkers() {
 
         boolean[] spritepresent;
-        thinker_t th;
         spriteframe_t sf;
         int lump;
 
@@ -2846,9 +2890,9 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
 
         spritepresent = new boolean[numsprites];
 
-        for (th = DOOM.actions.getThinkerCap().next; th != DOOM.actions.getThinkerCap(); th = th.next) {
-            if (th.thinkerFunction == P_MobjThinker) {
-                spritepresent[((mobj_t) th).mobj_sprite.ordinal()] = true;
+        for (mobj_t mo : DOOM.actions.getThinkers(mobj_t.class)) {
+            if (mo.thinkerFunction == P_MobjThinker) {
+                spritepresent[mo.mobj_sprite.ordinal()] = true;
             }
         }
 
@@ -3054,6 +3098,7 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
         // Viewing variables are set according to the player's mobj. Interesting
         // hacks like
         // free cameras or monster views can be done.
+        timings.begin();
         SetupFrame(player);
 
         // Clear buffers.
@@ -3064,26 +3109,41 @@ public abstract class RendererState<T, V> implements SceneRenderer<T, V>, ILimit
         VIS.ClearSprites();
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
 
         // The head node is the last node output.
         MyBSP.RenderBSPNode(DOOM.levelLoader.numnodes - 1);
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
+        timings.mark(RenderTimings.BSP);
 
         // FIXME: "Warped floor" fixed, now to fix same-height visplane
         // bleeding.
         MyPlanes.DrawPlanes();
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
+        timings.mark(RenderTimings.PLANES);
 
         MyThings.DrawMasked();
+        timings.mark(RenderTimings.MASKED);
 
         colfunc.main = colfunc.base;
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
+    }
+
+    /**
+     * Checks for new console commands, unless this is a strip: strips render
+     * on other threads, and ParallelRenderer3 checks once per frame. Nor when
+     * drawing a snapshot: that's either off the game thread, or in between
+     * tics, with the game loop checking before every frame anyway.
+     */
+    protected void NetUpdate() {
+        if (strips == 1 && snapshot == null) {
+            DOOM.gameNetworking.NetUpdate();
+        }
     }
 }
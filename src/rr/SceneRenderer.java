@@ -39,6 +39,7 @@ public interface SceneRenderer<T, V> {
     public void PreCacheThinkers();
     public int getValidCount();
     public void increaseValidCount(int amount);
+    public void setSnapshot(RenderSnapshot snapshot);
     public boolean isFullHeight();
     public void resetLimits();
     public boolean getSetSizeNeeded();
@@ -67,6 +68,11 @@ public interface SceneRenderer<T, V> {
     public ColFuncs<T, V> getColFuncsHi();
     public ColFuncs<T, V> getColFuncsLow();
     public ColVars<T, V> getMaskedDCVars();
+    
+    /**
+     * @return per stage timings of the last RenderPlayerView
+     */
+    public RenderTimings getRenderTimings();
 
     //public subsector_t PointInSubsector(int x, int y);
 }
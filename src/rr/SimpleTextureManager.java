@@ -13,7 +13,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
 import static m.fixed_t.FRACBITS;
@@ -95,6 +94,9 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
 
     /** for global animation. Storage stores actual lumps, translation is a relative -> relative map */
     protected int[]        flattranslation, flatstorage,texturetranslation;
+
+    /** What the renderer reads of the translations: the same tables, unless it draws from a snapshot of them */
+    protected int[]        drawnflattranslation, drawntexturetranslation;
     
     // This is also in DM, but one is enough, really.
     protected int skytexture,skytexturemid,skyflatnum;
@@ -107,9 +109,12 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         FlatPatchCache=new Hashtable<Integer, patch_t>();
     }
   
-    /** Hash table used for matching flat <i>lump</i> to flat <i>num</i> */
+    /** Matches flat <i>lump</i> (minus flatbase) to flat <i>num</i> */
 
-    Hashtable<Integer, Integer> FlatCache;
+    int[] FlatCache;
+    
+    /** Lowest lump in the flats namespace */
+    int flatbase;
     
     Hashtable<Integer, patch_t> FlatPatchCache;
 
@@ -285,6 +290,8 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         
         for (int i=0 ; i<numtextures ; i++)
             texturetranslation[i] = i;
+
+        drawntexturetranslation = texturetranslation;
     }
     
     /** Assigns proper lumpnum to patch names. Check whether flats and patches of the same name coexist.
@@ -506,11 +513,12 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         
         texture = textures[texnum];
 
-        // BOth allocate the composite texture, and assign it to block.
+        // Allocate the composite texture, only published once it's complete,
+        // since a strip renderer may be looking for it on another thread.
         // texturecompositesize indicates a size in BYTES. We need a number of columns, though.
         // Now block is divided into columns. We need to allocate enough data for each column
      
-        block = texturecomposite[texnum]=new byte[texture.width][texture.height];
+        block = new byte[texture.width][texture.height];
         
         // Lump where a certain column will be read from (actually, a patch)
         collump = texturecolumnlump[texnum];
@@ -559,6 +567,8 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         }
                             
         }
+
+        texturecomposite[texnum] = block;
     }
     
     /**
@@ -778,109 +788,50 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
     public final void InitFlats ()
     {
         numflats=0;
-        int extendedflatstart=-1;
         firstflat=W.GetNumForName(LUMPSTART); // This is the start of normal lumps.
-        if (FlatCache==null) FlatCache=new Hashtable<Integer,Integer>(); 
-        else FlatCache.clear();
-        Hashtable<String,Integer> FlatNames=new Hashtable<String,Integer> (); // Store names here.
         
         // Normally, if we don't use Boom features, we could look for F_END and that's it.
         // However we want to avoid using flat translation and instead store absolute lump numbers.
-        // So we need to do a clean parse.
         
-        // The rule is: we scan from the very first F_START to the very first F_END.
-        // We discard markers, and only assign sequential numbers to valid lumps.
+        // The rule is: markers are discarded, and only valid lumps get sequential numbers.
         // These are the vanilla flats, and will work with fully merged PWADs too.
         
-        // Normally, this marks the end of regular lumps. However, if DEUTEX extension
-        // are present, it will actually mark the end of the extensions due to lump
-        // priority, so its usefulness as an absolute end-index for regular flats
-        // is dodgy at best. Gotta love the inconsistent mundo hacks!
+        // F_START/F_END, as well as FF_START/FF_END DEUTEX extensions and any F1_, F2_
+        // pairs have all been coalesced in a single flat namespace by the WadLoader,
+        // so that's all there is to it. Replacements keep their own sequence number, but
+        // FlatNumForName will only ever find the most recent one.
+        final int[] flatlumps=W.GetNamespaceLumps(li_namespace.ns_flats);
         
-        //int lastflatlump=W.GetNumForName(LUMPEND);
+        flatbase=(flatlumps.length>0)?flatlumps[0]:firstflat;
+        FlatCache=new int[(flatlumps.length>0)?flatlumps[flatlumps.length-1]-flatbase+1:0];
+        Arrays.fill(FlatCache, -1);
         
-		// 
-        int lump=firstflat;
-        int seq=0;
-        String name;
-        while (!(name=W.GetNameForNum(lump)).equalsIgnoreCase(LUMPEND)){
-            if (!W.isLumpMarker(lump)){
-                // Not a marker. Put in cache.
-                FlatCache.put(lump, seq);
-                // Save its name too.
-                FlatNames.put(name, lump);
-                seq++; // Advance sequence
-                numflats++; // Total flats do increase
-            }     
-            lump++; // Advance lump.
-        }
-
-        
-        extendedflatstart=W.CheckNumForName(DEUTEX_START); // This is the start of DEUTEX flats.
-        if (extendedflatstart>-1){
-       	// If extended ones are present, then Advance slowly.
-        lump=extendedflatstart;
+        // Create translation table for global animation.
+        flatstorage = new int[flatlumps.length];
         
-        // Safeguard: FF_START without corresponding F_END (e.g. in helltest.wad)
-    
-        name=W.GetNameForNum(lump);
-            
-        // The end of those extended flats is also marked by F_END or FF_END, as noted above.
-        // It can also be non-existent in some broken maps like helltest.wad. Jesus.
-        while (!(name==null || name.equalsIgnoreCase(LUMPEND)||name.equalsIgnoreCase(DEUTEX_END))){
+        for (int lump: flatlumps){
             if (!W.isLumpMarker(lump)){
-                // Not a marker. Check if it's supposed to replace something.
-                if (FlatNames.containsKey(name)){
-                    // Well, it is. Off with its name, save the lump number though.
-                    int removed=FlatNames.remove(name);
-                    // Put new name in list
-                    FlatNames.put(name, lump);
-                    // Remove old lump, but keep sequence.
-                    int oldseq=FlatCache.remove(removed);
-                    // Put new lump number with old sequence. 
-                    FlatCache.put(lump, oldseq);
-                    } else {  // Add normally
-                        FlatCache.put(lump, seq);
-                        // Save its name too.
-                        FlatNames.put(name, lump);
-                        seq++; // Advance sequence
-                        numflats++; // Total flats do increase
-                    }
+                // Not a marker. Put in cache.
+                FlatCache[lump-flatbase]=numflats;
+                // MAJOR CHANGE: flatstorage stores absolute lump numbers. Adding
+                // firstlump is not necessary anymore.
+                flatstorage[numflats++]=lump;
             }
-            lump++; // Advance lump.
-            name=W.GetNameForNum(lump);
-        }
         }
         
         // So now we have a lump -> sequence number mapping.
+        flatstorage = Arrays.copyOf(flatstorage, numflats);
+        flattranslation = new int[numflats];
+        
+        for (int i=0;i<numflats;i++){
+            flattranslation[i]=i;
+            //  System.out.printf("Verification: flat[%d] is %s in lump %d\n",i,W.GetNameForNum(flattranslation[i]),flatstorage[i]);  
+        }
 
-            // Create translation table for global animation.
-            flattranslation = new int[numflats];
-            flatstorage = new int[numflats];
-            
-            // MAJOR CHANGE: flattranslation stores absolute lump numbers. Adding
-            // firstlump is not necessary anymore.      
-            // Now, we're pretty sure that we have a progressive value mapping.
-   
-            Enumeration<Integer> stuff= FlatCache.keys();
-            while (stuff.hasMoreElements()){
-                int nextlump=stuff.nextElement();
-                flatstorage[FlatCache.get(nextlump)]=nextlump;
-                // Lump is used as the key, while the relative lump number is the value.
-                //FlatCache.put(j, k-1);
-                
-                }
-            
-              for (int i=0;i<numflats;i++){
-                  flattranslation[i]=i;
-                //  System.out.printf("Verification: flat[%d] is %s in lump %d\n",i,W.GetNameForNum(flattranslation[i]),flatstorage[i]);  
-              }
-            }
+        drawnflattranslation = flattranslation;
+    }
     
     private final static String LUMPSTART="F_START";
-    private final static String LUMPEND="F_END";
-    private final static String DEUTEX_END="FF_END";
-    private final static String DEUTEX_START="FF_START";
     
     /**
      * R_PrecacheLevel
@@ -961,7 +912,7 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         {
         if (flatpresent[i])
         {
-            lump = firstflat + i;
+            lump = flatstorage[i];
             flatmemory += W.GetLumpInfo(lump).size;
             flats[i]=(flat_t) W.CacheLumpNum(lump, PU_CACHE,flat_t.class);
         }
@@ -1022,14 +973,15 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         
         //System.out.println("Checking for "+name);
 
-        i = W.CheckNumForName(name);
+        // Namespaced, so that a texture patch or sprite with the same name won't do.
+        i = W.CheckNumForName(name, li_namespace.ns_flats);
 
-        //System.out.printf("R_FlatNumForName retrieved lump %d for name %s picnum %d\n",i,name,FlatCache.get(i));
+        //System.out.printf("R_FlatNumForName retrieved lump %d for name %s picnum %d\n",i,name,FlatCache[i-flatbase]);
         if (i == -1) {
             I.Error("R_FlatNumForName: %s not found", name);
         }
 
-        return FlatCache.get(i);
+        return FlatCache[i - flatbase];
 
     }
 
@@ -1071,13 +1023,13 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
 
     @Override
     public final int getTextureTranslation(int texnum) {
-        return texturetranslation[texnum];
+        return drawntexturetranslation[texnum];
     }
     
     /** Returns a flat after it has been modified by the translation table e.g. by animations */
     @Override
     public int getFlatTranslation(int flatnum) {
-        return flatstorage[flattranslation[flatnum]];
+        return flatstorage[drawnflattranslation[flatnum]];
     }
 
     @Override
@@ -1093,6 +1045,17 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
     public final void setFlatTranslation(int flatnum, int amount) {
         flattranslation[flatnum]=amount;
     }
+
+    @Override
+    public void SnapshotTranslations() {
+        if (drawntexturetranslation == texturetranslation) {
+            drawntexturetranslation = new int[texturetranslation.length];
+            drawnflattranslation = new int[flattranslation.length];
+        }
+
+        System.arraycopy(texturetranslation, 0, drawntexturetranslation, 0, texturetranslation.length);
+        System.arraycopy(flattranslation, 0, drawnflattranslation, 0, flattranslation.length);
+    }
     
 
     
@@ -1266,7 +1229,7 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         // texture or patch, if they come from the same lump
         
         if (tex == smp_lasttex[id] && lump == smp_lastlump[id]) {
-            if (composite)
+            if (smp_composite[id])
                 return smp_lastpatch[id].columns[col];
             else
                 return smp_lastpatch[id].columns[ofs];
@@ -1301,7 +1264,7 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         smp_composite[id]=true;
         smp_lastlump[id]=0;
         
-        return lastpatch.columns[col];
+        return smp_lastpatch[id].columns[col];
     }
 
     // False: disk-mirrored patch. True: improper "transparent composite".
@@ -1337,11 +1300,12 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         // Speed-increasing trick: speed up repeated accesses to the same
         // texture or patch, if they come from the same lump
         
-        if (tex == lasttex && lump == lastlump) {
-            if (composite)
-                return lastpatch.columns[col].data;
+        final LastColumn last = this.last;
+        if (tex == last.tex && lump == last.lump) {
+            if (last.composite)
+                return last.patch.columns[col].data;
             else
-                return lastpatch.columns[ofs].data;
+                return last.patch.columns[ofs].data;
             }
 
         // If pointing inside a non-zero, positive lump, then it's not a
@@ -1351,29 +1315,25 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
             // That is, to the ONE column exactly.{
             // If the caller needs access to a raw column, we must point 3 bytes
             // "ahead".
-            lastpatch = W.CachePatchNum(lump);
-            lasttex = tex;
-            lastlump=lump;
-            composite=false;
+            final patch_t patch = W.CachePatchNum(lump);
+            this.last = new LastColumn(tex, lump, false, patch);
             // If the column was a disk lump, use ofs.
-            return lastpatch.columns[ofs].data;
+            return patch.columns[ofs].data;
         }
         
         // Problem. Composite texture requested as if it was masked
         // but it doesn't yet exist. Create it.
         if (getMaskedComposite(tex) == null){
-            System.err.printf("Forced generation of composite %s\n",CheckTextureNameForNum(tex),composite,col,ofs);
+            System.err.printf("Forced generation of composite %s\n",CheckTextureNameForNum(tex),last.composite,col,ofs);
             GenerateMaskedComposite(tex);
             System.err.printf("Composite patch %s %d\n",getMaskedComposite(tex).name,getMaskedComposite(tex).columns.length);
         }
         
         // Last resort. 
-        lastpatch = getMaskedComposite(tex);
-        lasttex=tex;
-        composite=true;
-        lastlump=0;
+        final patch_t patch = getMaskedComposite(tex);
+        this.last = new LastColumn(tex, 0, true, patch);
         
-        return lastpatch.columns[col].data;
+        return patch.columns[col].data;
     }
     
     /**
@@ -1402,11 +1362,12 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
         // Speed-increasing trick: speed up repeated accesses to the same
         // texture or patch, if they come from the same lump
         
-        if (tex == lasttex && lump == lastlump) {
-            if (composite)
-                return lastpatch.columns[col];
+        final LastColumn last = this.last;
+        if (tex == last.tex && lump == last.lump) {
+            if (last.composite)
+                return last.patch.columns[col];
             else
-                return lastpatch.columns[ofs];
+                return last.patch.columns[ofs];
             }
 
         // If pointing inside a non-zero, positive lump, then it's not a
@@ -1416,36 +1377,46 @@ public class SimpleTextureManager implements TextureManager<byte[]> {
             // That is, to the ONE column exactly.{
             // If the caller needs access to a raw column, we must point 3 bytes
             // "ahead".
-            lastpatch = W.CachePatchNum(lump);
-            lasttex = tex;
-            lastlump=lump;
-            composite=false;
+            final patch_t patch = W.CachePatchNum(lump);
+            this.last = new LastColumn(tex, lump, false, patch);
             // If the column was a disk lump, use ofs.
-            return lastpatch.columns[ofs];
+            return patch.columns[ofs];
         }
         
         // Problem. Composite texture requested as if it was masked
         // but it doesn't yet exist. Create it.
         if (getMaskedComposite(tex) == null){
-            System.err.printf("Forced generation of composite %s\n",CheckTextureNameForNum(tex),composite,col,ofs);
+            System.err.printf("Forced generation of composite %s\n",CheckTextureNameForNum(tex),last.composite,col,ofs);
             GenerateMaskedComposite(tex);
             System.err.printf("Composite patch %s %d\n",getMaskedComposite(tex).name,getMaskedComposite(tex).columns.length);
         }
         
         // Last resort. 
-        lastpatch = getMaskedComposite(tex);
-        lasttex=tex;
-        composite=true;
-        lastlump=0;
+        final patch_t patch = getMaskedComposite(tex);
+        this.last = new LastColumn(tex, 0, true, patch);
         
-        return lastpatch.columns[col];
+        return patch.columns[col];
     }
 
-    // False: disk-mirrored patch. True: improper "transparent composite".
-    private boolean composite = false;
-    private int lasttex = -1;
-    private int lastlump = -1;
-    private patch_t lastpatch = null;
+    /**
+     * The last patch looked up by GetColumn and GetColumnStruct, replaced as
+     * a whole, so that renderers on other threads never see half of it.
+     */
+    private static final class LastColumn {
+        final int tex, lump;
+        // False: disk-mirrored patch. True: improper "transparent composite".
+        final boolean composite;
+        final patch_t patch;
+
+        LastColumn(int tex, int lump, boolean composite, patch_t patch) {
+            this.tex = tex;
+            this.lump = lump;
+            this.composite = composite;
+            this.patch = patch;
+        }
+    }
+
+    private LastColumn last = new LastColumn(-1, -1, false, null);
 
     
     
@@ -2,9 +2,6 @@ package rr;
 
 import static data.Defines.PU_CACHE;
 import doom.DoomMain;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import static m.fixed_t.FRACBITS;
 import static utils.C2JUtils.memset;
 import static utils.GenericCopy.malloc;
@@ -81,7 +78,6 @@ public class SpriteManager<T, V> implements ISpriteManager {
 
         protected final void InitSpriteDefs(String[] namelist) {
             int numentries = lastspritelump - firstspritelump + 1;
-            HashMap<Integer, List<Integer>> hash;
             int i;
 
             if (numentries == 0 || namelist == null)
@@ -94,30 +90,14 @@ public class SpriteManager<T, V> implements ISpriteManager {
 
             sprites = malloc(spritedef_t::new, spritedef_t[]::new, numsprites);
 
-            // Create hash table based on just the first four letters of each
+            // Chained hash table based on just the first four letters of each
             // sprite
             // killough 1/31/98
             // Maes: the idea is to have a chained hastable which can handle
             // multiple entries (sprites) on the same primary key (the 4 first chars of
             // the sprite name)
-
-            hash = new HashMap<>(numentries); // allocate hash table
-
-            // We have to trasverse this in the opposite order, so that later
-            // lumps
-            // trump previous ones in order.
-            for (i = numentries - 1; i >= 0; i--) {
-                int hashcode = SpriteNameHash(DOOM.wadLoader.GetLumpInfo(i + firstspritelump).name);
-                // Create chain list for each sprite class (e.g. TROO, POSS,
-                // etc.)
-                //
-                if (!hash.containsKey(hashcode)) {
-                    hash.put(hashcode, new ArrayList<>());
-                }
-
-                // Store (yet another) lump index for this sprite.
-                hash.get(hashcode).add(i);
-            }
+            // The sprite namespace of the WadLoader keeps exactly that, with chains
+            // in the opposite order, so that later lumps trump previous ones in order.
 
             // scan all the lump names for each of the names,
             // noting the highest frame letter.
@@ -128,10 +108,10 @@ public class SpriteManager<T, V> implements ISpriteManager {
                 // The hashtable may contain a lot of other shit, at this point
                 // which will be hopefully ignored.
                 String spritename = namelist[i];
-                List<Integer> list = hash.get(SpriteNameHash(spritename));
+                final int[] list = DOOM.wadLoader.CheckNumsForSprite(spritename);
 
                 // Well, it may have been something else. Fuck it.
-                if (list != null && !list.isEmpty()) {
+                if (list.length > 0) {
 
                     // Maes: the original code actually set everything to "-1"
                     // here, including the
@@ -148,34 +128,30 @@ public class SpriteManager<T, V> implements ISpriteManager {
                     maxframe = -1;
 
                     // What is stored in the lists are all actual lump numbers
-                    // relative
-                    // to e.g. TROO. In coalesced lumps, there will be overlap.
-                    // This procedure should, in theory, trump older ones.
-                    list.forEach((j) -> {
-                        lumpinfo_t lump = DOOM.wadLoader.GetLumpInfo(j + firstspritelump);
+                    // of e.g. TROO, and only those. In coalesced lumps, there will
+                    // be overlap. This procedure should, in theory, trump older ones.
+                    for (int j: list) {
+                        lumpinfo_t lump = DOOM.wadLoader.GetLumpInfo(j);
                         // We don't know a-priori which frames exist.
                         // However, we do know how to interpret existing ones,
                         // and have an implicit maximum sequence of 29 Frames.
                         // A frame can also hame multiple rotations.
-                        if (lump.name.substring(0, 4).equalsIgnoreCase(
-                            spritename.substring(0, 4))) {
-                            int frame = lump.name.charAt(4) - 'A';
-                            int rotation = lump.name.charAt(5) - '0';
-                            if (sprtemp[frame].rotate != -1) {
-                                // We already encountered this sprite, but we
-                                // may need to trump it with something else
+                        int frame = lump.name.charAt(4) - 'A';
+                        int rotation = lump.name.charAt(5) - '0';
+                        if (sprtemp[frame].rotate != -1) {
+                            // We already encountered this sprite, but we
+                            // may need to trump it with something else
 
-                            }
-                            InstallSpriteLump(j + firstspritelump, frame,
-                                rotation, false);
-                            if (lump.name.length() >= 7) {
-                                frame = lump.name.charAt(6) - 'A';
-                                rotation = lump.name.charAt(7) - '0';
-                                InstallSpriteLump(j + firstspritelump, frame,
-                                    rotation, true);
-                            }
                         }
-                    });
+                        InstallSpriteLump(j, frame,
+                            rotation, false);
+                        if (lump.name.length() >= 7) {
+                            frame = lump.name.charAt(6) - 'A';
+                            rotation = lump.name.charAt(7) - '0';
+                            InstallSpriteLump(j, frame,
+                                rotation, true);
+                        }
+                    }
 
                     // check the frames that were found for completeness
                     if ((sprites[i].numframes = ++maxframe) != 0) // killough
@@ -298,10 +274,6 @@ public class SpriteManager<T, V> implements ISpriteManager {
         }
         
         
-        protected final int SpriteNameHash(String ss) {
-            return ss.substring(0, 4).hashCode();
-        }
-        
         // GETTERS
         
         @Override
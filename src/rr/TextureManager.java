@@ -46,6 +46,13 @@ public interface TextureManager<T> extends IGetColumn<T>, IGetCachedColumn<T>,IG
 	
 	void setFlatTranslation(int flatnum,int amount);
 
+	/**
+	 * From now on, the renderer sees texture and flat animations as they are
+	 * right now, while the game goes on animating them, until called again.
+	 * For a renderer drawing one frame while the game runs the next tic.
+	 */
+	void SnapshotTranslations();
+
 	int CheckTextureNumForName(String texnamem);
 
 	String CheckTextureNameForNum(int texnum);
@@ -17,7 +17,11 @@ import rr.drawfuns.R_DrawTranslatedColumnLow;
 public abstract class UnifiedRenderer<T, V> extends RendererState<T, V> {
 
     public UnifiedRenderer(DoomMain<T, V> DOOM) {
-        super(DOOM);
+        this(DOOM, null);
+    }
+
+    public UnifiedRenderer(DoomMain<T, V> DOOM, TextureManager<T> shared) {
+        super(DOOM, shared);
         this.MySegs = new Segs(this);
     }
 
@@ -50,7 +54,11 @@ public abstract class UnifiedRenderer<T, V> extends RendererState<T, V> {
     public static final class HiColor extends UnifiedRenderer<byte[], short[]> {
 
         public HiColor(DoomMain<byte[], short[]> DOOM) {
-            super(DOOM);
+            this(DOOM, null);
+        }
+
+        public HiColor(DoomMain<byte[], short[]> DOOM, TextureManager<byte[]> shared) {
+            super(DOOM, shared);
 
             // Init any video-output dependant stuff            
             // Init light levels
@@ -122,7 +130,11 @@ public abstract class UnifiedRenderer<T, V> extends RendererState<T, V> {
     public static final class Indexed extends UnifiedRenderer<byte[], byte[]> {
 
         public Indexed(DoomMain<byte[], byte[]> DOOM) {
-            super(DOOM);
+            this(DOOM, null);
+        }
+
+        public Indexed(DoomMain<byte[], byte[]> DOOM, TextureManager<byte[]> shared) {
+            super(DOOM, shared);
             
             // Init light levels
             final int LIGHTLEVELS = colormaps.lightLevels();
@@ -193,7 +205,11 @@ public abstract class UnifiedRenderer<T, V> extends RendererState<T, V> {
     public static final class TrueColor extends UnifiedRenderer<byte[], int[]> {
 
         public TrueColor(DoomMain<byte[], int[]> DOOM) {
-            super(DOOM);
+            this(DOOM, null);
+        }
+
+        public TrueColor(DoomMain<byte[], int[]> DOOM, TextureManager<byte[]> shared) {
+            super(DOOM, shared);
 
             // Init light levels
             final int LIGHTLEVELS = colormaps.lightLevels();
@@ -32,6 +32,9 @@ public class ViewVars {
     // TODO: get rid of this?
     public int scaledwidth;
     public int centerx;
+
+    /** Leftmost and rightmost columns drawn, the whole width unless rendering one strip of it */
+    public int stripx1, stripx2;
     public int centery;
     
     /** Used to determine the view center and projection in view units fixed_t */
@@ -49,6 +49,9 @@ public final class VisSprites<V>
     // private final vissprite_t unsorted;
     // private final vissprite_t vsprsortedhead;
 
+    /** validcount of the frame each sector's sprites were added in, by id, when rendering a strip */
+    protected int[] sectorframes = new int[0];
+
     // Cache those you get from the sprite manager
     protected int[] spritewidth, spriteoffset, spritetopoffset;
 
@@ -67,11 +70,23 @@ public final class VisSprites<V>
         // A sector might have been split into several
         // subsectors during BSP building.
         // Thus we check whether its already added.
-        if (sec.validcount == rendererState.getValidCount())
-            return;
+        if (rendererState.strips > 1) {
+            // Other strips walk the same sectors at the same time, so
+            // keep track of them here instead of in the sectors.
+            if (sec.id >= sectorframes.length)
+                sectorframes = Arrays.copyOf(sectorframes, Math.max(sec.id + 1, sectorframes.length * 2));
+
+            if (sectorframes[sec.id] == rendererState.getValidCount())
+                return;
 
-        // Well, now it will be done.
-        sec.validcount = rendererState.getValidCount();
+            sectorframes[sec.id] = rendererState.getValidCount();
+        } else {
+            if (sec.validcount == rendererState.getValidCount())
+                return;
+
+            // Well, now it will be done.
+            sec.validcount = rendererState.getValidCount();
+        }
 
         lightnum = (sec.lightlevel >> rendererState.colormaps.lightSegShift()) + rendererState.colormaps.extralight;
 
@@ -167,14 +182,14 @@ public final class VisSprites<V>
         x1 = (rendererState.view.centerxfrac + FixedMul(tx, xscale)) >> FRACBITS;
 
         // off the right side?
-        if (x1 > rendererState.view.width)
+        if (x1 > rendererState.view.stripx2 + 1)
             return;
 
         tx += spritewidth[lump];
         x2 = ((rendererState.view.centerxfrac + FixedMul(tx, xscale)) >> FRACBITS) - 1;
 
         // off the left side
-        if (x2 < 0)
+        if (x2 < rendererState.view.stripx1)
             return;
 
         // store information in a vissprite
@@ -186,8 +201,8 @@ public final class VisSprites<V>
         vis.gz = thing.z;
         vis.gzt = thing.z + spritetopoffset[lump];
         vis.texturemid = vis.gzt - rendererState.view.z;
-        vis.x1 = x1 < 0 ? 0 : x1;
-        vis.x2 = x2 >= rendererState.view.width ? rendererState.view.width - 1 : x2;
+        vis.x1 = x1 < rendererState.view.stripx1 ? rendererState.view.stripx1 : x1;
+        vis.x2 = x2 > rendererState.view.stripx2 ? rendererState.view.stripx2 : x2;
         /*
          * This actually determines the general sprite scale) iscale = 1/xscale,
          * if this was floating point.
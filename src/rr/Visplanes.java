@@ -7,6 +7,8 @@ import static data.Tables.finecosine;
 import static data.Tables.finesine;
 import java.util.Arrays;
 import static m.fixed_t.FixedDiv;
+import m.Settings;
+import mochadoom.Engine;
 import utils.C2JUtils;
 import v.scale.VideoScale;
 
@@ -24,6 +26,11 @@ public class Visplanes {
     protected final VideoScale vs;
     
     public Visplanes(VideoScale vs, ViewVars view, TextureManager<?> TexMan){
+        this(vs, view, TexMan, Engine.getConfig().equals(Settings.visplane_hash, Boolean.TRUE));
+    }
+
+    /** @param hashplanes whether FindPlane goes through the hash rather than scanning */
+    public Visplanes(VideoScale vs, ViewVars view, TextureManager<?> TexMan, boolean hashplanes){
         this.vs = vs;
         this.view=view;
         this.TexMan=TexMan;
@@ -31,6 +38,7 @@ public class Visplanes {
         openings = new short[MAXOPENINGS];
         BLANKCACHEDHEIGHT = new int[vs.getScreenHeight()];
         yslope = new int[vs.getScreenHeight()];
+        this.hashplanes = hashplanes;
     }
     
 
@@ -62,6 +70,18 @@ public class Visplanes {
     
     protected int skyscale;
 
+    /**
+     * Open addressed hash of the planes made by FindPlane, by height, picnum
+     * and light level. Each slot holds the index of the first plane with its
+     * attributes, which is the one the linear search would find: CheckPlane
+     * splits only ever add copies after it. Slots are only valid if stamped
+     * with the current frame, so clearing is just bumping the frame.
+     */
+    protected final boolean hashplanes;
+    protected int[] planeslots = new int[PLANEHASH_MIN], planestamps = new int[PLANEHASH_MIN];
+    protected int planeframe = 1, hashedplanes;
+    private static final int PLANEHASH_MIN = 256;
+
     
     /**
      * Call only after visplanes have been properly resized for resolution.
@@ -137,6 +157,10 @@ public class Visplanes {
             lightlevel = 0;
         }
 
+        if (hashplanes) {
+            return FindPlaneHashed(height, picnum, lightlevel);
+        }
+
         chk = visplanes[0];
 
         // Find visplane with the desired attributes
@@ -168,6 +192,77 @@ public class Visplanes {
 
         return check;
     }
+
+    /**
+     * R_FindPlane through the hash. Same planes, same indices as the linear
+     * search, with the sky already mapped together.
+     */
+    private int FindPlaneHashed(int height, int picnum, int lightlevel) {
+        final int mask = planeslots.length - 1;
+        int slot = planeHash(height, picnum, lightlevel) & mask;
+
+        for (; planestamps[slot] == planeframe; slot = (slot + 1) & mask) {
+            final visplane_t chk = visplanes[planeslots[slot]];
+            if (height == chk.height && picnum == chk.picnum && lightlevel == chk.lightlevel) {
+                return planeslots[slot];
+            }
+        }
+
+        final visplane_t chk = allocate();
+        chk.height = height;
+        chk.picnum = picnum;
+        chk.lightlevel = lightlevel;
+        chk.minx = vs.getScreenWidth();
+        chk.maxx = -1;
+        chk.clearTop();
+
+        planestamps[slot] = planeframe;
+        planeslots[slot] = lastvisplane - 1;
+
+        // keep it at most half full
+        if (++hashedplanes * 2 > planeslots.length) {
+            rehashPlanes();
+        }
+
+        return lastvisplane - 1;
+    }
+
+    private static int planeHash(int height, int picnum, int lightlevel) {
+        final int h = (height * 0x9E3779B1) ^ (picnum * 0x85EBCA77) ^ (lightlevel * 0xC2B2AE3D);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Twice as many slots, filled again from the planes in index order, so
+     * that the first plane of each kind still wins.
+     */
+    private void rehashPlanes() {
+        planeslots = new int[planeslots.length * 2];
+        planestamps = new int[planeslots.length];
+        planeframe = 1;
+        hashedplanes = 0;
+
+        final int mask = planeslots.length - 1;
+        for (int i = 0; i < lastvisplane; i++) {
+            final visplane_t pl = visplanes[i];
+            int slot = planeHash(pl.height, pl.picnum, pl.lightlevel) & mask;
+
+            boolean found = false;
+            for (; planestamps[slot] == planeframe; slot = (slot + 1) & mask) {
+                final visplane_t chk = visplanes[planeslots[slot]];
+                if (pl.height == chk.height && pl.picnum == chk.picnum && pl.lightlevel == chk.lightlevel) {
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found) {
+                planestamps[slot] = planeframe;
+                planeslots[slot] = i;
+                hashedplanes++;
+            }
+        }
+    }
     
     /**
      * R_ClearPlanes At begining of frame.
@@ -186,6 +281,13 @@ public class Visplanes {
         // Point to #1 in visplane list? OK... ?!
         lastvisplane = 0;
 
+        // forget about the hashed planes of the previous frame
+        if (++planeframe == 0) {
+            Arrays.fill(planestamps, 0);
+            planeframe = 1;
+        }
+        hashedplanes = 0;
+
         // We point back to the first opening of the list openings[0],
         // again.
         lastopening = 0;
@@ -0,0 +1,223 @@
+package rr;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Locale;
+import static m.fixed_t.FRACBITS;
+import v.scale.VideoScale;
+import v.scale.VisualSettings;
+
+/**
+ * Benchmark of R_FindPlane, scanning the visplanes as vanilla does, against
+ * looking them up in the hash of Visplanes (visplane_hash), so that the two
+ * can be compared, and checked to agree.
+ *
+ * A frame is played the way R_Subsector and R_StoreWallRange drive the
+ * planes: FindPlane for a floor or ceiling, CheckPlane for the columns of the
+ * wall it's under, then the columns get marked as drawn, which makes later
+ * CheckPlanes over them split the plane. Frames come from a fixed seed, with
+ * some plane kinds much more common than others, as in a real map. Both ways
+ * play the same frames, and must come up with the same plane index at every
+ * step, or the benchmark fails.
+ *
+ * Each case is warmed up, then timed over several rounds, reporting the
+ * median and best time per frame.
+ *
+ * Run as: java rr.VisplanesBenchmark [-quick]
+ */
+
+public class VisplanesBenchmark {
+
+    /** Kinds of planes per frame, from a simple map to a detailed Boom one */
+    private static final int[] KINDS = {16, 64, 256, 1024};
+    /** Walls per kind of plane */
+    private static final int WALLS = 6;
+    private static final int ROUNDS = 5;
+    /** Some of the planes are sky, which FindPlane maps all together */
+    private static final int SKYFLATNUM = 0;
+
+    private static final VideoScale VS = VisualSettings.double_vanilla;
+
+    /** Keeps the JIT from deciding that nobody looks at the planes */
+    public static volatile long sink;
+
+    private final long warmupNanos;
+    private final long roundNanos;
+
+    public VisplanesBenchmark(boolean quick) {
+        this.warmupNanos = quick ? 50_000_000L : 500_000_000L;
+        this.roundNanos = quick ? 20_000_000L : 200_000_000L;
+    }
+
+    /**
+     * The walls of a frame: the plane each one looks for, and the columns it
+     * covers.
+     */
+    static final class Frame {
+        final int[] height, picnum, lightlevel, start, stop;
+
+        Frame(int kinds, int walls, int width) {
+            height = new int[walls];
+            picnum = new int[walls];
+            lightlevel = new int[walls];
+            start = new int[walls];
+            stop = new int[walls];
+
+            int seed = 0x1234567 + kinds;
+            for (int i = 0; i < walls; i++) {
+                seed = seed * 1103515245 + 12345;
+                // Square it, so that low kinds come up the most
+                final int r = (seed >>> 8) % kinds;
+                final int kind = r * r / kinds;
+                height[i] = (kind % 37 - 18) << (FRACBITS + 3);
+                picnum[i] = kind % 53;
+                lightlevel[i] = (kind / 37) & 0xFF;
+
+                seed = seed * 1103515245 + 12345;
+                start[i] = (seed >>> 8) % width;
+                seed = seed * 1103515245 + 12345;
+                stop[i] = Math.min(width - 1, start[i] + (seed >>> 8) % 32);
+            }
+        }
+    }
+
+    public static final class Result {
+        public final int kinds;
+        /** Visplanes the frame ended up with */
+        public final int planes;
+        /** Nanoseconds per frame, median and best of the rounds, scanning and hashed */
+        public final double linear, linearBest, hashed, hashedBest;
+
+        Result(int kinds, int planes, double[] linear, double[] hashed) {
+            this.kinds = kinds;
+            this.planes = planes;
+            this.linear = linear[ROUNDS / 2];
+            this.linearBest = linear[0];
+            this.hashed = hashed[ROUNDS / 2];
+            this.hashedBest = hashed[0];
+        }
+    }
+
+    private static Visplanes visplanes(boolean hashplanes) {
+        final ViewVars view = new ViewVars(VS);
+        view.centerxfrac = (VS.getScreenWidth() / 2) << FRACBITS;
+
+        // FindPlane only wants to know which flat is the sky
+        final TextureManager<?> TexMan = (TextureManager<?>) Proxy.newProxyInstance(
+            TextureManager.class.getClassLoader(), new Class<?>[] {TextureManager.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getSkyFlatNum")) {
+                    return SKYFLATNUM;
+                }
+
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        final Visplanes vp = new Visplanes(VS, view, TexMan, hashplanes);
+        vp.initVisplanes();
+        return vp;
+    }
+
+    /**
+     * Plays a frame.
+     *
+     * @param indices where to put the plane index of each step, or null
+     * @return a checksum of the indices
+     */
+    private static int play(Visplanes vp, Frame frame, int[] indices) {
+        int sum = 0;
+        vp.ClearPlanes();
+
+        for (int i = 0; i < frame.height.length; i++) {
+            final int found = vp.FindPlane(frame.height[i], frame.picnum[i], frame.lightlevel[i]);
+            final int checked = vp.CheckPlane(found, frame.start[i], frame.stop[i]);
+
+            final visplane_t pl = vp.visplanes[checked];
+            for (int x = frame.start[i]; x <= frame.stop[i]; x++) {
+                pl.setTop(x, (char) i);
+            }
+
+            if (indices != null) {
+                indices[2 * i] = found;
+                indices[2 * i + 1] = checked;
+            }
+
+            sum += found * 31 + checked;
+        }
+
+        return sum;
+    }
+
+    private double[] time(Visplanes vp, Frame frame) {
+        long sum = 0;
+        for (long start = System.nanoTime(); System.nanoTime() - start < warmupNanos;) {
+            sum += play(vp, frame, null);
+        }
+
+        final double[] rounds = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long frames = 0, elapsed;
+            final long start = System.nanoTime();
+
+            do {
+                sum += play(vp, frame, null);
+                frames++;
+            } while ((elapsed = System.nanoTime() - start) < roundNanos);
+
+            rounds[r] = (double) elapsed / frames;
+        }
+
+        sink += sum;
+        Arrays.sort(rounds);
+        return rounds;
+    }
+
+    /**
+     * @throws IllegalStateException if the hash doesn't find the same planes
+     */
+    public Result run(int kinds) {
+        final Frame frame = new Frame(kinds, kinds * WALLS, VS.getScreenWidth());
+        final Visplanes linear = visplanes(false), hashed = visplanes(true);
+
+        // Twice, so that the hash gets to start over from a used table too
+        final int[] expected = new int[2 * frame.height.length], got = new int[expected.length];
+        for (int pass = 0; pass < 2; pass++) {
+            play(linear, frame, expected);
+            play(hashed, frame, got);
+
+            for (int i = 0; i < expected.length; i++) {
+                if (expected[i] != got[i]) {
+                    throw new IllegalStateException(String.format(
+                        "%d kinds, wall %d: %s plane %d scanning, %d hashed",
+                        kinds, i / 2, (i & 1) == 0 ? "found" : "checked", expected[i], got[i]));
+                }
+            }
+        }
+
+        final int planes = linear.lastvisplane;
+        return new Result(kinds, planes, time(linear, frame), time(hashed, frame));
+    }
+
+    public static void main(String[] argv) {
+        boolean quick = false;
+
+        for (String arg : argv) {
+            if (arg.equalsIgnoreCase("-quick")) {
+                quick = true;
+            }
+        }
+
+        visplane_t.setVideoScale(VS);
+        final VisplanesBenchmark bench = new VisplanesBenchmark(quick);
+
+        System.out.printf("%6s %6s %7s %14s %14s %14s %14s\n",
+            "kinds", "walls", "planes", "linear us med", "linear us best", "hashed us med", "hashed us best");
+
+        for (int kinds : KINDS) {
+            final Result r = bench.run(kinds);
+            System.out.printf(Locale.ROOT, "%6d %6d %7d %14.2f %14.2f %14.2f %14.2f\n",
+                r.kinds, r.kinds * WALLS, r.planes,
+                r.linear / 1000, r.linearBest / 1000, r.hashed / 1000, r.hashedBest / 1000);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package rr.drawfuns;
+
+import i.DummySystem;
+import i.IDoomSystem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+import static m.fixed_t.FRACBITS;
+import static m.fixed_t.FRACUNIT;
+
+/**
+ * Microbenchmark for the column and span kernels in this package, so that the
+ * comments claiming which one is faster can be checked against measurements.
+ *
+ * Every kernel is driven the way the renderers drive it: full-screen walls of
+ * 128 high texture columns (sprite kernels, which don't wrap, get them as
+ * stacked whole sprite columns), or full-screen floors of 64x64 flat spans, at
+ * 320x200, 640x400 and 1280x800, with textures magnified, 1:1 and minified,
+ * at whatever of 8/16/32 bpp it exists in. Each case is warmed up first, then
+ * timed over several rounds. The median and best cost per pixel drawn are
+ * reported, low detail kernels included (they cover the same screen area with
+ * half the columns).
+ *
+ * Fuzz kernels are left out: their BlurryTable needs a running Engine.
+ *
+ * Run as: java rr.drawfuns.DrawFunsBenchmark [-csv] [-quick] [name filter]
+ */
+
+public class DrawFunsBenchmark {
+
+    /** Screen size multipliers of 320x200 */
+    private static final int[] SCREENMULS = {1, 2, 4};
+    /** Texture steps: magnified, 1:1, minified */
+    private static final int[] ISCALES = {FRACUNIT / 4, FRACUNIT, FRACUNIT * 2};
+    private static final int ROUNDS = 5;
+
+    private static final IDoomSystem I = new DummySystem();
+
+    /** Keeps the JIT from deciding that nobody looks at the screens */
+    public static volatile long sink;
+
+    private final long warmupNanos;
+    private final long roundNanos;
+
+    public DrawFunsBenchmark(boolean quick) {
+        this.warmupNanos = quick ? 50_000_000L : 500_000_000L;
+        this.roundNanos = quick ? 20_000_000L : 200_000_000L;
+    }
+
+    /** Same signature as the kernel constructors, so they can be passed as ::new */
+    @FunctionalInterface
+    public interface ColumnFactory<V> {
+        DoomColumnFunction<byte[], V> make(int width, int height, int[] ylookup, int[] columnofs,
+            ColVars<byte[], V> dcvars, V screen, IDoomSystem I);
+    }
+
+    @FunctionalInterface
+    public interface SpanFactory<V> {
+        DoomSpanFunction<byte[], V> make(int width, int height, int[] ylookup, int[] columnofs,
+            SpanVars<byte[], V> dsvars, V screen, IDoomSystem I);
+    }
+
+    /**
+     * How to make screens and colormaps for a given pixel depth.
+     */
+    public static final class Depth<V> {
+        public final int bpp;
+        final IntFunction<V> alloc;
+        final PixelFiller<V> filler;
+
+        Depth(int bpp, IntFunction<V> alloc, PixelFiller<V> filler) {
+            this.bpp = bpp;
+            this.alloc = alloc;
+            this.filler = filler;
+        }
+
+        V colormap() {
+            final V map = alloc.apply(256);
+            filler.fill(map);
+            return map;
+        }
+    }
+
+    @FunctionalInterface
+    interface PixelFiller<V> {
+        void fill(V array);
+    }
+
+    public static final Depth<byte[]> INDEXED = new Depth<>(8, byte[]::new, a -> {
+        for (int i = 0; i < a.length; i++) a[i] = (byte) (255 - i);
+    });
+    public static final Depth<short[]> HICOLOR = new Depth<>(16, short[]::new, a -> {
+        for (int i = 0; i < a.length; i++) a[i] = (short) (i * 0x0421 & 0x7FFF);
+    });
+    public static final Depth<int[]> TRUECOLOR = new Depth<>(32, int[]::new, a -> {
+        for (int i = 0; i < a.length; i++) a[i] = 0xFF000000 | i * 0x010101;
+    });
+
+    /**
+     * A kernel under test, and how to paint one frame with it.
+     */
+    public abstract static class Case<V> {
+        public final String name;
+        public final Depth<V> depth;
+
+        Case(String name, Depth<V> depth) {
+            this.name = name;
+            this.depth = depth;
+        }
+
+        /** Sets up the kernel for a screen, returns something that paints one frame */
+        abstract Runnable prepare(int width, int height, int iscale, V screen, int[] ylookup, int[] columnofs);
+    }
+
+    static final class ColumnCase<V> extends Case<V> {
+        final ColumnFactory<V> factory;
+        /** Sprite kernels don't wrap around the texture, so they get it in slices */
+        final boolean masked;
+
+        ColumnCase(String name, Depth<V> depth, ColumnFactory<V> factory) {
+            this(name, depth, false, factory);
+        }
+
+        ColumnCase(String name, Depth<V> depth, boolean masked, ColumnFactory<V> factory) {
+            super(name, depth);
+            this.factory = factory;
+            this.masked = masked;
+        }
+
+        @Override
+        Runnable prepare(int width, int height, int iscale, V screen, int[] ylookup, int[] columnofs) {
+            final ColVars<byte[], V> dcvars = new ColVars<>();
+            final DoomColumnFunction<byte[], V> colfunc =
+                factory.make(width, height, ylookup, columnofs, dcvars, screen, I);
+            final int columns = (colfunc.getFlags() & DcFlags.LOW_DETAIL) != 0 ? width / 2 : width;
+
+            dcvars.dc_source = texture(128);
+            dcvars.dc_texheight = 128;
+            dcvars.dc_colormap = depth.colormap();
+            dcvars.dc_translation = identity();
+            dcvars.tranmap = texture(65536);
+            dcvars.viewheight = height;
+            dcvars.centery = height / 2;
+            dcvars.dc_iscale = iscale;
+
+            if (masked) {
+                // Stack as many whole sprite columns as fit, each one starting at texel 0
+                final int slice = Math.max(1, Math.min(height, ((128 << FRACBITS) - 1) / iscale));
+
+                return () -> {
+                    for (int x = 0; x < columns; x++) {
+                        for (int yl = 0; yl < height; yl += slice) {
+                            dcvars.dc_x = x;
+                            dcvars.dc_yl = yl;
+                            dcvars.dc_yh = Math.min(height, yl + slice) - 1;
+                            dcvars.dc_source_ofs = 0;
+                            dcvars.dc_texturemid = (dcvars.centery - yl) * iscale;
+                            colfunc.invoke();
+                        }
+                    }
+                };
+            }
+
+            return () -> {
+                for (int x = 0; x < columns; x++) {
+                    dcvars.dc_x = x;
+                    dcvars.dc_yl = 0;
+                    dcvars.dc_yh = height - 1;
+                    dcvars.dc_source_ofs = 0;
+                    dcvars.dc_texturemid = (x & 63) << FRACBITS;
+                    colfunc.invoke();
+                }
+            };
+        }
+    }
+
+    static final class SpanCase<V> extends Case<V> {
+        final SpanFactory<V> factory;
+        final boolean low;
+
+        SpanCase(String name, Depth<V> depth, boolean low, SpanFactory<V> factory) {
+            super(name, depth);
+            this.factory = factory;
+            this.low = low;
+        }
+
+        @Override
+        Runnable prepare(int width, int height, int iscale, V screen, int[] ylookup, int[] columnofs) {
+            final SpanVars<byte[], V> dsvars = new SpanVars<>();
+            final DoomSpanFunction<byte[], V> spanfunc =
+                factory.make(width, height, ylookup, columnofs, dsvars, screen, I);
+            final int columns = low ? width / 2 : width;
+
+            dsvars.ds_source = texture(4096);
+            dsvars.ds_colormap = depth.colormap();
+
+            return () -> {
+                for (int y = 0; y < height; y++) {
+                    // Low detail spans double x1 and x2 in place
+                    dsvars.ds_y = y;
+                    dsvars.ds_x1 = 0;
+                    dsvars.ds_x2 = columns - 1;
+                    dsvars.ds_xfrac = y << 12;
+                    dsvars.ds_yfrac = y << FRACBITS;
+                    dsvars.ds_xstep = iscale;
+                    dsvars.ds_ystep = iscale / 3;
+                    spanfunc.invoke();
+                }
+            };
+        }
+    }
+
+    /**
+     * All the kernels worth measuring.
+     */
+    public static List<Case<?>> cases() {
+        final List<Case<?>> c = new ArrayList<>();
+
+        // Walls, 8 bpp
+        c.add(new ColumnCase<>("R_DrawColumnBoom", INDEXED, R_DrawColumnBoom.Indexed::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomOpt", INDEXED, R_DrawColumnBoomOpt.Indexed::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomLow", INDEXED, R_DrawColumnBoomLow.Indexed::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomOptLow", INDEXED, R_DrawColumnBoomOptLow.Indexed::new));
+        c.add(new ColumnCase<>("R_DrawTranslatedColumn", INDEXED, true, R_DrawTranslatedColumn.Indexed::new));
+        c.add(new ColumnCase<>("R_DrawTranslatedColumnLow", INDEXED, true, R_DrawTranslatedColumnLow.Indexed::new));
+
+        // Walls, 16 bpp, including the HiColor-only experiments
+        c.add(new ColumnCase<>("R_DrawColumn", HICOLOR, R_DrawColumn::new));
+        c.add(new ColumnCase<>("R_DrawColumnLow", HICOLOR, R_DrawColumnLow::new));
+        c.add(new ColumnCase<>("R_DrawColumnUnrolled", HICOLOR, R_DrawColumnUnrolled::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomSuperOpt", HICOLOR, R_DrawColumnBoomSuperOpt::new));
+        c.add(new ColumnCase<>("R_DrawTLColumn", HICOLOR, R_DrawTLColumn::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoom", HICOLOR, R_DrawColumnBoom.HiColor::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomOpt", HICOLOR, R_DrawColumnBoomOpt.HiColor::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomLow", HICOLOR, R_DrawColumnBoomLow.HiColor::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomOptLow", HICOLOR, R_DrawColumnBoomOptLow.HiColor::new));
+        c.add(new ColumnCase<>("R_DrawTranslatedColumn", HICOLOR, true, R_DrawTranslatedColumn.HiColor::new));
+        c.add(new ColumnCase<>("R_DrawTranslatedColumnLow", HICOLOR, true, R_DrawTranslatedColumnLow.HiColor::new));
+
+        // Walls, 32 bpp
+        c.add(new ColumnCase<>("R_DrawColumnBoom", TRUECOLOR, R_DrawColumnBoom.TrueColor::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomOpt", TRUECOLOR, R_DrawColumnBoomOpt.TrueColor::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomLow", TRUECOLOR, R_DrawColumnBoomLow.TrueColor::new));
+        c.add(new ColumnCase<>("R_DrawColumnBoomOptLow", TRUECOLOR, R_DrawColumnBoomOptLow.TrueColor::new));
+        c.add(new ColumnCase<>("R_DrawTranslatedColumn", TRUECOLOR, true, R_DrawTranslatedColumn.TrueColor::new));
+        c.add(new ColumnCase<>("R_DrawTranslatedColumnLow", TRUECOLOR, true, R_DrawTranslatedColumnLow.TrueColor::new));
+
+        // Floors and ceilings
+        c.add(new SpanCase<>("R_DrawSpan", INDEXED, false, R_DrawSpan.Indexed::new));
+        c.add(new SpanCase<>("R_DrawSpanUnrolled", INDEXED, false, R_DrawSpanUnrolled.Indexed::new));
+        c.add(new SpanCase<>("R_DrawSpanLow", INDEXED, true, R_DrawSpanLow.Indexed::new));
+        c.add(new SpanCase<>("R_DrawSpan", HICOLOR, false, R_DrawSpan.HiColor::new));
+        c.add(new SpanCase<>("R_DrawSpanUnrolled", HICOLOR, false, R_DrawSpanUnrolled.HiColor::new));
+        c.add(new SpanCase<>("R_DrawSpanUnrolled2", HICOLOR, false, R_DrawSpanUnrolled2::new));
+        c.add(new SpanCase<>("R_DrawSpanLow", HICOLOR, true, R_DrawSpanLow.HiColor::new));
+        c.add(new SpanCase<>("R_DrawSpan", TRUECOLOR, false, R_DrawSpan.TrueColor::new));
+        c.add(new SpanCase<>("R_DrawSpanUnrolled", TRUECOLOR, false, R_DrawSpanUnrolled.TrueColor::new));
+        c.add(new SpanCase<>("R_DrawSpanLow", TRUECOLOR, true, R_DrawSpanLow.TrueColor::new));
+
+        return c;
+    }
+
+    /**
+     * Result of one case at one resolution and texture scale.
+     */
+    public static final class Result {
+        public final String name;
+        public final int bpp, width, height, iscale;
+        /** Nanoseconds per pixel drawn, median and best of the rounds. NaN if the kernel blew up. */
+        public final double median, best;
+
+        Result(String name, int bpp, int width, int height, int iscale, double median, double best) {
+            this.name = name;
+            this.bpp = bpp;
+            this.width = width;
+            this.height = height;
+            this.iscale = iscale;
+            this.median = median;
+            this.best = best;
+        }
+    }
+
+    public <V> Result run(Case<V> c, int width, int height, int iscale) {
+        final V screen = c.depth.alloc.apply(width * height);
+        final int[] ylookup = new int[height];
+        final int[] columnofs = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            ylookup[y] = y * width;
+        }
+
+        for (int x = 0; x < width; x++) {
+            columnofs[x] = x;
+        }
+
+        final double[] rounds = new double[ROUNDS];
+
+        try {
+            final Runnable frame = c.prepare(width, height, iscale, screen, ylookup, columnofs);
+
+            // Warm up, until the JIT had its chance
+            for (long start = System.nanoTime(); System.nanoTime() - start < warmupNanos;) {
+                frame.run();
+            }
+
+            for (int r = 0; r < ROUNDS; r++) {
+                long frames = 0, elapsed;
+                final long start = System.nanoTime();
+
+                do {
+                    frame.run();
+                    frames++;
+                } while ((elapsed = System.nanoTime() - start) < roundNanos);
+
+                rounds[r] = (double) elapsed / (frames * width * height);
+            }
+        } catch (RuntimeException e) {
+            System.err.printf("%s (%d bpp) %dx%d failed: %s\n", c.name, c.depth.bpp, width, height, e);
+            return new Result(c.name, c.depth.bpp, width, height, iscale, Double.NaN, Double.NaN);
+        }
+
+        sink += hash(screen);
+        Arrays.sort(rounds);
+        return new Result(c.name, c.depth.bpp, width, height, iscale, rounds[ROUNDS / 2], rounds[0]);
+    }
+
+    private static long hash(Object screen) {
+        if (screen instanceof byte[]) return Arrays.hashCode((byte[]) screen);
+        if (screen instanceof short[]) return Arrays.hashCode((short[]) screen);
+        return Arrays.hashCode((int[]) screen);
+    }
+
+    /** Some texture-ish noise */
+    private static byte[] texture(int size) {
+        final byte[] tex = new byte[size];
+        int seed = 0x1234567;
+
+        for (int i = 0; i < size; i++) {
+            seed = seed * 1103515245 + 12345;
+            tex[i] = (byte) (seed >>> 16);
+        }
+
+        return tex;
+    }
+
+    private static byte[] identity() {
+        final byte[] table = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            table[i] = (byte) i;
+        }
+
+        return table;
+    }
+
+    public static void main(String[] argv) {
+        boolean csv = false, quick = false;
+        String filter = null;
+
+        for (String arg : argv) {
+            if (arg.equalsIgnoreCase("-csv")) {
+                csv = true;
+            } else if (arg.equalsIgnoreCase("-quick")) {
+                quick = true;
+            } else {
+                filter = arg;
+            }
+        }
+
+        final DrawFunsBenchmark bench = new DrawFunsBenchmark(quick);
+
+        if (csv) {
+            System.out.println("kernel,bpp,width,height,iscale,ns_per_pixel_median,ns_per_pixel_best,mpixels_per_s");
+        } else {
+            System.out.printf("%-28s %4s %10s %7s %12s %12s %10s\n",
+                "kernel", "bpp", "screen", "iscale", "ns/px med", "ns/px best", "Mpx/s");
+        }
+
+        for (Case<?> c : cases()) {
+            if (filter != null && !c.name.contains(filter)) {
+                continue;
+            }
+
+            for (int mul : SCREENMULS) {
+                for (int iscale : ISCALES) {
+                    final Result r = bench.run(c, 320 * mul, 200 * mul, iscale);
+                    final double scale = (double) r.iscale / FRACUNIT;
+
+                    if (csv) {
+                        System.out.printf(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.4f,%.4f,%.1f\n",
+                            r.name, r.bpp, r.width, r.height, scale, r.median, r.best, 1000.0 / r.median);
+                    } else {
+                        System.out.printf(Locale.ROOT, "%-28s %4d %10s %7.2f %12.4f %12.4f %10.1f\n",
+                            r.name, r.bpp, r.width + "x" + r.height, scale, r.median, r.best, 1000.0 / r.median);
+                    }
+                }
+            }
+        }
+    }
+}
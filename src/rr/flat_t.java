@@ -25,8 +25,14 @@ public class flat_t
     public void unpack(ByteBuffer buf)
             throws IOException {
         
-            //buf.get(this.data);
-            this.data=buf.array();
+            // Lump views are read-only (or off-heap), so own a copy then.
+            if (buf.hasArray() && buf.arrayOffset() == 0 && buf.array().length == buf.capacity()) {
+                this.data=buf.array();
+            } else {
+                this.data=new byte[buf.capacity()];
+                buf.rewind();
+                buf.get(this.data);
+            }
 
     }
 
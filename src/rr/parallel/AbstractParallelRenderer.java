@@ -8,8 +8,11 @@ import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
 import static m.fixed_t.FRACBITS;
 import static m.fixed_t.FixedMul;
+import m.Settings;
+import mochadoom.Engine;
 import rr.PlaneDrawer;
 import rr.RendererState;
 import rr.SceneRenderer;
@@ -26,9 +29,11 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
 
     public AbstractParallelRenderer(DoomMain<T, V> DM, int wallthread, int floorthreads, int nummaskedthreads) {
         super(DM);
-        this.NUMWALLTHREADS = wallthread;
-        this.NUMFLOORTHREADS = floorthreads;
-        this.NUMMASKEDTHREADS = nummaskedthreads;
+        this.scheduler = configuredScheduler();
+        // On a scheduler, every worker may end up doing any stage
+        this.NUMWALLTHREADS = scheduler != null ? scheduler.getSlots() : wallthread;
+        this.NUMFLOORTHREADS = scheduler != null ? scheduler.getSlots() : floorthreads;
+        this.NUMMASKEDTHREADS = scheduler != null ? scheduler.getSlots() : nummaskedthreads;
         // Prepare the barriers for MAXTHREADS + main thread.
         drawsegsbarrier = new CyclicBarrier(NUMWALLTHREADS + 1);
         visplanebarrier = new CyclicBarrier(NUMFLOORTHREADS + 1);        
@@ -39,9 +44,10 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
     public AbstractParallelRenderer(DoomMain<T, V> DM, int wallthread,
             int floorthreads) {
         super(DM);
-        this.NUMWALLTHREADS = wallthread;
-        this.NUMFLOORTHREADS = floorthreads;
-        this.NUMMASKEDTHREADS = 1;
+        this.scheduler = configuredScheduler();
+        this.NUMWALLTHREADS = scheduler != null ? scheduler.getSlots() : wallthread;
+        this.NUMFLOORTHREADS = scheduler != null ? scheduler.getSlots() : floorthreads;
+        this.NUMMASKEDTHREADS = scheduler != null ? scheduler.getSlots() : 1;
         // Prepare the barriers for MAXTHREADS + main thread.
         drawsegsbarrier = new CyclicBarrier(NUMWALLTHREADS + 1);
         visplanebarrier = new CyclicBarrier(NUMFLOORTHREADS + 1);        
@@ -49,7 +55,22 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
         tp = Executors.newCachedThreadPool();
     }
 
+    private static RenderScheduler configuredScheduler() {
+        final int workers = Engine.getConfig().getValue(Settings.parallelism_render_pool, Integer.class);
+        return workers > 0 ? new RenderScheduler(workers) : null;
+    }
+
     // //////// PARALLEL OBJECTS /////////////
+
+    /**
+     * Work stealing pool that all stages are drawn on, instead of their own
+     * threads and barriers, or null. Thread counts are then its slots.
+     */
+    protected final RenderScheduler scheduler;
+
+    /** Fewest wall instructions, or columns, worth handing to another worker */
+    protected static final int WALL_GRAIN = 64, COLUMN_GRAIN = 8;
+
     protected final int NUMWALLTHREADS;
 
     protected final int NUMMASKEDTHREADS;
@@ -70,6 +91,20 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
 
     protected static final boolean DEBUG = false;
 
+    /** Starts timing the workers of the scheduler, if there's one */
+    protected void beginScheduledFrame() {
+        if (scheduler != null) {
+            scheduler.beginFrame();
+        }
+    }
+
+    /** Reports how busy the workers of the scheduler were, if there's one */
+    protected void endScheduledFrame() {
+        if (scheduler != null) {
+            scheduler.endFrame(timings);
+        }
+    }
+
     protected final class ParallelSegs extends SegDrawer implements RWI.Get<T, V> {
 
         ParallelSegs(SceneRenderer<?, ?> R) {
@@ -109,6 +144,12 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
         @Override
         public void CompleteRendering() {
 
+            if (scheduler != null) {
+                walls = scheduler.submit(0, RWIcount, WALL_GRAIN, (slot, from, to) -> RWIExec[slot].draw(from, to));
+                RWIcount = 0;
+                return;
+            }
+
             for (int i = 0; i < NUMWALLTHREADS; i++) {
 
                 RWIExec[i].setRange((i * RWIcount) / NUMWALLTHREADS,
@@ -149,6 +190,9 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
 
         int RWIcount = 0;
 
+        /** Walls being drawn on the scheduler, to be joined by sync */
+        ForkJoinTask<?> walls;
+
         /**
          * Resizes RWI buffer, updates executors. Sorry for the hackish
          * implementation but ArrayList and pretty much everything in
@@ -181,6 +225,14 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
 		
         @Override
 		public void sync(){
+			if (scheduler != null) {
+				if (walls != null) {
+					walls.join();
+					walls = null;
+				}
+				return;
+			}
+
 			try {
 				drawsegsbarrier.await();
 			} catch (InterruptedException | BrokenBarrierException e) {
@@ -213,10 +265,27 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
             // vpw[0].setRange(0,lastvisplane/2);
             // vpw[1].setRange(lastvisplane/2,lastvisplane);
 
+            if (scheduler != null) {
+                planes = scheduler.submit(0, view.width, COLUMN_GRAIN,
+                    (slot, from, to) -> ((VisplaneWorker2<?, ?>) vpw[slot]).render(from, to));
+                return;
+            }
+
             for (int i = 0; i < NUMFLOORTHREADS; i++)
                 tp.execute(vpw[i]);
         }
 
+        /** Planes being drawn on the scheduler, to be joined by sync */
+        private ForkJoinTask<?> planes;
+
+        @Override
+        public void sync() {
+            if (planes != null) {
+                planes.join();
+                planes = null;
+            }
+        }
+
     } // End Plane class
 
     protected final class ParallelSegs2<T, V> extends SegDrawer {
@@ -420,7 +489,21 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
 
         }
 
+        /** Walls being drawn on the scheduler, to be joined by sync */
+        private ForkJoinTask<?> walls;
+
         void RenderRSIPipeline() {
+            if (APR.scheduler != null) {
+                for (int i = 0; i < APR.NUMWALLTHREADS; i++) {
+                    RSIExec[i].setRSIEnd(RSIcount);
+                }
+
+                walls = APR.scheduler.submit(0, APR.DOOM.vs.getScreenWidth(), COLUMN_GRAIN,
+                    (slot, from, to) -> RSIExec[slot].render(from, to));
+                RSIcount = 0;
+                return;
+            }
+
             for (int i = 0; i < APR.NUMWALLTHREADS; i++) {
                 RSIExec[i].setRSIEnd(RSIcount);
                 // RWIExec[i].setRange(i%NUMWALLTHREADS,RWIcount,NUMWALLTHREADS);
@@ -448,6 +531,14 @@ public abstract class AbstractParallelRenderer<T, V> extends RendererState<T, V>
 
             System.out.println("RWI Buffer resized. Actual capacity " + RSI.length);
         }
+
+        @Override
+        public void sync() {
+            if (walls != null) {
+                walls.join();
+                walls = null;
+            }
+        }
     }
 
     protected final class ParallelPlanes2<T, V> extends PlaneDrawer<T, V> {
@@ -447,6 +447,23 @@ public abstract class MaskedWorker<T,V> extends AbstractThings<T,V> implements R
     
     @Override
     public void run() {
+        render((id * view.width) / numthreads, ((id + 1) * view.width) / numthreads);
+
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            // TODO Auto-generated catch block
+            e.printStackTrace();
+        }
+        // TODO Auto-generated catch block
+    }
+
+    /**
+     * Draws sprites, masked textures and psprites between columns startx and
+     * endx only, and that's it. For drawing on a RenderScheduler, rather than
+     * in the worker's own share of the screen.
+     */
+    public void render(int startx, int endx) {
         // vissprite_t spr;
         int ds;
         drawseg_t dss;
@@ -460,8 +477,8 @@ public abstract class MaskedWorker<T,V> extends AbstractThings<T,V> implements R
         
         this.maskedcvars.viewheight=view.height;
         this.maskedcvars.centery=view.centery;
-        this.startx=((id*view.width)/numthreads);
-        this.endx=(((id+1)*view.width)/numthreads);
+        this.startx=startx;
+        this.endx=endx;
         
         // Update thread's own vissprites
         
@@ -491,14 +508,6 @@ public abstract class MaskedWorker<T,V> extends AbstractThings<T,V> implements R
         colfunc = colfuncs.player;
         DrawPlayerSprites();
         colfunc = colfuncs.masked;
-        
-        try {
-            barrier.await();
-        } catch (InterruptedException | BrokenBarrierException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        // TODO Auto-generated catch block
     }
     
 }
@@ -3,6 +3,7 @@ package rr.parallel;
 import doom.DoomMain;
 import doom.player_t;
 import java.io.IOException;
+import rr.RenderTimings;
 import rr.SimpleThings;
 import rr.drawfuns.ColVars;
 import rr.drawfuns.R_DrawColumnBoom;
@@ -72,6 +73,8 @@ public abstract class ParallelRenderer<T, V> extends AbstractParallelRenderer<T,
         // Viewing variables are set according to the player's mobj. Interesting
         // hacks like
         // free cameras or monster views can be done.
+        timings.begin();
+        beginScheduledFrame();
         SetupFrame(player);
 
         /*
@@ -88,32 +91,37 @@ public abstract class ParallelRenderer<T, V> extends AbstractParallelRenderer<T,
         MySegs.ClearClips();
         VIS.ClearSprites();
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
 
         // The head node is the last node output.
         MyBSP.RenderBSPNode(DOOM.levelLoader.numnodes - 1);
+        timings.mark(RenderTimings.BSP);
 
         // System.out.printf("Submitted %d RWIs\n",RWIcount);
 
         MySegs.CompleteRendering();
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
+        timings.mark(RenderTimings.SEGS);
 
         // "Warped floor" fixed, same-height visplane merging fixed.
         MyPlanes.DrawPlanes();
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
 
         MySegs.sync();
         MyPlanes.sync();
+        timings.mark(RenderTimings.PLANES);
 
 //            drawsegsbarrier.await();
 //            visplanebarrier.await();
 
 
         MyThings.DrawMasked();
+        timings.mark(RenderTimings.MASKED);
+        endScheduledFrame();
 
         // RenderRMIPipeline();
         /*
@@ -122,7 +130,7 @@ public abstract class ParallelRenderer<T, V> extends AbstractParallelRenderer<T,
          */
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
     }
 
     public static final class Indexed extends ParallelRenderer<byte[], byte[]> {
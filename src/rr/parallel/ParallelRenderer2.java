@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executors;
+import rr.RenderTimings;
 import rr.drawfuns.R_DrawColumnBoom;
 import rr.drawfuns.R_DrawColumnBoomLow;
 import rr.drawfuns.R_DrawColumnBoomOpt;
@@ -43,6 +44,7 @@ public abstract class ParallelRenderer2<T, V> extends AbstractParallelRenderer<T
         // TO BE LATE INIT? AFTER CONS?
         // Masked workers.
         ((ParallelThings2<T, V>) MyThings).maskedworkers = maskedworkers = new MaskedWorker[NUMMASKEDTHREADS];
+        ((ParallelThings2<T, V>) MyThings).scheduler = scheduler;
         InitMaskedWorkers();
         
         ((ParallelSegs2<T, V>) MySegs).RSI = malloc(RenderSegInstruction::new, RenderSegInstruction[]::new, MAXSEGS * 3);
@@ -86,6 +88,8 @@ public abstract class ParallelRenderer2<T, V> extends AbstractParallelRenderer<T
 	{   
 		// Viewing variables are set according to the player's mobj. Interesting hacks like
 		// free cameras or monster views can be done.
+		timings.begin();
+		beginScheduledFrame();
 		SetupFrame (player);
 
 		/* Uncommenting this will result in a very existential experience
@@ -107,10 +111,11 @@ public abstract class ParallelRenderer2<T, V> extends AbstractParallelRenderer<T
         VIS.ClearSprites();
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
 
 		// The head node is the last node output.
 		MyBSP.RenderBSPNode(DOOM.levelLoader.numnodes - 1);
+		timings.mark(RenderTimings.BSP);
 		
         // RenderRMIPipeline();
         /*
@@ -124,28 +129,35 @@ public abstract class ParallelRenderer2<T, V> extends AbstractParallelRenderer<T
         MySegs.CompleteRendering();
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
+        timings.mark(RenderTimings.SEGS);
 
 		// "Warped floor" fixed, same-height visplane merging fixed.
 		MyPlanes.DrawPlanes ();
 
-		try {
-			visplanebarrier.await();
-		} catch (InterruptedException | BrokenBarrierException e){
-			e.printStackTrace();
+		// On the scheduler, sync joins walls and planes instead
+		if (scheduler == null) {
+			try {
+				visplanebarrier.await();
+			} catch (InterruptedException | BrokenBarrierException e){
+				e.printStackTrace();
+			}
 		}
 
         // Check for new console commands.
-        DOOM.gameNetworking.NetUpdate();
+        NetUpdate();
 
         MySegs.sync();
         MyPlanes.sync();
+        timings.mark(RenderTimings.PLANES);
 
 //            drawsegsbarrier.await();
 //            visplanebarrier.await();
 
 
         MyThings.DrawMasked();
+        timings.mark(RenderTimings.MASKED);
+        endScheduledFrame();
 	}
 
     abstract protected void InitRSISubsystem();
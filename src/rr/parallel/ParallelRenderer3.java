@@ -0,0 +1,303 @@
+package rr.parallel;
+
+import doom.DoomMain;
+import doom.player_t;
+import i.IDoomSystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import rr.BSPVars;
+import rr.ISpriteManager;
+import rr.IVisSpriteManagement;
+import rr.PlaneDrawer;
+import rr.RenderSnapshot;
+import rr.RenderTimings;
+import rr.RendererState;
+import rr.SceneRenderer;
+import rr.SegVars;
+import rr.TextureManager;
+import rr.ViewVars;
+import rr.Visplanes;
+import rr.drawfuns.ColFuncs;
+import rr.drawfuns.ColVars;
+import rr.drawfuns.SpanVars;
+import v.tables.LightsAndColors;
+import w.IWadLoader;
+
+/**
+ * A third take at a parallel renderer, which doesn't split the work of one
+ * frame by stage like the other two, but the screen itself: the view is cut
+ * into as many vertical strips as there are threads, and each strip gets a
+ * whole serial renderer of its own, which walks the BSP with its clip ranges
+ * starting out as everything but its strip, and so draws walls, planes and
+ * sprites of that strip only, in its own visplanes and drawsegs.
+ *
+ * Nothing is shared between strips but what they only read during a frame:
+ * the level, the texture manager and the screen, of which each strip only
+ * ever writes its own columns. There's then no ordering to get right between
+ * stages, and only one join per frame. Strips get narrower with -width, so it
+ * keeps up with higher resolutions rather than the opposite.
+ *
+ * The first strip is drawn by the calling thread, and answers for all others
+ * whatever isn't about drawing a frame.
+ */
+
+public final class ParallelRenderer3<T, V> implements SceneRenderer<T, V> {
+
+    private final DoomMain<T, V> DOOM;
+    private final List<RendererState<T, V>> strips;
+    private final List<Callable<RenderTimings>> tasks;
+    /** Strips drawn by the executor this frame, all but the first */
+    private final List<Future<RenderTimings>> pending;
+    private final ExecutorService executor;
+    /** Whose view is being drawn by all strips this frame */
+    private player_t player;
+    /** Timings of the strip that took longest in the last frame */
+    private RenderTimings slowest;
+    /** Drawing from a snapshot, off the game thread */
+    private boolean snapshot;
+
+    public ParallelRenderer3(DoomMain<T, V> DOOM, int numstrips, BiFunction<DoomMain<T, V>, TextureManager<T>, ? extends RendererState<T, V>> strip) {
+        this.DOOM = DOOM;
+        this.strips = new ArrayList<>(numstrips);
+        this.tasks = new ArrayList<>(numstrips);
+        this.pending = new ArrayList<>(numstrips - 1);
+        System.out.println("Parallel Renderer 3 (Strip-based), " + numstrips + " strips");
+
+        for (int i = 0; i < numstrips; i++) {
+            final RendererState<T, V> renderer = strip.apply(DOOM, i == 0 ? null : strips.get(0).getTextureManager());
+            renderer.setStrip(i, numstrips);
+            strips.add(renderer);
+            tasks.add(() -> {
+                renderer.RenderPlayerView(player);
+                return renderer.getRenderTimings();
+            });
+        }
+
+        this.slowest = strips.get(0).getRenderTimings();
+        this.executor = numstrips > 1 ? Executors.newFixedThreadPool(numstrips - 1) : null;
+    }
+
+    @Override
+    public void Init() {
+        // Textures, flats and sprites get loaded once, by the first strip, and shared
+        for (RendererState<T, V> strip : strips) {
+            strip.Init();
+        }
+    }
+
+    @Override
+    public void RenderPlayerView(player_t player) {
+        // Check for new console commands.
+        NetUpdate();
+
+        this.player = player;
+        pending.clear();
+        for (int i = 1; i < tasks.size(); i++) {
+            pending.add(executor.submit(tasks.get(i)));
+        }
+
+        try {
+            slowest = tasks.get(0).call();
+            for (Future<RenderTimings> strip : pending) {
+                final RenderTimings timings = strip.get();
+                if (total(timings) > total(slowest)) {
+                    slowest = timings;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        // Check for new console commands.
+        NetUpdate();
+    }
+
+    private void NetUpdate() {
+        if (!snapshot) {
+            DOOM.gameNetworking.NetUpdate();
+        }
+    }
+
+    private static long total(RenderTimings timings) {
+        long total = 0;
+        for (int stage = 0; stage < RenderTimings.NAMES.length; stage++) {
+            total += timings.get(stage);
+        }
+
+        return total;
+    }
+
+    @Override
+    public void ExecuteSetViewSize() {
+        for (RendererState<T, V> strip : strips) {
+            strip.ExecuteSetViewSize();
+        }
+    }
+
+    @Override
+    public void SetViewSize(int size, int detaillevel) {
+        for (RendererState<T, V> strip : strips) {
+            strip.SetViewSize(size, detaillevel);
+        }
+    }
+
+    @Override
+    public void resetLimits() {
+        for (RendererState<T, V> strip : strips) {
+            strip.resetLimits();
+        }
+    }
+
+    @Override
+    public void increaseValidCount(int amount) {
+        for (RendererState<T, V> strip : strips) {
+            strip.increaseValidCount(amount);
+        }
+    }
+
+    @Override
+    public void setSnapshot(RenderSnapshot snapshot) {
+        this.snapshot = snapshot != null;
+        for (RendererState<T, V> strip : strips) {
+            strip.setSnapshot(snapshot);
+        }
+    }
+
+    @Override
+    public void FillBackScreen() {
+        strips.get(0).FillBackScreen();
+    }
+
+    @Override
+    public void DrawViewBorder() {
+        strips.get(0).DrawViewBorder();
+    }
+
+    @Override
+    public long PointToAngle2(int x1, int y1, int x2, int y2) {
+        return strips.get(0).PointToAngle2(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void PreCacheThinkers() {
+        strips.get(0).PreCacheThinkers();
+    }
+
+    @Override
+    public int getValidCount() {
+        return strips.get(0).getValidCount();
+    }
+
+    @Override
+    public boolean isFullHeight() {
+        return strips.get(0).isFullHeight();
+    }
+
+    @Override
+    public boolean getSetSizeNeeded() {
+        return strips.get(0).getSetSizeNeeded();
+    }
+
+    @Override
+    public boolean isFullScreen() {
+        return strips.get(0).isFullScreen();
+    }
+
+    @Override
+    public TextureManager<T> getTextureManager() {
+        return strips.get(0).getTextureManager();
+    }
+
+    @Override
+    public PlaneDrawer<T, V> getPlaneDrawer() {
+        return strips.get(0).getPlaneDrawer();
+    }
+
+    @Override
+    public ViewVars getView() {
+        return strips.get(0).getView();
+    }
+
+    @Override
+    public SpanVars<T, V> getDSVars() {
+        return strips.get(0).getDSVars();
+    }
+
+    @Override
+    public LightsAndColors<V> getColorMap() {
+        return strips.get(0).getColorMap();
+    }
+
+    @Override
+    public IDoomSystem getDoomSystem() {
+        return strips.get(0).getDoomSystem();
+    }
+
+    @Override
+    public IWadLoader getWadLoader() {
+        return strips.get(0).getWadLoader();
+    }
+
+    @Override
+    public Visplanes getVPVars() {
+        return strips.get(0).getVPVars();
+    }
+
+    @Override
+    public SegVars getSegVars() {
+        return strips.get(0).getSegVars();
+    }
+
+    @Override
+    public ISpriteManager getSpriteManager() {
+        return strips.get(0).getSpriteManager();
+    }
+
+    @Override
+    public BSPVars getBSPVars() {
+        return strips.get(0).getBSPVars();
+    }
+
+    @Override
+    public IVisSpriteManagement<V> getVisSpriteManager() {
+        return strips.get(0).getVisSpriteManager();
+    }
+
+    @Override
+    public ColFuncs<T, V> getColFuncsHi() {
+        return strips.get(0).getColFuncsHi();
+    }
+
+    @Override
+    public ColFuncs<T, V> getColFuncsLow() {
+        return strips.get(0).getColFuncsLow();
+    }
+
+    @Override
+    public ColVars<T, V> getMaskedDCVars() {
+        return strips.get(0).getMaskedDCVars();
+    }
+
+    /** The strip that took longest holds up the frame, so its timings are the frame's */
+    @Override
+    public RenderTimings getRenderTimings() {
+        return slowest;
+    }
+}
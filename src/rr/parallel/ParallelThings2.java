@@ -7,6 +7,7 @@ import rr.IMaskedDrawer;
 import rr.ISpriteManager;
 import rr.IVisSpriteManagement;
 import rr.SceneRenderer;
+import rr.ViewVars;
 import v.scale.VideoScale;
 
 /**  Alternate parallel sprite renderer using a split-screen strategy.
@@ -33,11 +34,15 @@ public final class ParallelThings2<T,V> implements IMaskedDrawer<T,V> {
     MaskedWorker<T,V>[] maskedworkers;
     CyclicBarrier maskedbarrier;
     Executor tp;
+    /** If set, workers draw on it rather than each on its share of the screen */
+    RenderScheduler scheduler;
     protected final IVisSpriteManagement<V> VIS;
+    protected final ViewVars view;
     protected final VideoScale vs;
     
     public ParallelThings2(VideoScale vs, SceneRenderer<T,V> R) {
         this.VIS=R.getVisSpriteManager();
+        this.view=R.getView();
         this.vs = vs;
     }
 
@@ -46,6 +51,12 @@ public final class ParallelThings2<T,V> implements IMaskedDrawer<T,V> {
 
         VIS.SortVisSprites();
 
+        if (scheduler != null) {
+            scheduler.invoke(0, view.width, AbstractParallelRenderer.COLUMN_GRAIN,
+                (slot, from, to) -> maskedworkers[slot].render(from, to));
+            return;
+        }
+
         for (int i = 0; i < maskedworkers.length; i++) {
             tp.execute(maskedworkers[i]);
         }
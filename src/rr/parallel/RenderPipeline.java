@@ -0,0 +1,294 @@
+package rr.parallel;
+
+import doom.DoomMain;
+import doom.player_t;
+import i.IDoomSystem;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import rr.BSPVars;
+import rr.ISpriteManager;
+import rr.IVisSpriteManagement;
+import rr.PlaneDrawer;
+import rr.RenderSnapshot;
+import rr.RenderTimings;
+import rr.RendererState;
+import rr.SceneRenderer;
+import rr.SegVars;
+import rr.TextureManager;
+import rr.ViewVars;
+import rr.Visplanes;
+import rr.drawfuns.ColFuncs;
+import rr.drawfuns.ColVars;
+import rr.drawfuns.SpanVars;
+import v.tables.LightsAndColors;
+import w.IWadLoader;
+
+/**
+ * Draws each frame on a thread of its own, while the game thread goes on with
+ * the next tic, so that a frame takes about as long as the longer of the two
+ * rather than both. Any scene renderer will do, it only gets to draw from a
+ * snapshot of the game taken when the frame is started, instead of the game
+ * itself, which keeps changing under it meanwhile.
+ *
+ * RenderPlayerView only starts the frame: whoever draws over the view has to
+ * Finish it first. Anything else that changes the renderer or draws on the
+ * screen waits for the frame to be done by itself.
+ *
+ * The game never waits on the renderer otherwise, nor does the renderer ever
+ * touch the game, so demos play the same. That's also why the game gets a
+ * validcount of its own here, rather than sharing the renderer's.
+ *
+ * Snapshots are also what frames in between tics are drawn from, with things
+ * part of the way from one tic to the next, when the frame rate is uncapped.
+ * That may be done without a thread, each frame being drawn as soon as its
+ * snapshot is taken.
+ */
+
+public final class RenderPipeline<T, V> implements SceneRenderer<T, V> {
+
+    private final DoomMain<T, V> DOOM;
+    private final SceneRenderer<T, V> renderer;
+    private final RenderSnapshot snapshot;
+    private final ExecutorService executor;
+    /** Timings of the last frame that got finished */
+    private final RenderTimings timings = new RenderTimings();
+    /** The frame being drawn, if any */
+    private Future<?> pending;
+    private int validcount;
+
+    /**
+     * @param threaded whether to draw frames while the game goes on, or only
+     * from snapshots, interpolated between tics
+     */
+    public RenderPipeline(DoomMain<T, V> DOOM, SceneRenderer<T, V> renderer, boolean threaded) {
+        this.DOOM = DOOM;
+        this.renderer = renderer;
+        this.snapshot = new RenderSnapshot(DOOM);
+        this.executor = threaded ? Executors.newSingleThreadExecutor() : null;
+        this.validcount = renderer.getValidCount();
+        renderer.setSnapshot(snapshot);
+        System.out.println(threaded
+            ? "Render pipeline, frames drawn while the next tic runs"
+            : "Render pipeline, frames drawn from snapshots");
+    }
+
+    /**
+     * Starts drawing the view of that player, as it is at this point in
+     * between tics, and returns, unless there's no thread to draw on.
+     */
+    @Override
+    public void RenderPlayerView(player_t player) {
+        Finish();
+        snapshot.capture(player, DOOM.getTicFrac());
+
+        if (executor == null) {
+            renderer.RenderPlayerView(snapshot.player);
+            timings.set(renderer.getRenderTimings());
+            return;
+        }
+
+        pending = executor.submit(() -> renderer.RenderPlayerView(snapshot.player));
+    }
+
+    /** @return whether a frame is being drawn, which has to be finished before drawing over it */
+    public boolean isDrawing() {
+        return pending != null;
+    }
+
+    /** A tic is about to run: see RenderSnapshot.beginTic */
+    public void BeginTic() {
+        snapshot.beginTic();
+    }
+
+    /** Waits for the frame being drawn, if any, to be done */
+    public void Finish() {
+        if (pending == null) {
+            return;
+        }
+
+        try {
+            pending.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            pending = null;
+        }
+
+        timings.set(renderer.getRenderTimings());
+    }
+
+    @Override
+    public void Init() {
+        renderer.Init();
+    }
+
+    @Override
+    public void ExecuteSetViewSize() {
+        Finish();
+        renderer.ExecuteSetViewSize();
+    }
+
+    @Override
+    public void SetViewSize(int size, int detaillevel) {
+        Finish();
+        renderer.SetViewSize(size, detaillevel);
+    }
+
+    @Override
+    public void resetLimits() {
+        // Comes with a new level
+        Finish();
+        snapshot.invalidate();
+        renderer.resetLimits();
+    }
+
+    @Override
+    public void FillBackScreen() {
+        Finish();
+        renderer.FillBackScreen();
+    }
+
+    @Override
+    public void DrawViewBorder() {
+        Finish();
+        renderer.DrawViewBorder();
+    }
+
+    @Override
+    public void PreCacheThinkers() {
+        Finish();
+        renderer.PreCacheThinkers();
+    }
+
+    /** The renderer's own moves the view around, which the frame being drawn wouldn't like */
+    @Override
+    public long PointToAngle2(int x1, int y1, int x2, int y2) {
+        return RendererState.PointToAngle(x1, y1, x2, y2);
+    }
+
+    @Override
+    public int getValidCount() {
+        return validcount;
+    }
+
+    @Override
+    public void increaseValidCount(int amount) {
+        validcount += amount;
+    }
+
+    /**
+     * Does nothing: the pipeline owns the snapshot its renderer draws from,
+     * and takes it itself for every frame. Another one would only get
+     * overwritten, or drawn from while the game changes it.
+     */
+    @Override
+    public void setSnapshot(RenderSnapshot snapshot) {
+    }
+
+    @Override
+    public boolean isFullHeight() {
+        return renderer.isFullHeight();
+    }
+
+    @Override
+    public boolean getSetSizeNeeded() {
+        return renderer.getSetSizeNeeded();
+    }
+
+    @Override
+    public boolean isFullScreen() {
+        return renderer.isFullScreen();
+    }
+
+    @Override
+    public TextureManager<T> getTextureManager() {
+        return renderer.getTextureManager();
+    }
+
+    @Override
+    public PlaneDrawer<T, V> getPlaneDrawer() {
+        return renderer.getPlaneDrawer();
+    }
+
+    @Override
+    public ViewVars getView() {
+        return renderer.getView();
+    }
+
+    @Override
+    public SpanVars<T, V> getDSVars() {
+        return renderer.getDSVars();
+    }
+
+    @Override
+    public LightsAndColors<V> getColorMap() {
+        return renderer.getColorMap();
+    }
+
+    @Override
+    public IDoomSystem getDoomSystem() {
+        return renderer.getDoomSystem();
+    }
+
+    @Override
+    public IWadLoader getWadLoader() {
+        return renderer.getWadLoader();
+    }
+
+    @Override
+    public Visplanes getVPVars() {
+        return renderer.getVPVars();
+    }
+
+    @Override
+    public SegVars getSegVars() {
+        return renderer.getSegVars();
+    }
+
+    @Override
+    public ISpriteManager getSpriteManager() {
+        return renderer.getSpriteManager();
+    }
+
+    @Override
+    public BSPVars getBSPVars() {
+        return renderer.getBSPVars();
+    }
+
+    @Override
+    public IVisSpriteManagement<V> getVisSpriteManager() {
+        return renderer.getVisSpriteManager();
+    }
+
+    @Override
+    public ColFuncs<T, V> getColFuncsHi() {
+        return renderer.getColFuncsHi();
+    }
+
+    @Override
+    public ColFuncs<T, V> getColFuncsLow() {
+        return renderer.getColFuncsLow();
+    }
+
+    @Override
+    public ColVars<T, V> getMaskedDCVars() {
+        return renderer.getMaskedDCVars();
+    }
+
+    /** Those of the last frame finished, not of the one being drawn */
+    @Override
+    public RenderTimings getRenderTimings() {
+        return timings;
+    }
+}
@@ -0,0 +1,182 @@
+package rr.parallel;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import rr.RenderTimings;
+
+/**
+ * A work stealing pool for the parallel renderers, in place of a fixed number
+ * of threads per stage, each with its fixed share of the work, waiting on
+ * each other at barriers. Stages hand over a range of columns (or of wall
+ * instructions) instead, which is split in halves for idle workers to steal
+ * for as long as they aren't kept busy already, so any worker can help with
+ * any stage, and a stage heavier than usual doesn't leave the others idle.
+ *
+ * Workers still need state of their own to draw with, so every worker gets a
+ * slot, and the work on a range is handed the slot of whoever runs it, to
+ * pick its own executor by. Slots run from 0 to getSlots() - 1, the last one
+ * being the rendering thread's, which may run ranges too while it waits.
+ *
+ * How long each slot spent drawing between beginFrame and endFrame ends up in
+ * the RenderTimings of the frame, so that the pool can be sized by how busy
+ * its workers really are.
+ */
+
+public final class RenderScheduler {
+
+    /** Something to do on a part of a range, with the state of that slot */
+    public interface RangeWork {
+        void run(int slot, int from, int to);
+    }
+
+    /** Stop splitting when a worker has that many tasks queued, no one's short of work */
+    private static final int MAX_SURPLUS = 3;
+    /** Aim for that many pieces per slot at most, even if everyone is idle */
+    private static final int PIECES_PER_SLOT = 8;
+
+    private final ForkJoinPool pool;
+    private final int workers;
+    /** Slots held by live workers */
+    private final boolean[] taken;
+    /** Time spent drawing this frame, by slot. Each is only written by the thread holding the slot */
+    private final long[] busy;
+
+    public RenderScheduler(int workers) {
+        this.workers = workers;
+        this.taken = new boolean[workers];
+        this.busy = new long[workers + 1];
+        this.pool = new ForkJoinPool(workers, this::newWorker, null, false);
+        System.out.println("Render scheduler, " + workers + " workers");
+    }
+
+    /** @return how many sets of state workers need, the rendering thread's included */
+    public int getSlots() {
+        return workers + 1;
+    }
+
+    /**
+     * Starts splitting up the range between from and to, excluded, but doesn't
+     * wait for it to be done.
+     *
+     * @param grain pieces smaller than that aren't worth splitting
+     * @return what to join when the range has to be done
+     */
+    public ForkJoinTask<?> submit(int from, int to, int grain, RangeWork work) {
+        return pool.submit(new Range(work, from, to, grain(from, to, grain), null));
+    }
+
+    /** Does the whole range, from and to excluded, and only then returns */
+    public void invoke(int from, int to, int grain, RangeWork work) {
+        pool.invoke(new Range(work, from, to, grain(from, to, grain), null));
+    }
+
+    private int grain(int from, int to, int grain) {
+        return Math.max(Math.max(1, grain), (to - from) / (getSlots() * PIECES_PER_SLOT));
+    }
+
+    /** Forgets how busy everyone was */
+    public void beginFrame() {
+        Arrays.fill(busy, 0);
+    }
+
+    /** Reports how busy everyone was since beginFrame, with nothing left running */
+    public void endFrame(RenderTimings timings) {
+        timings.setWorkers(busy);
+    }
+
+    private int slot() {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof Worker && ((Worker) thread).getPool() == pool) {
+            return ((Worker) thread).slot;
+        }
+
+        return workers;
+    }
+
+    private synchronized ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        for (int slot = 0; slot < workers; slot++) {
+            if (!taken[slot]) {
+                taken[slot] = true;
+                return new Worker(pool, slot);
+            }
+        }
+
+        // Every slot is held: the pool has to make do without another worker
+        return null;
+    }
+
+    private synchronized void release(int slot) {
+        taken[slot] = false;
+    }
+
+    private final class Worker extends ForkJoinWorkerThread {
+
+        final int slot;
+
+        Worker(ForkJoinPool pool, int slot) {
+            super(pool);
+            this.slot = slot;
+            setName("Render worker " + slot);
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            release(slot);
+            super.onTermination(exception);
+        }
+    }
+
+    /**
+     * Keeps forking off its upper half while it's bigger than the grain and
+     * idle workers may want some, draws what's left, then joins the halves,
+     * drawing those itself that nobody stole.
+     */
+    private final class Range extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeWork work;
+        private final int from, to, grain;
+        /** Next half forked off by the same range */
+        private final Range next;
+
+        Range(RangeWork work, int from, int to, int grain, Range next) {
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            Range forked = null;
+            int end = to;
+
+            while (end - from > grain && getSurplusQueuedTaskCount() <= MAX_SURPLUS) {
+                final int mid = (from + end) >>> 1;
+                forked = new Range(work, mid, end, grain, forked);
+                forked.fork();
+                end = mid;
+            }
+
+            if (from < end) {
+                final int slot = slot();
+                final long start = System.nanoTime();
+                work.run(slot, from, end);
+                busy[slot] += System.nanoTime() - start;
+            }
+
+            for (; forked != null; forked = forked.next) {
+                if (forked.tryUnfork()) {
+                    forked.compute();
+                } else {
+                    forked.join();
+                }
+            }
+        }
+    }
+}
@@ -292,6 +292,28 @@ public abstract class RenderSegExecutor<T,V> implements Runnable, IDetailAware {
 
 	public void run()
 	{
+		render(rw_start, rw_end);
+
+		try {
+			barrier.await();
+		} catch (InterruptedException e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		} catch (BrokenBarrierException e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+
+	}
+
+	/**
+	 * Draws the instructions up to the RSI end, between columns rwstart and
+	 * rwend only, and that's it. For drawing on a RenderScheduler, rather
+	 * than in the screen range set beforehand.
+	 */
+	public void render(int rwstart, int rwend)
+	{
+		setScreenRange(rwstart, rwend);
 
 		RenderSegInstruction<V> rsi;
 
@@ -324,17 +346,6 @@ public abstract class RenderSegExecutor<T,V> implements Runnable, IDetailAware {
 					ProcessRSI(rsi,startx,endx,contained);
 					}
 		} // end-instruction
-	
-		try {
-			barrier.await();
-		} catch (InterruptedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (BrokenBarrierException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-
 	}
 	
 	//protected abstract void ProcessRSI(RenderSegInstruction<V> rsi, int startx,int endx,boolean contained);
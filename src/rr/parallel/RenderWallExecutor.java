@@ -56,9 +56,7 @@ public class RenderWallExecutor<T,V>
 
         // System.out.println("Wall executor from "+start +" to "+ end);
 
-        for (int i = start; i < end; i++) {
-            colfunc.invoke(RWI[i]);
-        }
+        draw(start, end);
 
         try {
             barrier.await();
@@ -69,6 +67,16 @@ public class RenderWallExecutor<T,V>
         }
     }
 
+    /**
+     * Draws instructions from start to end, excluded, and that's it. For
+     * drawing on a RenderScheduler, rather than in a range set beforehand.
+     */
+    public void draw(int start, int end) {
+        for (int i = start; i < end; i++) {
+            colfunc.invoke(RWI[i]);
+        }
+    }
+
     public void updateRWI(ColVars<T,V>[] RWI) {
         this.RWI = RWI;
 
@@ -101,6 +101,25 @@ public abstract class VisplaneWorker2<T,V> extends PlaneDrawer<T,V> implements R
     
     @Override
     public void run() {
+        render((id * view.width) / NUMFLOORTHREADS, ((id + 1) * view.width) / NUMFLOORTHREADS);
+
+        // We're done, wait.
+
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            // TODO Auto-generated catch block
+            e.printStackTrace();
+        }
+        // TODO Auto-generated catch block
+    }
+
+    /**
+     * Draws all visplanes, between columns startvp and endvp only, and that's
+     * it. For drawing on a RenderScheduler, rather than in the worker's own
+     * share of the screen.
+     */
+    public void render(int startvp, int endvp) {
         pln = null; //visplane_t
         // These must override the global ones
 
@@ -114,8 +133,8 @@ public abstract class VisplaneWorker2<T,V> extends PlaneDrawer<T,V> implements R
         vpw_basexscale = vpvars.getBaseXScale();
         vpw_baseyscale = vpvars.getBaseYScale();
 
-        startvp = ((id * view.width) / NUMFLOORTHREADS);
-        endvp = (((id + 1) * view.width) / NUMFLOORTHREADS);
+        this.startvp = startvp;
+        this.endvp = endvp;
 
         // TODO: find a better way to split work. As it is, it's very uneven
         // and merged visplanes in particular are utterly dire.
@@ -213,15 +232,6 @@ public abstract class VisplaneWorker2<T,V> extends PlaneDrawer<T,V> implements R
             }
 
         }
-        // We're done, wait.
-
-        try {
-            barrier.await();
-        } catch (InterruptedException | BrokenBarrierException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        // TODO Auto-generated catch block
     }
         
     private boolean isMarker(int t1) {
@@ -71,6 +71,10 @@ public class sector_t implements IReadableDoomObject, IPackableDoomObject, Reset
     /** if == validcount, already checked */
     public int validcount;
 
+    /** (fixed_t) Heights before the tic prevtic, to draw it part of the way between tics */
+    public int prevfloorheight, prevceilingheight;
+    public int prevtic = -1;
+
     /** list of mobjs in sector (MAES: it's used as a linked list) */
     public mobj_t thinglist;
 
@@ -309,6 +313,8 @@ public class sector_t implements IReadableDoomObject, IPackableDoomObject, Reset
         memset(blockbox, 0, blockbox.length);
         soundorg = null;
         validcount = 0;
+        prevfloorheight = prevceilingheight = 0;
+        prevtic = -1;
         thinglist = null;
         specialdata = null;
         linecount = 0;
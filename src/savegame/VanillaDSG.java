@@ -385,17 +385,13 @@ public class VanillaDSG<T, V> implements IDoomSaveGame {
     //
     @P_SaveG.C(P_ArchiveThinkers)
     protected void ArchiveThinkers() throws IOException {
-        thinker_t th;
-        mobj_t mobj;
-
         // save off the current thinkers
-        for (th = DOOM.actions.getThinkerCap().next; th != DOOM.actions.getThinkerCap(); th = th.next) {
-            if (th.thinkerFunction != null && th.thinkerFunction == P_MobjThinker) {
+        for (mobj_t mobj : DOOM.actions.getThinkers(mobj_t.class)) {
+            if (mobj.thinkerFunction != null && mobj.thinkerFunction == P_MobjThinker) {
                 // Indicate valid thinker
                 fo.writeByte(thinkerclass_t.tc_mobj.ordinal());
                 // Pad...
                 PADSAVEP(fo);
-                mobj = (mobj_t) th;
                 mobj.write(fo);
 
                 // MAES: state is explicit in state.id
@@ -30,6 +30,11 @@ public class DelegateTicker implements ITicker {
     public int GetTime() {
         return currentTicker.GetTime();
     }
+
+    @Override
+    public int GetTimeFrac() {
+        return currentTicker.GetTimeFrac();
+    }
     
     public void changeTicker() {
         if (currentTicker == nt) {
@@ -4,6 +4,7 @@ import doom.CVarManager;
 import doom.CommandVariable;
 import doom.SourceCode.I_IBM;
 import static doom.SourceCode.I_IBM.*;
+import static m.fixed_t.FRACUNIT;
 
 public interface ITicker {
 
@@ -19,4 +20,13 @@ public interface ITicker {
     
     @I_IBM.C(I_GetTime)
     public int GetTime();
+
+    /**
+     * How far into the current tic the time is, in FRACUNIT parts of a tic,
+     * for drawing frames in between tics. Tickers that don't keep real time
+     * are at the end of a tic all the time.
+     */
+    default int GetTimeFrac() {
+        return FRACUNIT;
+    }
 }
\ No newline at end of file
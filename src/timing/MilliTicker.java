@@ -1,6 +1,7 @@
 package timing;
 
 import static data.Defines.TICRATE;
+import static m.fixed_t.FRACUNIT;
 
 public class MilliTicker
         implements ITicker {
@@ -21,7 +22,21 @@ public class MilliTicker
             basetime = tp;
         }
         newtics = (int) (((tp - basetime) * TICRATE) / 1000);
-        return newtics;
+        return (oldtics = newtics);
+    }
+
+    /**
+     * Only within the tic GetTime last told about: once the next one is due,
+     * it's at the end of that one until GetTime is asked again.
+     */
+    @Override
+    public int GetTimeFrac() {
+        final long time = (System.currentTimeMillis() - basetime) * TICRATE;
+        if (basetime == 0 || time / 1000 != oldtics) {
+            return FRACUNIT;
+        }
+
+        return (int) ((time % 1000) * FRACUNIT / 1000);
     }
     
     protected volatile long basetime=0;
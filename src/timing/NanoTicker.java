@@ -1,6 +1,7 @@
 package timing;
 
 import static data.Defines.TICRATE;
+import static m.fixed_t.FRACUNIT;
 
 public class NanoTicker
         implements ITicker {
@@ -30,6 +31,20 @@ public class NanoTicker
         return (oldtics = newtics);
     }
 
+    /**
+     * Only within the tic GetTime last told about: once the next one is due,
+     * it's at the end of that one until GetTime is asked again.
+     */
+    @Override
+    public int GetTimeFrac() {
+        final long time = (System.nanoTime() - basetime) * TICRATE;
+        if (basetime == 0 || time / 1000000000 != oldtics) {
+            return FRACUNIT;
+        }
+
+        return (int) ((time % 1000000000) * FRACUNIT / 1000000000);
+    }
+
     protected volatile long basetime=0;
     protected volatile int oldtics=0;
     protected volatile int discrepancies;
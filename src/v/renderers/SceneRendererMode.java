@@ -25,6 +25,7 @@ import rr.SceneRenderer;
 import rr.UnifiedRenderer;
 import rr.parallel.ParallelRenderer;
 import rr.parallel.ParallelRenderer2;
+import rr.parallel.ParallelRenderer3;
 
 /**
  * This class helps to choose between scene renderers
@@ -32,16 +33,22 @@ import rr.parallel.ParallelRenderer2;
 public enum SceneRendererMode {
     Serial(UnifiedRenderer.Indexed::new, UnifiedRenderer.HiColor::new, UnifiedRenderer.TrueColor::new),
     Parallel(SceneRendererMode::Parallel_8, SceneRendererMode::Parallel_16, SceneRendererMode::Parallel_32),
-    Parallel2(SceneRendererMode::Parallel2_8, SceneRendererMode::Parallel2_16, SceneRendererMode::Parallel2_32);
+    Parallel2(SceneRendererMode::Parallel2_8, SceneRendererMode::Parallel2_16, SceneRendererMode::Parallel2_32),
+    Parallel3(SceneRendererMode::Parallel3_8, SceneRendererMode::Parallel3_16, SceneRendererMode::Parallel3_32);
     
     private static final boolean cVarSerial = Engine.getCVM().bool(CommandVariable.SERIALRENDERER);
     private static final boolean cVarParallel = Engine.getCVM().present(CommandVariable.PARALLELRENDERER);
     private static final boolean cVarParallel2 = Engine.getCVM().present(CommandVariable.PARALLELRENDERER2);
+    private static final boolean cVarParallel3 = Engine.getCVM().present(CommandVariable.PARALLELRENDERER3);
     private static final int[] threads = cVarSerial ? null : cVarParallel
         ? parseSwitchConfig(CommandVariable.PARALLELRENDERER)
         : cVarParallel2
             ? parseSwitchConfig(CommandVariable.PARALLELRENDERER2)
             : new int[]{2, 2, 2};
+    private static final int strips = Math.max(1, cVarParallel3
+        ? Engine.getCVM().get(CommandVariable.PARALLELRENDERER3, Integer.class, 0)
+            .orElse(Engine.getConfig().getValue(Settings.parallelism_scene_strips, Integer.class))
+        : Engine.getConfig().getValue(Settings.parallelism_scene_strips, Integer.class));
             
     final SG<byte[], byte[]> indexedGen;
     final SG<byte[], short[]> hicolorGen;
@@ -79,6 +86,11 @@ public enum SceneRendererMode {
              * If we have parallelrenderer2 on command line, it will still override config setting
              */
             return Parallel2;
+        } else if (cVarParallel3) {
+            /**
+             * Same for parallelrenderer3, optionally followed by the number of strips
+             */
+            return Parallel3;
         }
 
         /**
@@ -113,5 +125,17 @@ public enum SceneRendererMode {
         return new ParallelRenderer2.TrueColor(DOOM, threads[0], threads[1], threads[2]);
     }
     
+    private static SceneRenderer<byte[], byte[]> Parallel3_8(DoomMain<byte[], byte[]> DOOM) {
+        return new ParallelRenderer3<>(DOOM, strips, UnifiedRenderer.Indexed::new);
+    }
+    
+    private static SceneRenderer<byte[], short[]> Parallel3_16(DoomMain<byte[], short[]> DOOM) {
+        return new ParallelRenderer3<>(DOOM, strips, UnifiedRenderer.HiColor::new);
+    }
+    
+    private static SceneRenderer<byte[], int[]> Parallel3_32(DoomMain<byte[], int[]> DOOM) {
+        return new ParallelRenderer3<>(DOOM, strips, UnifiedRenderer.TrueColor::new);
+    }
+    
     interface SG<T, V> extends Function<DoomMain<T, V>, SceneRenderer<T, V>> {}
 }
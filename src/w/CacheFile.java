@@ -0,0 +1,70 @@
+package w;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Reading and writing of the small files things get cached in between runs,
+ * like the lump directory or built REJECT tables.
+ *
+ * They're written to a temporary file next to them and then moved in place,
+ * so that concurrent instances never see half of one, and read back whole
+ * rather than mapped, since a mapped file can't be replaced on some systems
+ * until the mapping is garbage collected.
+ */
+
+public final class CacheFile {
+
+    private CacheFile() {
+    }
+
+    /** What goes into a cache file */
+    @FunctionalInterface
+    public interface Contents {
+        void write(DataOutputStream dos) throws IOException;
+    }
+
+    /**
+     * @return all of the file, to parse
+     * @throws IOException
+     */
+    public static ByteBuffer read(File file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Replaces the file with what contents writes, creating its directory if
+     * needed. On failure, the file is left as it was.
+     *
+     * @throws IOException
+     */
+    public static void write(File file, Contents contents) throws IOException {
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+
+        final File temp = File.createTempFile(file.getName(), ".tmp", dir);
+
+        try {
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                contents.write(dos);
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+    }
+}
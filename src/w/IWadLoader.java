@@ -208,6 +208,33 @@ public interface IWadLoader {
      */
     public abstract int[] CheckNumsForName(String name);
 
+    /**
+     * Boom's namespaced W_CheckNumForName: only lumps coalesced into the given
+     * namespace (e.g. between F_START/F_END for flats) are considered.
+     *
+     * @param name
+     * @param namespace
+     * @return the most recent lump with that name in that namespace, or -1
+     */
+    public abstract int CheckNumForName(String name, li_namespace namespace);
+
+    /**
+     * All the lumps in a namespace, markers included, in ascending order.
+     *
+     * @param namespace
+     * @return
+     */
+    public abstract int[] GetNamespaceLumps(li_namespace namespace);
+
+    /**
+     * All the lumps in the sprite namespace belonging to a given sprite,
+     * i.e. starting with the same 4 letters, more recent ones first.
+     *
+     * @param name
+     * @return
+     */
+    public abstract int[] CheckNumsForSprite(String name);
+
     public abstract lumpinfo_t GetLumpInfo(int i);
 
     /**
@@ -227,6 +254,16 @@ public interface IWadLoader {
 
     void UnlockLumpNum(CacheableDoomObject lump);
 
+    /**
+     * Z_FreeTags, as far as cached lumps are concerned: release every lump
+     * last cached with a tag between lowtag and hightag, inclusive. Called
+     * with PU_LEVEL, PU_PURGELEVEL-1 on level change.
+     *
+     * @param lowtag
+     * @param hightag
+     */
+    void FreeTags(int lowtag, int hightag);
+
     public <T extends CacheableDoomObject> T[] CacheLumpNumIntoArray(int lump, int num, ArraySupplier<T> what, IntFunction<T[]> arrGen);
 
     /**
@@ -273,6 +310,17 @@ public interface IWadLoader {
     @W_Wad.C(W_ReadLump)
     byte[] ReadLump(int lump);
 
+    /**
+     * Read-only, little-endian view of a lump's contents, positioned at its
+     * start. For memory-mapped files this is a slice of the mapping and
+     * no copy is made at all, otherwise the lump is read once and wrapped.
+     * Not cached: unpack what you need from it and let it go.
+     *
+     * @param lump
+     * @return
+     */
+    ByteBuffer ReadLumpBuffer(int lump);
+
     /**
      * Use your own buffer, of proper size of course.
      *
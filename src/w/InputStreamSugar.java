@@ -1,11 +1,14 @@
 package w;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -170,6 +173,13 @@ public class InputStreamSugar {
         if (is == null)
             return is;
 
+        // Contents already in memory, e.g. an inflated zip entry. Easy.
+        if (is instanceof ByteArrayInputStream) {
+            is.reset();
+            is.skip(pos);
+            return is;
+        }
+
         // If we know our actual position in the stream, we can aid seeking
         // forward
 
@@ -248,6 +258,53 @@ public class InputStreamSugar {
         return is;
     }
 
+    /**
+     * Reads a stream to its end, e.g. to inflate a whole zip entry at once.
+     * 
+     * @param is
+     * @param size expected size if known, or -1
+     * @return everything that was read
+     * @throws IOException
+     */
+    
+    public static byte[] readFully(InputStream is, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            return readRest(is);
+        }
+        
+        byte[] buf = new byte[(int) size];
+        int read = 0, c;
+        while (read < buf.length && (c = is.read(buf, read, buf.length - read)) > 0) {
+            read += c;
+        }
+        
+        // Lying entry sizes: take whatever is really there.
+        if (read < buf.length) {
+            return Arrays.copyOf(buf, read);
+        }
+        
+        byte[] rest = readRest(is);
+        if (rest.length > 0) {
+            byte[] all = Arrays.copyOf(buf, read + rest.length);
+            System.arraycopy(rest, 0, all, read, rest.length);
+            return all;
+        }
+        
+        return buf;
+    }
+
+    /** Whatever is left of the stream, InputStream.readAllBytes being Java 9 */
+    private static byte[] readRest(InputStream is) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[8192];
+        int c;
+        while ((c = is.read(chunk)) > 0) {
+            out.write(chunk, 0, c);
+        }
+
+        return out.toByteArray();
+    }
+
     public static List<ZipEntry> getAllEntries(ZipInputStream zis)
             throws IOException {
         ArrayList<ZipEntry> zes = new ArrayList<ZipEntry>();
@@ -0,0 +1,235 @@
+package w;
+
+import static data.Defines.PU_PURGELEVEL;
+import java.util.HashMap;
+
+/**
+ * What's left of the zone memory allocator, as far as lumps are concerned.
+ *
+ * Holds the deserialized lumps of a WadLoader, along with the PU_* tag they
+ * were last requested with, and gives the tags their vanilla meaning again:
+ *
+ *  - below PU_LEVEL: static, only released by an explicit unlock.
+ *  - PU_LEVEL up to PU_PURGELEVEL-1: released by FreeTags on level change.
+ *  - PU_PURGELEVEL and above (PU_CACHE): purgeable. These are kept in least
+ *    recently used order, and the oldest ones are evicted whenever the memory
+ *    budget is exceeded.
+ *
+ * Memory use is approximated by the on-disk size of each lump, which is what
+ * Z_Malloc would have charged for it. A budget <= 0 means no limit.
+ *
+ * The renderers may cache patches from several threads, so all access is
+ * synchronized.
+ */
+
+public class LumpCache {
+
+    private static final int NIL = -1;
+
+    private final CacheableDoomObject[] objects;
+    private final int[] tags;
+    private final long[] sizes;
+
+    /** Intrusive LRU list of purgeable entries, most recent at the head */
+    private final int[] prev, next;
+    private int head = NIL, tail = NIL;
+
+    /** Reverse lookup, so that objects can be unlocked by reference */
+    private final HashMap<CacheableDoomObject, Integer> zone;
+
+    private final long budget;
+    private long used;
+    private long hits, misses, evictions;
+
+    public LumpCache(int numlumps, long budget) {
+        this.objects = new CacheableDoomObject[numlumps];
+        this.tags = new int[numlumps];
+        this.sizes = new long[numlumps];
+        this.prev = new int[numlumps];
+        this.next = new int[numlumps];
+        this.zone = new HashMap<>();
+        this.budget = budget;
+    }
+
+    /**
+     * Cache lookup. Counts as a hit or a miss, and on a hit changes the tag
+     * to the one requested (Z_ChangeTag) and marks the lump as recently used.
+     *
+     * @param lump
+     * @param tag
+     * @return the cached object, or null
+     */
+    public synchronized CacheableDoomObject lookup(int lump, int tag) {
+        final CacheableDoomObject obj = objects[lump];
+
+        if (obj == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        unlink(lump);
+        tags[lump] = tag;
+        link(lump);
+        return obj;
+    }
+
+    /** Just what's in the cache, no bookkeeping. */
+    public synchronized CacheableDoomObject peek(int lump) {
+        return objects[lump];
+    }
+
+    /**
+     * Cache a lump, replacing anything already there, then evict purgeable
+     * lumps until the budget is met again. The lump just stored is never
+     * evicted by its own insertion.
+     *
+     * @param lump
+     * @param obj
+     * @param tag
+     * @param size approximate memory cost, in bytes
+     */
+    public synchronized void put(int lump, CacheableDoomObject obj, int tag, long size) {
+        remove(lump);
+
+        objects[lump] = obj;
+        tags[lump] = tag;
+        sizes[lump] = size;
+        used += size;
+        zone.put(obj, lump);
+        link(lump);
+
+        if (budget > 0) {
+            for (int victim = tail; used > budget && victim != NIL; victim = tail) {
+                if (victim == lump) {
+                    break;
+                }
+
+                remove(victim);
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Forget about a lump, whatever its tag.
+     *
+     * @param lump
+     * @return the object that was cached, or null
+     */
+    public synchronized CacheableDoomObject remove(int lump) {
+        final CacheableDoomObject obj = objects[lump];
+
+        if (obj != null) {
+            unlink(lump);
+            zone.remove(obj);
+            used -= sizes[lump];
+            objects[lump] = null;
+            sizes[lump] = 0;
+        }
+
+        return obj;
+    }
+
+    /**
+     * Forget about a lump by reference, if it's still cached.
+     *
+     * @param obj
+     */
+    public synchronized void remove(CacheableDoomObject obj) {
+        final Integer lump = zone.get(obj);
+
+        if (lump != null) {
+            remove(lump);
+        }
+    }
+
+    /**
+     * Z_FreeTags: release every lump with a tag in the given range.
+     *
+     * @param lowtag
+     * @param hightag
+     * @return number of lumps released
+     */
+    public synchronized int freeTags(int lowtag, int hightag) {
+        int freed = 0;
+
+        for (int i = 0; i < objects.length; i++) {
+            if (objects[i] != null && tags[i] >= lowtag && tags[i] <= hightag) {
+                remove(i);
+                freed++;
+            }
+        }
+
+        return freed;
+    }
+
+    public synchronized long getUsed() {
+        return used;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("W_Cache: %d hits, %d misses, %d evictions, %d of %s bytes used",
+            hits, misses, evictions, used, budget > 0 ? Long.toString(budget) : "unlimited");
+    }
+
+    /** Only purgeable lumps take part in the LRU list */
+    private void link(int lump) {
+        if (tags[lump] < PU_PURGELEVEL) {
+            prev[lump] = next[lump] = NIL;
+            return;
+        }
+
+        prev[lump] = NIL;
+        next[lump] = head;
+
+        if (head != NIL) {
+            prev[head] = lump;
+        }
+
+        head = lump;
+
+        if (tail == NIL) {
+            tail = lump;
+        }
+    }
+
+    private void unlink(int lump) {
+        if (tags[lump] < PU_PURGELEVEL) {
+            return;
+        }
+
+        final int p = prev[lump], n = next[lump];
+
+        if (p != NIL) {
+            next[p] = n;
+        } else if (head == lump) {
+            head = n;
+        }
+
+        if (n != NIL) {
+            prev[n] = p;
+        } else if (tail == lump) {
+            tail = p;
+        }
+
+        prev[lump] = next[lump] = NIL;
+    }
+}
@@ -0,0 +1,280 @@
+package w;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+import mochadoom.Loggers;
+import utils.C2JUtils;
+
+/**
+ * On-disk cache of the fully resolved lump directory, that is, what
+ * InitMultipleFiles ends up with after reading every wad directory and
+ * coalescing the marked resources.
+ *
+ * It's only valid for the exact same list of files, each one identified by
+ * its path, size, modification time and a checksum of its header, so any
+ * change to the wad stack just makes it miss and get rewritten. Only plain
+ * local files qualify: zipped or network resources are never cached, and
+ * neither are reloadable (~) files.
+ *
+ * The cache file is a small binary blob, written and read back whole through
+ * CacheFile. Anything unexpected in it is simply treated as a miss.
+ */
+
+public class LumpDirectoryCache {
+
+    /** "MDLD" */
+    private static final int MAGIC = 0x4D444C44;
+    private static final int VERSION = 2;
+    /** How much of each file goes into the header checksum */
+    private static final int HEADER_SIZE = 12;
+
+    private final File file;
+
+    public LumpDirectoryCache(String filename) {
+        this.file = new File(filename);
+    }
+
+    /**
+     * Identity of a single resource file, as far as the cache is concerned.
+     */
+    public static class Key {
+        /** As given, since single lump names are derived from it */
+        public final String uri;
+        public final String path;
+        public final long size;
+        public final long mtime;
+        public final int crc;
+
+        Key(String uri, String path, long size, long mtime, int crc) {
+            this.uri = uri;
+            this.path = path;
+            this.size = size;
+            this.mtime = mtime;
+            this.crc = crc;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key k = (Key) o;
+            return uri.equals(k.uri) && path.equals(k.path)
+                && size == k.size && mtime == k.mtime && crc == k.crc;
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode() ^ crc;
+        }
+    }
+
+    /**
+     * The directory as it was cached. The wadfiles only have their name,
+     * source and size limit filled in, opening them is up to the loader.
+     * Every lump refers to one of these wadfiles (or none), and has no
+     * handle yet.
+     */
+    public static class Directory {
+        public final wadfile_info_t[] wadfiles;
+        public final lumpinfo_t[] lumpinfo;
+
+        Directory(wadfile_info_t[] wadfiles, lumpinfo_t[] lumpinfo) {
+            this.wadfiles = wadfiles;
+            this.lumpinfo = lumpinfo;
+        }
+    }
+
+    /**
+     * Works out the keys for the files InitMultipleFiles would load.
+     *
+     * @param filenames as passed to InitMultipleFiles. null entries are skipped.
+     * @return one key per non-null file name, or null if any of them is not a
+     * plain, readable local file, in which case there's no caching at all.
+     */
+    public static Key[] keysFor(String[] filenames) {
+        int count = 0;
+        for (String s : filenames) {
+            if (s != null) {
+                count++;
+            }
+        }
+
+        final Key[] keys = new Key[count];
+        int k = 0;
+
+        for (String s : filenames) {
+            if (s == null) {
+                continue;
+            }
+
+            if (s.isEmpty() || s.charAt(0) == '~' || !C2JUtils.testReadAccess(s)
+                || C2JUtils.guessResourceType(s) != InputStreamSugar.FILE) {
+                return null;
+            }
+
+            final File f = new File(s);
+            if (!f.isFile()) {
+                return null;
+            }
+
+            try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+                final byte[] header = new byte[(int) Math.min(HEADER_SIZE, raf.length())];
+                raf.readFully(header);
+
+                final CRC32 crc = new CRC32();
+                crc.update(header);
+                keys[k++] = new Key(s, f.getAbsolutePath(), f.length(), f.lastModified(), (int) crc.getValue());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * @param keys the files about to be loaded, see {@link #keysFor}
+     * @return the cached directory for exactly those files, or null on a miss
+     */
+    public Directory load(Key[] keys) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            final ByteBuffer buf = CacheFile.read(file);
+
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION || buf.getInt() != keys.length) {
+                return null;
+            }
+
+            final wadfile_info_t[] wadfiles = new wadfile_info_t[keys.length];
+            final wad_source_t[] sources = wad_source_t.values();
+
+            for (int i = 0; i < keys.length; i++) {
+                final Key key = new Key(getString(buf), getString(buf), buf.getLong(), buf.getLong(), buf.getInt());
+                if (!key.equals(keys[i])) {
+                    return null;
+                }
+
+                final int src = buf.get();
+                wadfiles[i] = new wadfile_info_t();
+                wadfiles[i].name = key.uri;
+                wadfiles[i].type = InputStreamSugar.FILE;
+                wadfiles[i].src = (src < 0) ? null : sources[src];
+                wadfiles[i].maxsize = buf.getLong();
+            }
+
+            final lumpinfo_t[] lumpinfo = new lumpinfo_t[buf.getInt()];
+            final li_namespace[] namespaces = li_namespace.values();
+
+            for (int i = 0; i < lumpinfo.length; i++) {
+                final lumpinfo_t l = lumpinfo[i] = new lumpinfo_t();
+                final int wad = buf.getShort();
+                final int ns = buf.get();
+
+                l.wadfile = (wad < 0) ? null : wadfiles[wad];
+                l.namespace = (ns < 0) ? null : namespaces[ns];
+                l.name = getString(buf);
+                l.position = buf.getLong();
+                l.size = buf.getLong();
+                l.hash = buf.getInt();
+                l.intname = buf.getInt();
+            }
+
+            return new Directory(wadfiles, lumpinfo);
+        } catch (IOException | RuntimeException e) {
+            Loggers.getLogger(LumpDirectoryCache.class.getName()).log(Level.WARNING, String.format(
+                "Ignoring unreadable lump directory cache %s", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the cached directory. Failing to do so is not fatal.
+     *
+     * @param keys the files that were loaded, see {@link #keysFor}
+     * @param wadfiles the wadfiles they ended up as, in the same order
+     * @param lumpinfo
+     * @param numlumps
+     */
+    public void save(Key[] keys, List<wadfile_info_t> wadfiles, lumpinfo_t[] lumpinfo, int numlumps) {
+        // A file that couldn't be opened doesn't make a wadfile, don't guess.
+        if (wadfiles.size() != keys.length) {
+            return;
+        }
+
+        final IdentityHashMap<wadfile_info_t, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            index.put(wadfiles.get(i), i);
+        }
+
+        try {
+            CacheFile.write(file, dos -> {
+                dos.writeInt(MAGIC);
+                dos.writeInt(VERSION);
+                dos.writeInt(keys.length);
+
+                for (int i = 0; i < keys.length; i++) {
+                    final wadfile_info_t wad = wadfiles.get(i);
+                    putString(dos, keys[i].uri);
+                    putString(dos, keys[i].path);
+                    dos.writeLong(keys[i].size);
+                    dos.writeLong(keys[i].mtime);
+                    dos.writeInt(keys[i].crc);
+                    dos.writeByte((wad.src == null) ? -1 : wad.src.ordinal());
+                    dos.writeLong(wad.maxsize);
+                }
+
+                dos.writeInt(numlumps);
+
+                for (int i = 0; i < numlumps; i++) {
+                    final lumpinfo_t l = lumpinfo[i];
+                    final Integer wad = (l.wadfile == null) ? null : index.get(l.wadfile);
+                    dos.writeShort((wad == null) ? -1 : wad);
+                    dos.writeByte((l.namespace == null) ? -1 : l.namespace.ordinal());
+                    putString(dos, l.name);
+                    dos.writeLong(l.position);
+                    dos.writeLong(l.size);
+                    dos.writeInt(l.hash);
+                    dos.writeInt(l.intname);
+                }
+            });
+        } catch (IOException e) {
+            Loggers.getLogger(LumpDirectoryCache.class.getName()).log(Level.WARNING, String.format(
+                "Could not write lump directory cache %s", file), e);
+        }
+    }
+
+    private static void putString(DataOutputStream dos, String s) throws IOException {
+        if (s == null) {
+            dos.writeInt(-1);
+            return;
+        }
+
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        final int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
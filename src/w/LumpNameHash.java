@@ -0,0 +1,178 @@
+package w;
+
+import java.util.Arrays;
+
+/**
+ * Killough's chained lump hash, done with primitives this time.
+ *
+ * Lump names are packed into a long, 8 ASCII characters uppercased, the
+ * same way name8 does it. These keys live in an open-addressed table
+ * with linear probing. Each slot points to the most recent lump with that
+ * name, and every lump points to the previous one with the same name,
+ * so all the lumps of a given name can be walked newest first, without
+ * looking at any other lump.
+ *
+ * Lookups allocate nothing. The packed key is only 8 characters, so
+ * candidates are still checked against the full name. Single lump files
+ * may have longer names than that.
+ *
+ * It can also index just a subset of the lumps (e.g. a namespace), and
+ * key on a name prefix instead (e.g. the 4 letters of a sprite).
+ */
+
+public class LumpNameHash {
+
+    private static final int NONE = -1;
+
+    private final lumpinfo_t[] lumpinfo;
+    private final long[] keys;
+    /** Most recent lump for each slot, NONE if the slot is empty */
+    private final int[] heads;
+    /** Previous lump with the same name, for each lump */
+    private final int[] chain;
+    private final int mask;
+    /** How many leading characters make the key, 0 for the whole name */
+    private final int prefix;
+
+    /** All lumps, by full name */
+    public LumpNameHash(lumpinfo_t[] lumpinfo, int numlumps) {
+        this(lumpinfo, null, numlumps, 0);
+    }
+
+    /**
+     * @param lumpinfo
+     * @param lumps the lumps to index, in ascending order. null means 0..count-1
+     * @param count
+     * @param prefix match only this many leading characters (1 to 8), 0 for whole names
+     */
+    public LumpNameHash(lumpinfo_t[] lumpinfo, int[] lumps, int count, int prefix) {
+        int capacity = 16;
+        while (capacity < count * 2) {
+            capacity <<= 1;
+        }
+
+        this.lumpinfo = lumpinfo;
+        this.keys = new long[capacity];
+        this.heads = new int[capacity];
+        this.chain = new int[count == 0 ? 0 : lumpAt(lumps, count - 1) + 1];
+        this.mask = capacity - 1;
+        this.prefix = prefix;
+
+        Arrays.fill(heads, NONE);
+
+        // Insert in first-to-last lump order, so that the last lump of a given
+        // name heads its chain, observing pwad ordering rules. killough
+        for (int n = 0; n < count; n++) {
+            final int i = lumpAt(lumps, n);
+            final long key = packName(lumpinfo[i].name, prefix);
+            final int slot = findSlot(key);
+
+            if (heads[slot] == NONE) {
+                keys[slot] = key;
+                chain[i] = NONE;
+            } else {
+                chain[i] = heads[slot];
+            }
+
+            heads[slot] = i;
+        }
+    }
+
+    /**
+     * @param name
+     * @return the most recent lump with that name, or -1
+     */
+    public int first(String name) {
+        if (name == null) {
+            return NONE;
+        }
+
+        return matching(heads[findSlot(packName(name, prefix))], name);
+    }
+
+    /**
+     * @param lump a lump returned by first() or next()
+     * @param name the name it was looked up with
+     * @return the previous lump with that name, or -1
+     */
+    public int next(int lump, String name) {
+        return matching(chain[lump], name);
+    }
+
+    /**
+     * @param name
+     * @return how many lumps have that name
+     */
+    public int count(String name) {
+        int count = 0;
+        for (int i = first(name); i != NONE; i = next(i, name)) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /** Skip down a chain until a lump with exactly this name (or prefix) comes up */
+    private int matching(int lump, String name) {
+        while (lump != NONE && !matches(lumpinfo[lump].name, name)) {
+            lump = chain[lump];
+        }
+
+        return lump;
+    }
+
+    private boolean matches(String lumpname, String name) {
+        if (prefix == 0) {
+            return name.equalsIgnoreCase(lumpname);
+        }
+
+        return lumpname != null && lumpname.length() >= prefix && name.length() >= prefix
+            && lumpname.regionMatches(true, 0, name, 0, prefix);
+    }
+
+    private static int lumpAt(int[] lumps, int n) {
+        return (lumps == null) ? n : lumps[n];
+    }
+
+    /** Linear probing: either the slot with this key, or the empty slot it would go */
+    private int findSlot(long key) {
+        int slot = hash(key) & mask;
+
+        while (heads[slot] != NONE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Same layout as name8.getLongHash, first character in the high byte,
+     * but uppercased on the fly and without any intermediate arrays.
+     *
+     * @param name
+     * @return
+     */
+    public static long packName(String name) {
+        return packName(name, 0);
+    }
+
+    /** Only the first few characters, if prefix > 0 */
+    public static long packName(String name, int prefix) {
+        long key = 0;
+        final int len = (name == null) ? 0 : Math.min(prefix > 0 ? prefix : 8, name.length());
+
+        for (int i = 0; i < 8; i++) {
+            key <<= 8;
+            if (i < len) {
+                key |= Character.toUpperCase(name.charAt(i)) & 0xFF;
+            }
+        }
+
+        return key;
+    }
+}
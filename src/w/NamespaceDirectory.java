@@ -0,0 +1,85 @@
+package w;
+
+/**
+ * Per-namespace view of the lump directory, built once the marked resources
+ * have been coalesced, so that flats and sprites can be listed and looked up
+ * by name without scanning the whole lump directory, and without picking up
+ * some unrelated lump that happens to share a name.
+ *
+ * killough 4/17/98: namespaces were meant for exactly that.
+ */
+
+public class NamespaceDirectory {
+
+    private static final li_namespace[] NAMESPACES = li_namespace.values();
+
+    /** For each namespace, its lumps in ascending order */
+    private final int[][] lumps;
+    /** For each namespace, a name index of its lumps */
+    private final LumpNameHash[] names;
+    /** Sprite lumps, keyed on their first 4 letters */
+    private final LumpNameHash sprites;
+
+    public NamespaceDirectory(lumpinfo_t[] lumpinfo, int numlumps) {
+        final int[] counts = new int[NAMESPACES.length];
+
+        for (int i = 0; i < numlumps; i++) {
+            counts[namespaceOf(lumpinfo[i]).ordinal()]++;
+        }
+
+        lumps = new int[NAMESPACES.length][];
+        for (int ns = 0; ns < NAMESPACES.length; ns++) {
+            lumps[ns] = new int[counts[ns]];
+            counts[ns] = 0;
+        }
+
+        for (int i = 0; i < numlumps; i++) {
+            final int ns = namespaceOf(lumpinfo[i]).ordinal();
+            lumps[ns][counts[ns]++] = i;
+        }
+
+        names = new LumpNameHash[NAMESPACES.length];
+        for (int ns = 0; ns < NAMESPACES.length; ns++) {
+            names[ns] = new LumpNameHash(lumpinfo, lumps[ns], lumps[ns].length, 0);
+        }
+
+        final int[] spritelumps = lumps[li_namespace.ns_sprites.ordinal()];
+        sprites = new LumpNameHash(lumpinfo, spritelumps, spritelumps.length, 4);
+    }
+
+    /**
+     * @param namespace
+     * @return the lumps in that namespace, in ascending order. Don't modify it.
+     */
+    public int[] getLumps(li_namespace namespace) {
+        return lumps[namespace.ordinal()];
+    }
+
+    /**
+     * @param name
+     * @param namespace
+     * @return the most recent lump with that name in that namespace, or -1
+     */
+    public int checkNumForName(String name, li_namespace namespace) {
+        return names[namespace.ordinal()].first(name);
+    }
+
+    /**
+     * @param name a sprite name, only the first 4 letters count
+     * @return all sprite lumps for it, most recent first
+     */
+    public int[] checkNumsForSprite(String name) {
+        final int[] result = new int[sprites.count(name)];
+
+        for (int i = sprites.first(name), k = 0; i != -1; i = sprites.next(i, name)) {
+            result[k++] = i;
+        }
+
+        return result;
+    }
+
+    /** Lumps never tagged by coalescing are global */
+    private static li_namespace namespaceOf(lumpinfo_t lump) {
+        return (lump.namespace == null) ? li_namespace.ns_global : lump.namespace;
+    }
+}
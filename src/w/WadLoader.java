@@ -23,10 +23,13 @@
 package w;
 
 import static data.Defines.PU_CACHE;
+import static data.Defines.PU_STATIC;
 import doom.SourceCode;
 import doom.SourceCode.W_Wad;
 import static doom.SourceCode.W_Wad.W_CacheLumpName;
 import static doom.SourceCode.W_Wad.W_CheckNumForName;
+import doom.SourceCode.Z_Zone;
+import static doom.SourceCode.Z_Zone.Z_FreeTags;
 import i.DummySystem;
 import i.IDoomSystem;
 import java.io.BufferedInputStream;
@@ -35,14 +38,20 @@ import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.IntFunction;
 import java.util.logging.Level;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
+import m.Settings;
+import mochadoom.Engine;
 import mochadoom.Loggers;
 import rr.patch_t;
 import utils.C2JUtils;
@@ -57,11 +66,17 @@ public class WadLoader implements IWadLoader {
     public WadLoader(IDoomSystem I) {
         this();
         this.I = I;
+        this.mapWadFiles = Engine.getConfig().equals(Settings.map_wad_files, Boolean.TRUE);
+        this.cacheBudget = Engine.getConfig().getValue(Settings.lump_cache_mb, Integer.class) * 1024L * 1024L;
+        
+        final String dircache = Engine.getConfig().getValue(Settings.lump_directory_cache, String.class);
+        if (dircache != null && !dircache.trim().isEmpty()) {
+            this.directoryCache = new LumpDirectoryCache(dircache.trim());
+        }
     }
 
     public WadLoader() {
         lumpinfo = new lumpinfo_t[0];
-        zone = new HashMap<>();
         wadfiles = new ArrayList<>();
         this.I = new DummySystem();
     }
@@ -83,15 +98,24 @@ public class WadLoader implements IWadLoader {
 	 * 
 	 * Not to brag, but this system is FAR superior to the inline unmarshaling
 	 * used in other projects ;-)
+	 * 
+	 * Now also honours PU_ tags and a memory budget, see LumpCache.
 	 */
 
-	private CacheableDoomObject[] lumpcache;
+	private LumpCache lumpcache;
 
-	private boolean[] preloaded;
+	/** Lump cache memory budget in bytes, <= 0 for unlimited */
+	protected long cacheBudget = 0;
 
 	/** Added for Boom compliance */
 	private List<wadfile_info_t> wadfiles;
 	
+	/** Whether plain local files get memory-mapped when added. See {@link #mapLocalFile} */
+	protected boolean mapWadFiles = true;
+	
+	/** Where the resolved lump directory is kept between runs, null for nowhere */
+	protected LumpDirectoryCache directoryCache;
+	
 	/**
 	 * #define strcmpi strcasecmp MAES: this is just capitalization. However we
 	 * can't manipulate String object in Java directly like this, so this must
@@ -140,6 +164,19 @@ public class WadLoader implements IWadLoader {
      */
 
 	private void AddFile(String uri,ZipEntry entry,int type) throws Exception {
+	    AddFile(uri, entry, type, null);
+	}
+	
+	/**
+	 * @param uri
+	 * @param entry
+	 * @param type
+	 * @param contents the whole resource, already in memory (e.g. an inflated zip
+	 * entry), or null to stream it from uri.
+	 * @throws Exception
+	 */
+	
+	private void AddFile(String uri,ZipEntry entry,int type,byte[] contents) throws Exception {
 		wadinfo_t header = new wadinfo_t();
 		int lump_p; // MAES: was lumpinfo_t* , but we can use it as an array
 		// pointer.
@@ -161,7 +198,11 @@ public class WadLoader implements IWadLoader {
 		// It can be any streamed type handled by the "sugar" utilities.
 		
 		try {
-			handle = InputStreamSugar.createInputStreamFromURI(uri,entry,type);
+		    if (contents != null) {
+		        handle = new ByteArrayInputStream(contents);
+		    } else {
+		        handle = InputStreamSugar.createInputStreamFromURI(uri,entry,type);
+		    }
 		} catch (Exception e) {
 			I.Error(" couldn't open resource %s \n", uri);
 			return;
@@ -173,6 +214,7 @@ public class WadLoader implements IWadLoader {
         wadinfo.name=uri;
         wadinfo.entry=entry;
         wadinfo.type=type;
+        wadinfo.cached=(contents != null);
         
 		// System.out.println(" adding " + filename + "\n");
 
@@ -303,12 +345,52 @@ public class WadLoader implements IWadLoader {
 				lumpinfo[lump_p].wadfile=wadinfo; // MAES: Add Boom provenience info
 			}
 			
-			
+			// Plain local files are served straight out of a memory mapping,
+			// the stream is then only kept for zip entries and reloadable files.
+			// Resources already in memory are served the same way.
+			if (storehandle != null && contents != null) {
+			    wadinfo.mapped = ByteBuffer.wrap(contents).order(ByteOrder.LITTLE_ENDIAN);
+			} else if (storehandle != null && mapWadFiles) {
+			    wadinfo.mapped = mapLocalFile(uri, entry, type);
+			}
 			
 			if (reloadname != null)
 				handle.close();
 	}
 
+	/**
+	 * Maps a whole local file read-only, so that ReadLump can copy lumps out
+	 * of it without seeking or buffering a stream. The mapping outlives the
+	 * channel, so nothing needs to be kept open.
+	 * 
+	 * @param uri
+	 * @param entry
+	 * @param type
+	 * @return the mapping, or null if the resource is zipped, remote, too big
+	 * or just can't be mapped, in which case the stream path is used.
+	 */
+	
+	protected ByteBuffer mapLocalFile(String uri, ZipEntry entry, int type) {
+	    if (entry != null || !C2JUtils.flags(type, InputStreamSugar.FILE)
+	        || C2JUtils.flags(type, InputStreamSugar.ZIP_FILE | InputStreamSugar.NETWORK_FILE)) {
+	        return null;
+	    }
+	    
+	    try (RandomAccessFile raf = new RandomAccessFile(uri, "r");
+	         FileChannel channel = raf.getChannel()) {
+	        final long size = channel.size();
+	        if (size > Integer.MAX_VALUE) {
+	            return null;
+	        }
+	        
+	        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+	    } catch (IOException e) {
+	        Loggers.getLogger(WadLoader.class.getName()).log(Level.WARNING, String.format(
+	            "Could not map %s, falling back to streamed reads", uri), e);
+	        return null;
+	    }
+	}
+
 	/** Try to guess a realistic wad size limit based only on the number of lumps and their
 	 *  STATED contents, in case it's not possible to get an accurate stream size otherwise.
 	 *  Of course, they may be way off with deliberately malformed files etc.
@@ -380,11 +462,8 @@ public class WadLoader implements IWadLoader {
 		lump_p = reloadlump;
 		int fileinfo_p = 0;
 		for (i = reloadlump; i < reloadlump + lumpcount; i++, lump_p++, fileinfo_p++) {
-			if (lumpcache[i] != null) {
-				// That's like "freeing" it, right?
-				lumpcache[i] = null;
-				preloaded[i] = false;
-			}
+			// That's like "freeing" it, right?
+			lumpcache.remove(i);
 
 			lumpinfo[lump_p].position = fileinfo[fileinfo_p].filepos;
 			lumpinfo[lump_p].size = fileinfo[fileinfo_p].size;
@@ -405,7 +484,34 @@ public class WadLoader implements IWadLoader {
 
 		// will be realloced as lumps are added
 		lumpinfo = new lumpinfo_t[0];
+		
+		final int firstwad = wadfiles.size();
+		final LumpDirectoryCache.Key[] keys =
+		    (directoryCache != null) ? LumpDirectoryCache.keysFor(filenames) : null;
+		
+		if (keys == null || !AddCachedFiles(keys)) {
+		    AddFiles(filenames);
+		    
+		    if (keys != null) {
+		        directoryCache.save(keys, wadfiles.subList(firstwad, wadfiles.size()), lumpinfo, numlumps);
+		    }
+		}
+		
+		// set up caching
+		size = numlumps;
+		lumpcache = new LumpCache(size, cacheBudget);
 
+		this.InitLumpHash();
+	}
+	
+	/**
+	 * Reads the directories of all files, then coalesces the marked resources.
+	 * 
+	 * @param filenames
+	 * @throws Exception
+	 */
+	
+	protected void AddFiles(String[] filenames) throws Exception {
 		for (String s : filenames) {
 			if (s != null){
 				if (C2JUtils.testReadAccess(s))
@@ -434,19 +540,65 @@ public class WadLoader implements IWadLoader {
 		CoalesceMarkedResource("S_START", "S_END", li_namespace.ns_sprites);
 		CoalesceMarkedResource("F_START", "F_END", li_namespace.ns_flats);
 		// CoalesceMarkedResource("P_START", "P_END", li_namespace.ns_flats);
-		
-		// set up caching
-		size = numlumps;
-		lumpcache = new CacheableDoomObject[size];
-		preloaded = new boolean[size];
-
-		if (lumpcache == null)
-			I.Error("Couldn't allocate lumpcache");
-
-		this.InitLumpHash();
 	}
 
+	/**
+	 * Takes the whole, already coalesced lump directory from the directory
+	 * cache, if it's there for exactly these files. The files still get
+	 * opened (and mapped), but their directories are not read again.
+	 * 
+	 * @param keys
+	 * @return false on a cache miss, with nothing added
+	 */
+	
+	protected boolean AddCachedFiles(LumpDirectoryCache.Key[] keys) {
+	    final LumpDirectoryCache.Directory cached = directoryCache.load(keys);
+	    
+	    if (cached == null || cached.lumpinfo.length == 0) {
+	        return false;
+	    }
+	    
+	    for (wadfile_info_t wadinfo : cached.wadfiles) {
+	        wadinfo.handle = InputStreamSugar.createInputStreamFromURI(wadinfo.name, null, wadinfo.type);
+	        
+	        if (wadinfo.handle == null) {
+	            // Gone since the keys were made? Close what was opened, and do it the long way.
+	            for (wadfile_info_t w : cached.wadfiles) {
+	                if (w.handle != null) {
+	                    try {
+	                        w.handle.close();
+	                    } catch (IOException e) {}
+	                }
+	            }
+	            
+	            return false;
+	        }
+	        
+	        if (mapWadFiles) {
+	            wadinfo.mapped = mapLocalFile(wadinfo.name, null, wadinfo.type);
+	        }
+	    }
+	    
+	    for (wadfile_info_t wadinfo : cached.wadfiles) {
+	        this.wadfiles.add(wadinfo);
+	        System.out.printf("\tadded %s (cached directory)\n", wadinfo.name);
+	    }
+	    
+	    for (lumpinfo_t l : cached.lumpinfo) {
+	        l.handle = (l.wadfile != null) ? l.wadfile.handle : null;
+	    }
+	    
+	    lumpinfo = cached.lumpinfo;
+	    numlumps = lumpinfo.length;
+	    return true;
+	}
+	
     /**
+     * Adds every file in a zip archive. Local archives are opened for random
+     * access, and each entry is inflated exactly once, straight into memory,
+     * so that its lumps never need to be re-streamed from the start of the
+     * archive. Network archives can only be streamed.
+     * 
      * @param s
      * @param type
      * @throws IOException
@@ -454,6 +606,23 @@ public class WadLoader implements IWadLoader {
      */
     protected void addZipFile(String s, int type)
             throws IOException, Exception {
+        if (!C2JUtils.flags(type, InputStreamSugar.NETWORK_FILE)) {
+            try (ZipFile zip = new ZipFile(s)) {
+                for (ZipEntry zz : Collections.list(zip.entries())) {
+                    if (!zz.isDirectory()) {
+                        final byte[] contents;
+                        try (InputStream is = zip.getInputStream(zz)) {
+                            contents = InputStreamSugar.readFully(is, zz.getSize());
+                        }
+                        
+                        this.AddFile(s, zz, type, contents);
+                    }
+                }
+            }
+            
+            return;
+        }
+        
         // Get entries				        
         BufferedInputStream is=new BufferedInputStream(
             InputStreamSugar.createInputStreamFromURI(s, null, type)
@@ -570,32 +739,11 @@ public class WadLoader implements IWadLoader {
 
 	@Override
 	public lumpinfo_t GetLumpinfoForName(String name) {
-
-		int v1;
-		int v2;
-		// lumpinfo_t lump_p;
-
-		int lump_p;
-		// make the name into two integers for easy compares
-		// case insensitive
-		name8 union = new name8(strupr(name));
-
-		v1 = union.x[0];
-		v2 = union.x[1];
-
-		// scan backwards so patch lump files take precedence
-		lump_p = numlumps;
-
-		while (lump_p-- != 0) {
-			int a = name8.stringToInt(lumpinfo[lump_p].name, 0);
-			int b = name8.stringToInt(lumpinfo[lump_p].name, 4);
-			if ((a == v1) && (b == v2)) {
-				return lumpinfo[lump_p];
-			}
-		}
+		// the hash already lets patch lump files take precedence
+		final int lump_p = doomhash.first(name);
 
 		// TFB. Not found.
-		return null;
+		return (lump_p == -1) ? null : lumpinfo[lump_p];
 	}
 
 	/* (non-Javadoc)
@@ -680,57 +828,104 @@ public class WadLoader implements IWadLoader {
 
 		l = lumpinfo[lump];
 
-		if (l.handle == null) {
-			// reloadable file, so use open / read / close
-			try {
-			    // FIXME: reloadable files can only be that. Files.
-				handle = InputStreamSugar.createInputStreamFromURI(this.reloadname,null,0);
-			} catch (Exception e) {
-				e.printStackTrace();
-				I.Error("W_ReadLump: couldn't open %s", reloadname);
-			}
-		} else
-			handle = l.handle;
+		if (l.handle != null && l.wadfile.mapped != null) {
+		    // Memory-mapped file: a plain copy, no seeking involved.
+		    // Duplicate, so concurrent reads don't trample each other's position.
+		    final ByteBuffer mapped = l.wadfile.mapped.duplicate();
+		    final int available = (int) Math.max(0, Math.min(l.size, mapped.capacity() - l.position));
+		    
+		    if (available > 0) {
+		        mapped.position((int) l.position);
+		        mapped.get(buf, offset, available);
+		    }
+		    
+		    if (available < l.size)
+		        System.err.printf("W_ReadLump: only read %d of %d on lump %d %d\n", available, l.size,
+		            lump, l.position);
+		    
+		    I.BeginRead();
+		    return;
+		}
 
-		try {
+		// Stream handles are shared by every lump of a file, and the level
+		// loader reads map lumps from more than one thread.
+		synchronized (this) {
+			if (l.handle == null) {
+				// reloadable file, so use open / read / close
+				try {
+				    // FIXME: reloadable files can only be that. Files.
+					handle = InputStreamSugar.createInputStreamFromURI(this.reloadname,null,0);
+				} catch (Exception e) {
+					e.printStackTrace();
+					I.Error("W_ReadLump: couldn't open %s", reloadname);
+				}
+			} else
+				handle = l.handle;
 
-			handle=InputStreamSugar.streamSeek(handle,l.position,
-		    l.wadfile.maxsize,l.wadfile.name,l.wadfile.entry,l.wadfile.type);
+			try {
+
+				handle=InputStreamSugar.streamSeek(handle,l.position,
+			    l.wadfile.maxsize,l.wadfile.name,l.wadfile.entry,l.wadfile.type);
 		    
-			// read buffered. Unfortunately that interferes badly with 
-			// guesstimating the actual stream position.
-			BufferedInputStream bis=new BufferedInputStream(handle,8192);
+				// read buffered. Unfortunately that interferes badly with 
+				// guesstimating the actual stream position.
+				BufferedInputStream bis=new BufferedInputStream(handle,8192);
 			
-			while (c<l.size)
-			    c+= bis.read(buf,offset+c, (int) (l.size-c));
+				while (c<l.size)
+				    c+= bis.read(buf,offset+c, (int) (l.size-c));
 			
-			// Well, that's a no-brainer.
-			//l.wadfile.knownpos=l.position+c;
+				// Well, that's a no-brainer.
+				//l.wadfile.knownpos=l.position+c;
 				
-			if (c < l.size)
-				System.err.printf("W_ReadLump: only read %d of %d on lump %d %d\n", c, l.size,
-						lump,l.position);
+				if (c < l.size)
+					System.err.printf("W_ReadLump: only read %d of %d on lump %d %d\n", c, l.size,
+							lump,l.position);
 
-			if (l.handle == null)
-				handle.close();
-			else
-			    l.handle=handle;
+				if (l.handle == null)
+					handle.close();
+				else
+				    l.handle=handle;
 	
-			I.BeginRead ();
+				I.BeginRead ();
 			
-			return;
+				return;
 			
-			// ??? I_EndRead ();
-		} catch (Exception e) {
-			e.printStackTrace();
-			I.Error("W_ReadLump: could not read lump " + lump);
-			e.printStackTrace();
-			return;
+				// ??? I_EndRead ();
+			} catch (Exception e) {
+				e.printStackTrace();
+				I.Error("W_ReadLump: could not read lump " + lump);
+				e.printStackTrace();
+				return;
+			}
 		}
 
 	}
 
 
+	@Override
+	public ByteBuffer ReadLumpBuffer(int lump) {
+	    if (lump >= this.numlumps) {
+	        I.Error("W_ReadLumpBuffer: %i >= numlumps", lump);
+	    }
+	    
+	    final lumpinfo_t l = lumpinfo[lump];
+	    final ByteBuffer view;
+	    
+	    if (l.handle != null && l.wadfile.mapped != null
+	        && l.position + l.size <= l.wadfile.mapped.capacity()) {
+	        final ByteBuffer mapped = l.wadfile.mapped.duplicate();
+	        mapped.limit((int) (l.position + l.size));
+	        mapped.position((int) l.position);
+	        view = mapped.slice();
+	        I.BeginRead();
+	    } else {
+	        // Not mapped (or truncated): ReadLump handles all the quirks.
+	        view = ByteBuffer.wrap(ReadLump(lump));
+	    }
+	    
+	    return view.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
 	/** The most basic of the Wadloader functions. Will attempt to read a lump
 	 *  off disk, based on the specific class type (it will call the unpack()
 	 *  method). If not possible to call the unpack method, it will leave a 
@@ -751,15 +946,21 @@ public class WadLoader implements IWadLoader {
 		// SPECIAL case : if no class is specified (null), the lump is re-read anyway
 		// and you get a raw doombuffer. Plus, it won't be cached.
 		
-		if ((lumpcache[lump] == null)||(what==null)) {
+		CacheableDoomObject cached = (what == null) ? null : lumpcache.lookup(lump, tag);
+		
+		if (cached == null) {
 
 			// read the lump in
 
 			// System.out.println("cache miss on lump "+lump);
 			// Fake Zone system: mark this particular lump with the tag specified
 			// ptr = Z_Malloc (W_LumpLength (lump), tag, &lumpcache[lump]);
-			// Read as a byte buffer anyway.
-			ByteBuffer thebuffer = ByteBuffer.wrap(ReadLump(lump));
+			// Read as a byte buffer anyway. Objects that unpack themselves can
+			// do so straight from a lump view, DoomBuffers must own their bytes.
+			ByteBuffer thebuffer = (what != null && what != DoomBuffer.class
+			    && implementsInterface(what, w.CacheableDoomObject.class))
+			    ? ReadLumpBuffer(lump)
+			    : ByteBuffer.wrap(ReadLump(lump));
 
 			// Class type specified
 
@@ -773,21 +974,21 @@ public class WadLoader implements IWadLoader {
 						// In case of sequential reads of similar objects, use 
 						// CacheLumpNumIntoArray instead.
 						thebuffer.rewind();
-						lumpcache[lump] = (CacheableDoomObject) what.newInstance();
-						lumpcache[lump].unpack(thebuffer);
-						
-						// Track it for freeing
-						Track(lumpcache[lump],lump);
+						cached = (CacheableDoomObject) what.newInstance();
+						cached.unpack(thebuffer);
 						
 						if (what == patch_t.class) {
-							((patch_t) lumpcache[lump]).name = this.lumpinfo[lump].name;
+							((patch_t) cached).name = this.lumpinfo[lump].name;
 						}
+						
+						// Track it for freeing
+						Track(cached, lump, tag);
 					} else {
 						// replace lump with parsed object.
-						lumpcache[lump] = (CacheableDoomObject) thebuffer;
+						cached = (CacheableDoomObject) thebuffer;
 						
 						// Track it for freeing
-						Track((CacheableDoomObject)thebuffer,lump);
+						Track(cached, lump, tag);
 					}
 				} catch (Exception e) {
 					System.err.println("Could not auto-instantiate lump "
@@ -797,15 +998,15 @@ public class WadLoader implements IWadLoader {
 
 			} else {
 				// Class not specified? Then gimme a containing DoomBuffer!
-				DoomBuffer db = new DoomBuffer(thebuffer);				
-				lumpcache[lump] = db;
+				cached = new DoomBuffer(thebuffer);
+				Track(cached, lump, tag);
 			}
 		} else {
 			// System.out.println("cache hit on lump " + lump);
-			// Z.ChangeTag (lumpcache[lump],tag);
+			// Z.ChangeTag (lumpcache[lump],tag) was done by the lookup.
 		}
 		
-		return (T) lumpcache[lump];
+		return (T) cached;
 	}
 
 	/** A very useful method when you need to load a lump which can consist
@@ -835,8 +1036,10 @@ public class WadLoader implements IWadLoader {
 			I.Error("W_CacheLumpNum: %i >= numlumps", lump);
 		}
 
+		CacheableDoomObject cached = lumpcache.lookup(lump, tag);
+		
 		// Nothing cached here...
-		if ((lumpcache[lump] == null)) {
+		if (cached == null) {
 
 			// read the lump in
 
@@ -844,10 +1047,10 @@ public class WadLoader implements IWadLoader {
 			// Read as a byte buffer anyway.
 			ByteBuffer thebuffer = ByteBuffer.wrap(ReadLump(lump));
 			// Store the buffer anyway (as a DoomBuffer)
-			lumpcache[lump] = new DoomBuffer(thebuffer);
+			cached = new DoomBuffer(thebuffer);
 			
 			// Track it (as ONE lump)
-			Track(lumpcache[lump],lump);
+			Track(cached, lump, tag);
 
 
 		} else {
@@ -858,10 +1061,10 @@ public class WadLoader implements IWadLoader {
 		// Class type specified. If the previously cached stuff is a
 		// "DoomBuffer" we can go on.
 
-		if ((what != null) && (lumpcache[lump].getClass() == DoomBuffer.class)) {
+		if ((what != null) && (cached.getClass() == DoomBuffer.class)) {
 			try {
 				// Can it be uncached? If so, deserialize it. FOR EVERY OBJECT.
-				ByteBuffer b = ((DoomBuffer) (lumpcache[lump])).getBuffer();
+				ByteBuffer b = ((DoomBuffer) cached).getBuffer();
 				b.rewind();
 
 				for (int i = 0; i < array.length; i++) {
@@ -913,21 +1116,24 @@ public class WadLoader implements IWadLoader {
 			I.Error("CacheLumpNumIntoArray: %s does not implement CacheableDoomObject", what.getName());
 		}*/
 	
+		// Map data and the like are static until explicitly unlocked.
+		CacheableDoomObject cached = lumpcache.lookup(lump, PU_STATIC);
+		
 		// Nothing cached here...
-		if ((lumpcache[lump] == null) && (what != null)) {
+		if ((cached == null) && (what != null)) {
 			//System.out.println("cache miss on lump " + lump);
-			// Read as a byte buffer anyway.
-		    ByteBuffer thebuffer = ByteBuffer.wrap(ReadLump(lump));
+			// Unpacked straight from the lump view, no intermediate array.
+		    ByteBuffer thebuffer = ReadLumpBuffer(lump);
 			T[] stuff = malloc(what, arrGen, num);
 			
 			// Store the buffer anyway (as a CacheableDoomObjectContainer)
-			lumpcache[lump] = new CacheableDoomObjectContainer<>(stuff);
+			cached = new CacheableDoomObjectContainer<>(stuff);
 			
 			// Auto-unpack it, if possible.
 
             try {
                 thebuffer.rewind();
-                lumpcache[lump].unpack(thebuffer);
+                cached.unpack(thebuffer);
             } catch (IOException e) {
                 Loggers.getLogger(WadLoader.class.getName()).log(Level.WARNING, String.format(
                         "Could not auto-unpack lump %s into an array of objects of class %s", lump, what
@@ -935,24 +1141,24 @@ public class WadLoader implements IWadLoader {
             }
 			
 			// Track it (as ONE lump)
-			Track(lumpcache[lump],lump);
+			Track(cached, lump, PU_STATIC);
 		} else {
 			//System.out.println("cache hit on lump " + lump);
 			// Z.ChangeTag (lumpcache[lump],tag);
 		}
 
-        if (lumpcache[lump] == null) {
+        if (cached == null) {
             return null;
         }
         
         @SuppressWarnings("unchecked")
-        final CacheableDoomObjectContainer<T> cont = (CacheableDoomObjectContainer<T>) lumpcache[lump];
+        final CacheableDoomObjectContainer<T> cont = (CacheableDoomObjectContainer<T>) cached;
         return cont.getStuff();
 	}
 	
 	public CacheableDoomObject CacheLumpNum(int lump)
 	{
-	  return lumpcache[lump];
+	  return lumpcache.peek(lump);
 	}
 	
 	
@@ -1136,25 +1342,19 @@ public class WadLoader implements IWadLoader {
 	 * 
 	 * And the best part is that Java provides a perfectly reasonable implementation.
 	 * 
+	 * ...until you want ALL the lumps of a given name, and no boxing. So now it's
+	 * killough's chains again, keyed on packed 8-char names. See LumpNameHash.
 	 */
 
-	HashMap<String, Integer> doomhash;
+	LumpNameHash doomhash;
 
-	protected void InitLumpHash() {
-
-		doomhash = new HashMap<String, Integer>(numlumps);
-
-		//for (int i = 0; i < numlumps; i++)
-		//	lumpinfo[i].index = -1; // mark slots empty
+	/** Lumps by namespace, once coalesced */
+	NamespaceDirectory namespaces;
 
-		// Insert nodes to the beginning of each chain, in first-to-last
-		// lump order, so that the last lump of a given name appears first
-		// in any chain, observing pwad ordering rules. killough
-
-        for (int i = 0; i < numlumps; i++) { // hash function:
-            doomhash.put(lumpinfo[i].name.toUpperCase(), new Integer(i));
-        }
-    }
+	protected void InitLumpHash() {
+		doomhash = new LumpNameHash(lumpinfo, numlumps);
+		namespaces = new NamespaceDirectory(lumpinfo, numlumps);
+	}
 
 	/*
 	 * (non-Javadoc)
@@ -1165,15 +1365,22 @@ public class WadLoader implements IWadLoader {
     @SourceCode.Compatible
     @W_Wad.C(W_CheckNumForName)
 	public int CheckNumForName(String name/* , int namespace */) {
-		final Integer r = doomhash.get(name);
-		// System.out.print("Found "+r);
+		return doomhash.first(name);
+	}
 
-		if (r != null) {
-			return r;
-		}
+	@Override
+	public int CheckNumForName(String name, li_namespace namespace) {
+	    return namespaces.checkNumForName(name, namespace);
+	}
 
-		// System.out.print(" found "+lumpinfo[i]+"\n" );
-		return -1;
+	@Override
+	public int[] GetNamespaceLumps(li_namespace namespace) {
+	    return namespaces.getLumps(namespace).clone();
+	}
+
+	@Override
+	public int[] CheckNumsForSprite(String name) {
+	    return namespaces.checkNumsForSprite(name);
 	}
 
 	/*
@@ -1183,27 +1390,16 @@ public class WadLoader implements IWadLoader {
 	 */
     @Override
 	public int[] CheckNumsForName(String name) {
-		list.clear();
-
-		// Dumb search, no chained hashtables I'm afraid :-/
-		// Move backwards, so list is compiled with more recent ones first.
-		for (int i = numlumps - 1; i >= 0; i--) {
-			if (name.compareToIgnoreCase(lumpinfo[i].name) == 0) {
-				list.add(i);
-			}
-		}
+		// Chains run backwards, so the list comes out with more recent ones first.
+		final int[] result = new int[doomhash.count(name)];
 
-		final int num = list.size();
-		int[] result = new int[num];
-		for (int i = 0; i < num; i++) {
-			result[i] = list.get(i);
+		for (int i = doomhash.first(name), k = 0; i != -1; i = doomhash.next(i, name)) {
+			result[k++] = i;
 		}
 
-		// Might be empty/null, so check that out.
+		// Might be empty, so check that out.
 		return result;
 	}
-    
-    private final ArrayList<Integer> list=new ArrayList<Integer>();
 	
 	@Override
 	public lumpinfo_t GetLumpInfo(int i) {
@@ -1356,40 +1552,42 @@ public class WadLoader implements IWadLoader {
 
 	@Override
 	public void UnlockLumpNum(int lump) {
-		lumpcache[lump]=null;
+		lumpcache.remove(lump);
 	}
 
 	@Override
 	public void InjectLumpNum(int lump, CacheableDoomObject obj){
-		lumpcache[lump]=obj;
+		// Injected contents can't be read back from disk, so never purge them.
+		Track(obj, lump, PU_STATIC);
 	}
 	
 	//// Merged remnants from LumpZone here.
 
-    HashMap<CacheableDoomObject, Integer> zone;
+	/** Add a lump to the tracking, charging its size against the cache budget */
 
-	/** Add a lump to the tracking */
-
-	public void Track(CacheableDoomObject lump, int index){
-		zone.put(lump, index);
+	public void Track(CacheableDoomObject lump, int index, int tag){
+		lumpcache.put(index, lump, tag, lumpinfo[index].size);
 	}
 
 	@Override
 	public void UnlockLumpNum(CacheableDoomObject lump){
-		// Remove it from the reference
-		Integer lumpno=zone.remove(lump);
-		
-
 		// Force nulling. This should trigger garbage collection,
 		// and reclaim some memory, provided you also nulled any other 
 		// reference to a certain lump. Therefore, make sure you null 
 		// stuff right after calling this method, if you want to make sure 
 		// that they won't be referenced anywhere else.
-		
-		if (lumpno!=null) {
-			lumpcache[lumpno]=null;
-			//System.out.printf("Lump %d %d freed\n",lump.hashCode(),lumpno);
-		}
+		lumpcache.remove(lump);
+	}
+
+	@Override
+	@Z_Zone.C(Z_FreeTags)
+	public void FreeTags(int lowtag, int hightag) {
+	    lumpcache.freeTags(lowtag, hightag);
+	}
+
+	/** Hit, miss and eviction counters live here */
+	public LumpCache GetLumpCache() {
+	    return lumpcache;
 	}
 
     @Override
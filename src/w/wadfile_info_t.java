@@ -1,6 +1,7 @@
 package w;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.zip.ZipEntry;
 
 // CPhipps - changed wad init
@@ -15,4 +16,5 @@ public class wadfile_info_t {
       public InputStream handle;
       public boolean cached; // Whether we use local caching e.g. for URL or zips
       public long maxsize=-1; // Update when known for sure. Will speed up seeking.
+      public ByteBuffer mapped; // Memory-mapped contents of plain local files. If set, lumps are read from here instead of handle.
     }